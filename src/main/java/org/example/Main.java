@@ -14,6 +14,9 @@ public class Main {
             System.out.println("Media Ratings Platform Server is running on http://localhost:8080");
             System.out.println("Press Ctrl+C to stop the server");
 
+            // Ctrl+C/SIGTERM stoppt den Server regulär, damit gepufferte Likes und Aggregate noch geschrieben werden
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "server-shutdown"));
+
             // Hält die Applikation am Laufen
             // join() blockiert den Haupt-Thread unbegrenzt
             Thread.currentThread().join();
@@ -10,6 +10,7 @@ import org.example.service.UserService;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
@@ -37,10 +38,18 @@ public class LeaderboardController implements HttpHandler {
             return;
         }
 
-        handleGetLeaderboard(exchange);
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getQuery();
+        if (path.endsWith("/me")) {
+            handleRankAround(exchange, null);
+        } else if (getQueryParam(query, "around") != null) {
+            handleRankAround(exchange, getQueryParam(query, "around"));
+        } else {
+            handleGetLeaderboard(exchange);
+        }
     }
 
-    // GET /api/leaderboard?limit=10
+    // GET /api/leaderboard?limit=10&metric=ratings|likes|averageStars|media|favorites&period=all|day|week|month
     private void handleGetLeaderboard(HttpExchange exchange) throws IOException {
         // Authentifizierung prüfen
         Optional<User> user = authenticateRequest(exchange);
@@ -53,7 +62,10 @@ public class LeaderboardController implements HttpHandler {
             String query = exchange.getRequestURI().getQuery();
             int limit = parseLimitParam(query, 10);
 
-            var leaderboard = leaderboardService.getLeaderboard(limit);
+            String metric = getQueryParam(query, "metric");
+            String period = getQueryParam(query, "period");
+
+            var leaderboard = leaderboardService.getLeaderboard(limit, metric, period);
             String response = objectMapper.writeValueAsString(leaderboard);
             sendResponse(exchange, 200, response);
         } catch (IllegalArgumentException e) {
@@ -63,6 +75,34 @@ public class LeaderboardController implements HttpHandler {
         }
     }
 
+    // GET /api/leaderboard/me?window=5 (eigener Rang) oder GET /api/leaderboard?around=username&window=5
+    private void handleRankAround(HttpExchange exchange, String username) throws IOException {
+        Optional<User> user = authenticateRequest(exchange);
+        if (user.isEmpty()) {
+            sendResponse(exchange, 401, "{\"error\":\"Unauthorized\"}");
+            return;
+        }
+
+        try {
+            String query = exchange.getRequestURI().getQuery();
+            String target = username != null ? username : user.get().getUsername();
+            int window = parseIntParam(query, "window", 5);
+            String metric = getQueryParam(query, "metric");
+            String period = getQueryParam(query, "period");
+
+            Map<String, Object> rank = leaderboardService.getRankAround(target, window, metric, period);
+            if (rank == null) {
+                sendResponse(exchange, 404, "{\"error\":\"User not found in leaderboard\"}");
+                return;
+            }
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(rank));
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (RuntimeException e) {
+            sendResponse(exchange, 500, "{\"error\":\"Database error\"}");
+        }
+    }
+
     // Authentifizierung via Bearer Token
     private Optional<User> authenticateRequest(HttpExchange exchange) {
         String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
@@ -75,17 +115,29 @@ public class LeaderboardController implements HttpHandler {
 
     // Parst limit Parameter
     private int parseLimitParam(String query, int defaultValue) {
-        if (query == null) return defaultValue;
+        return parseIntParam(query, "limit", defaultValue);
+    }
+
+    // Parst einen Integer Query-Parameter
+    private int parseIntParam(String query, String name, int defaultValue) {
+        String value = getQueryParam(query, name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // Liest einen Query-Parameter (URL-dekodiert), null wenn nicht vorhanden
+    private String getQueryParam(String query, String name) {
+        if (query == null) return null;
         for (String param : query.split("&")) {
-            if (param.startsWith("limit=")) {
-                try {
-                    return Integer.parseInt(param.substring(6));
-                } catch (NumberFormatException e) {
-                    return defaultValue;
-                }
+            if (param.startsWith(name + "=")) {
+                return URLDecoder.decode(param.substring(name.length() + 1), StandardCharsets.UTF_8);
             }
         }
-        return defaultValue;
+        return null;
     }
 
     // Sendet HTTP Response
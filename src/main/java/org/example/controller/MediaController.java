@@ -1,17 +1,22 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import org.example.model.MediaEntry;
 import org.example.model.MediaType;
 import org.example.model.User;
+import org.example.repository.MediaRepository.ViewerAnnotation;
 import org.example.service.MediaService;
 import org.example.service.UserService;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 // Controller für Media-Management (CRUD Operationen für Filme, Serien, Spiele)
@@ -37,7 +42,7 @@ public class MediaController {
         try {
             switch (method) {
                 case "GET":
-                    handleGetMedia(exchange, path);  // Kein Token erforderlich
+                    handleGetMedia(exchange, path, user);  // Kein Token erforderlich (mit Token: isFavorite/myStars)
                     break;
                 case "POST":
                     if (user.isEmpty()) {
@@ -69,7 +74,7 @@ public class MediaController {
     }
 
     // Lädt alle oder spezifisches Media
-    private void handleGetMedia(HttpExchange exchange, String path) throws IOException {
+    private void handleGetMedia(HttpExchange exchange, String path, Optional<User> viewer) throws IOException {
         String[] parts = path.split("/");
 
         if (parts.length == 3) {
@@ -97,12 +102,12 @@ public class MediaController {
                 Integer ageRestriction = parseIntegerParam(ageStr);
 
                 List<MediaEntry> results = mediaService.searchMedia(title, genre, mediaType, minRating, ageRestriction);
-                String response = objectMapper.writeValueAsString(results);
+                String response = writeMediaList(results, viewer);
                 sendResponse(exchange, 200, response);
             } else {
                 // gibt alle Media zurück
                 List<MediaEntry> media = mediaService.getAllMedia();
-                String response = objectMapper.writeValueAsString(media);  // List -> JSON
+                String response = writeMediaList(media, viewer);  // List -> JSON
                 sendResponse(exchange, 200, response);
             }
         } else if (parts.length == 4) {
@@ -119,6 +124,19 @@ public class MediaController {
             } catch (NumberFormatException e) {
                 sendResponse(exchange, 400, "{\"error\":\"Invalid media ID\"}");  // ID ist keine Zahl
             }
+        } else if (parts.length == 5 && "stats".equals(parts[4])) {
+            // GET /api/media/{id}/stats - Durchschnitt und Sterne-Verteilung
+            try {
+                int id = Integer.parseInt(parts[3]);
+                Optional<Map<String, Object>> stats = mediaService.getRatingStats(id);
+                if (stats.isPresent()) {
+                    sendResponse(exchange, 200, objectMapper.writeValueAsString(stats.get()));
+                } else {
+                    sendResponse(exchange, 404, "{\"error\":\"Media not found\"}");
+                }
+            } catch (NumberFormatException e) {
+                sendResponse(exchange, 400, "{\"error\":\"Invalid media ID\"}");
+            }
         } else {
             sendResponse(exchange, 400, "{\"error\":\"Invalid request\"}");
         }
@@ -180,6 +198,25 @@ public class MediaController {
         }
     }
 
+    // Media-Liste als JSON; für angemeldete User zusätzlich isFavorite und myStars (null = nicht bewertet)
+    // pro Eintrag, geladen mit einem gebündelten Query für die ganze Liste statt zwei Requests pro Eintrag
+    private String writeMediaList(List<MediaEntry> media, Optional<User> viewer) throws IOException {
+        if (viewer.isEmpty() || media.isEmpty()) {
+            return objectMapper.writeValueAsString(media);
+        }
+        Map<Integer, ViewerAnnotation> annotations =
+                mediaService.getViewerAnnotations(viewer.get().getUsername(), media);
+        List<Map<String, Object>> items = new ArrayList<>(media.size());
+        for (MediaEntry entry : media) {
+            Map<String, Object> item = objectMapper.convertValue(entry, new TypeReference<LinkedHashMap<String, Object>>() {});
+            ViewerAnnotation annotation = annotations.get(entry.getId());
+            item.put("isFavorite", annotation != null && annotation.favorite());
+            item.put("myStars", annotation != null ? annotation.stars() : null);
+            items.add(item);
+        }
+        return objectMapper.writeValueAsString(items);
+    }
+
     // Authentifiziert Request via Token im Authorization Header
     private Optional<User> authenticateRequest(HttpExchange exchange) {
         try {
@@ -0,0 +1,112 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import org.example.service.FavoriteService;
+import org.example.service.TopMediaService;
+import org.example.service.TrendingService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Controller für Media-Ranglisten aus In-Memory Strukturen (öffentlich wie die Media-Ratings)
+public class MediaRankingController {
+    private final TopMediaService topMediaService;
+    private final TrendingService trendingService;
+    private final FavoriteService favoriteService;
+    private final ObjectMapper objectMapper;
+
+    public MediaRankingController(TopMediaService topMediaService, TrendingService trendingService,
+                                  FavoriteService favoriteService) {
+        this.topMediaService = topMediaService;
+        this.trendingService = trendingService;
+        this.favoriteService = favoriteService;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    // GET /api/media/top?type=MOVIE&genre=Drama&limit=10
+    public void handleTopMedia(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            String query = exchange.getRequestURI().getQuery();
+            int limit = parseLimitParam(query, 10);
+            List<Map<String, Object>> top = topMediaService.getTopMedia(
+                    getQueryParam(query, "type"), getQueryParam(query, "genre"), limit);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(top));
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    // GET /api/media/trending?limit=10
+    public void handleTrending(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            int limit = parseLimitParam(exchange.getRequestURI().getQuery(), 10);
+            List<Map<String, Object>> trending = trendingService.getTrending(limit);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(trending));
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    // GET /api/media/most-favorited?limit=10
+    public void handleMostFavorited(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            int limit = parseLimitParam(exchange.getRequestURI().getQuery(), 10);
+            List<Map<String, Object>> mostFavorited = favoriteService.getMostFavorited(limit);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(mostFavorited));
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
+    // Liest einen Query-Parameter (URL-dekodiert), null wenn nicht vorhanden
+    private String getQueryParam(String query, String name) {
+        if (query == null) return null;
+        for (String param : query.split("&")) {
+            if (param.startsWith(name + "=")) {
+                return URLDecoder.decode(param.substring(name.length() + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    // Parst limit Parameter
+    private int parseLimitParam(String query, int defaultValue) {
+        String value = getQueryParam(query, "limit");
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // Sendet HTTP Response
+    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
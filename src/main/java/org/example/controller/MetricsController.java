@@ -0,0 +1,53 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import org.example.service.CommentScreeningService;
+import org.example.service.LikeCounterService;
+import org.example.service.RatingLikeIndex;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Controller für Betriebs-Metriken der In-Memory Puffer (GET /api/metrics)
+public class MetricsController {
+    private final LikeCounterService likeCounterService;
+    private final RatingLikeIndex ratingLikeIndex;
+    private final CommentScreeningService commentScreeningService;
+    private final ObjectMapper objectMapper;
+
+    public MetricsController(LikeCounterService likeCounterService, RatingLikeIndex ratingLikeIndex,
+                             CommentScreeningService commentScreeningService) {
+        this.likeCounterService = likeCounterService;
+        this.ratingLikeIndex = ratingLikeIndex;
+        this.commentScreeningService = commentScreeningService;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    // GET /api/metrics
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("likes", likeCounterService.getMetrics());
+        metrics.put("likeDedupe", ratingLikeIndex.getMetrics());
+        metrics.put("commentScreening", commentScreeningService.getMetrics());
+        sendResponse(exchange, 200, objectMapper.writeValueAsString(metrics));
+    }
+
+    // Sendet HTTP Response
+    private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sun.net.httpserver.HttpExchange;
@@ -11,7 +13,10 @@ import org.example.service.UserService;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 // Controller für Rating-Operationen (erstellen, lesen, aktualisieren, löschen von Ratings)
@@ -88,7 +93,9 @@ public class RatingController {
                         return;
                     case "like":
                         if (method.equals("POST")) {
-                            handleLikeRating(exchange, ratingId);
+                            handleLikeRating(exchange, ratingId, user.get());
+                        } else if (method.equals("DELETE")) {
+                            handleUnlikeRating(exchange, ratingId, user.get());
                         } else {
                             sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
                         }
@@ -134,7 +141,8 @@ public class RatingController {
             String path = exchange.getRequestURI().getPath();
             String username = path.split("/")[3];
 
-            List<Rating> ratings = ratingService.getRatingHistory(username);
+            List<Rating> ratings = ratingService.getRatingHistory(username,
+                    includeComments(exchange.getRequestURI().getQuery()));
             String response = objectMapper.writeValueAsString(ratings);
             sendResponse(exchange, 200, response);
         } catch (RuntimeException e) {
@@ -142,11 +150,25 @@ public class RatingController {
         }
     }
 
-    // GET /api/media/{mediaId}/ratings
+    // GET /api/media/{mediaId}/ratings (alle, neueste zuerst) oder ?sort=likes&limit=10 (Top-Kommentare)
+    // ?comments=false liefert die Liste ohne Kommentare (schmale Zeilen, Kommentare über /api/ratings/comments)
     private void handleGetRatings(HttpExchange exchange, int mediaId) throws IOException {
-        List<Rating> ratings = ratingService.getRatingsByMediaId(mediaId);
-        String response = objectMapper.writeValueAsString(ratings);
-        sendResponse(exchange, 200, response);
+        String query = exchange.getRequestURI().getQuery();
+        String sort = parseQueryParam(query, "sort");
+        if (sort != null && !sort.equals("likes")) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid sort: " + sort + "\"}");
+            return;
+        }
+
+        try {
+            List<Rating> ratings = sort == null
+                    ? ratingService.getRatingsByMediaId(mediaId, includeComments(query))
+                    : ratingService.getTopRatings(mediaId, parseIntParam(query, "limit", 10));
+            String response = objectMapper.writeValueAsString(ratings);
+            sendResponse(exchange, 200, response);
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        }
     }
 
     // POST /api/media/{mediaId}/ratings
@@ -246,15 +268,33 @@ public class RatingController {
         }
     }
 
-    // POST /api/ratings/{ratingId}/like
-    private void handleLikeRating(HttpExchange exchange, int ratingId) throws IOException {
-        boolean success = ratingService.likeRating(ratingId);
-        if (success) {
-            Rating rating = ratingService.getRatingById(ratingId);
-            String response = objectMapper.writeValueAsString(rating);
-            sendResponse(exchange, 200, response);
-        } else {
-            sendResponse(exchange, 404, "{\"error\":\"Rating not found\"}");
+    // POST /api/ratings/{ratingId}/like (ein Like pro User)
+    private void handleLikeRating(HttpExchange exchange, int ratingId, User user) throws IOException {
+        try {
+            Rating rating = ratingService.likeRating(ratingId, user.getUsername());
+            if (rating != null) {
+                String response = objectMapper.writeValueAsString(rating);
+                sendResponse(exchange, 200, response);
+            } else {
+                sendResponse(exchange, 404, "{\"error\":\"Rating not found\"}");
+            }
+        } catch (IllegalStateException e) {
+            sendResponse(exchange, 409, "{\"error\":\"" + e.getMessage() + "\"}");  // 409 = Conflict
+        }
+    }
+
+    // DELETE /api/ratings/{ratingId}/like
+    private void handleUnlikeRating(HttpExchange exchange, int ratingId, User user) throws IOException {
+        try {
+            Rating rating = ratingService.unlikeRating(ratingId, user.getUsername());
+            if (rating != null) {
+                String response = objectMapper.writeValueAsString(rating);
+                sendResponse(exchange, 200, response);
+            } else {
+                sendResponse(exchange, 404, "{\"error\":\"Rating not found\"}");
+            }
+        } catch (IllegalStateException e) {
+            sendResponse(exchange, 409, "{\"error\":\"" + e.getMessage() + "\"}");
         }
     }
 
@@ -268,6 +308,133 @@ public class RatingController {
         }
     }
 
+    // Handler für /api/ratings/pending - Moderations-Queue (GET ?after={ratingId}&limit=50)
+    public void handlePendingRatings(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            if (authenticateRequest(exchange).isEmpty()) {
+                sendResponse(exchange, 401, "{\"error\":\"Unauthorized\"}");
+                return;
+            }
+
+            String query = exchange.getRequestURI().getQuery();
+            int after = parseIntParam(query, "after", 0);
+            int limit = parseIntParam(query, "limit", 50);
+            List<Rating> ratings = ratingService.getPendingRatings(after, limit);
+
+            // nextAfter = Cursor für die nächste Seite (null wenn keine weiteren Ratings)
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("ratings", ratings);
+            page.put("nextAfter", ratings.size() == limit ? ratings.get(ratings.size() - 1).getId() : null);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(page));
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (RuntimeException e) {
+            sendResponse(exchange, 500, "{\"error\":\"Database error\"}");
+        }
+    }
+
+    // Handler für /api/ratings/confirm - Batch-Bestätigung (POST {"ratingIds":[1,2,3]})
+    public void handleConfirmRatings(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            if (authenticateRequest(exchange).isEmpty()) {
+                sendResponse(exchange, 401, "{\"error\":\"Unauthorized\"}");
+                return;
+            }
+
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            JsonNode ids = objectMapper.readTree(body).path("ratingIds");
+            if (!ids.isArray()) {
+                sendResponse(exchange, 400, "{\"error\":\"ratingIds must be an array\"}");
+                return;
+            }
+            List<Integer> ratingIds = new ArrayList<>();
+            for (JsonNode id : ids) {
+                if (!id.canConvertToInt()) {
+                    sendResponse(exchange, 400, "{\"error\":\"Invalid rating ID\"}");
+                    return;
+                }
+                ratingIds.add(id.asInt());
+            }
+
+            List<Rating> confirmed = ratingService.confirmRatings(ratingIds);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("confirmed", confirmed.size());
+            result.put("ratingIds", confirmed.stream().map(Rating::getId).toList());
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(result));
+        } catch (JsonProcessingException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid JSON\"}");
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (RuntimeException e) {
+            sendResponse(exchange, 500, "{\"error\":\"Database error\"}");
+        }
+    }
+
+    // Handler für /api/ratings/comments?ids=1,2,3 - Kommentare zu einer schmalen Rating-Liste nachladen
+    public void handleRatingComments(HttpExchange exchange) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            String ids = parseQueryParam(exchange.getRequestURI().getQuery(), "ids");
+            List<Integer> ratingIds = new ArrayList<>();
+            if (ids != null) {
+                for (String id : ids.split(",")) {
+                    if (!id.isBlank()) {
+                        ratingIds.add(Integer.parseInt(id.trim()));
+                    }
+                }
+            }
+            Map<Integer, String> comments = ratingService.getComments(ratingIds);
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(comments));
+        } catch (NumberFormatException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid rating ID\"}");
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        } catch (RuntimeException e) {
+            sendResponse(exchange, 500, "{\"error\":\"Database error\"}");
+        }
+    }
+
+    // comments=false -> Liste ohne Kommentare (Default: mit)
+    private boolean includeComments(String query) {
+        return !"false".equals(parseQueryParam(query, "comments"));
+    }
+
+    // Parst einen Query-Parameter, null wenn nicht vorhanden
+    private String parseQueryParam(String query, String name) {
+        if (query == null) return null;
+        for (String param : query.split("&")) {
+            if (param.startsWith(name + "=")) {
+                return param.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    // Parst einen ganzzahligen Query-Parameter (Default wenn fehlend oder ungültig)
+    private int parseIntParam(String query, String name, int defaultValue) {
+        String value = parseQueryParam(query, name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     // Token-Validierung
     private Optional<User> authenticateRequest(HttpExchange exchange) {
         String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
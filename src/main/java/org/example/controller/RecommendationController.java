@@ -4,25 +4,37 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.example.dto.BatchRecommendationRequest;
 import org.example.model.User;
+import org.example.service.CoOccurrenceService;
 import org.example.service.RecommendationService;
+import org.example.service.SimilarMediaService;
 import org.example.service.UserService;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
 
 // Controller für Empfehlungen
 public class RecommendationController implements HttpHandler {
     private final RecommendationService recommendationService;
+    private final SimilarMediaService similarMediaService;
+    private final CoOccurrenceService coOccurrenceService;
     private final UserService userService;
     private final ObjectMapper objectMapper;
 
-    public RecommendationController(RecommendationService recommendationService, UserService userService) {
+    public RecommendationController(RecommendationService recommendationService,
+                                    SimilarMediaService similarMediaService,
+                                    CoOccurrenceService coOccurrenceService, UserService userService) {
         this.recommendationService = recommendationService;
+        this.similarMediaService = similarMediaService;
+        this.coOccurrenceService = coOccurrenceService;
         this.userService = userService;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
@@ -31,6 +43,16 @@ public class RecommendationController implements HttpHandler {
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.endsWith("/batch")) {
+            if (!"POST".equals(method)) {
+                sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+                return;
+            }
+            handleBatchRecommendations(exchange);
+            return;
+        }
 
         if (!"GET".equals(method)) {
             sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
@@ -69,6 +91,86 @@ public class RecommendationController implements HttpHandler {
         }
     }
 
+    // POST /api/recommendations/batch  Body: {"usernames": [...], "limit": 10}
+    // Antwort wird als NDJSON gestreamt (eine Zeile pro User), damit große Batches nicht im Speicher landen
+    private void handleBatchRecommendations(HttpExchange exchange) throws IOException {
+        Optional<User> userOpt = authenticateRequest(exchange);  // Token wird nur einmal pro Batch geprüft
+        if (userOpt.isEmpty()) {
+            sendResponse(exchange, 401, "{\"error\":\"Unauthorized\"}");
+            return;
+        }
+
+        BatchRecommendationRequest request;
+        try {
+            request = objectMapper.readValue(exchange.getRequestBody(), BatchRecommendationRequest.class);
+        } catch (IOException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid request body\"}");
+            return;
+        }
+        if (request.getUsernames() == null || request.getUsernames().isEmpty()) {
+            sendResponse(exchange, 400, "{\"error\":\"Usernames required\"}");
+            return;
+        }
+        if (request.getLimit() <= 0) {
+            sendResponse(exchange, 400, "{\"error\":\"Limit must be greater than 0\"}");
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);  // 0 = Chunked Transfer (Länge unbekannt)
+        try (OutputStream os = new BufferedOutputStream(exchange.getResponseBody())) {
+            try {
+                recommendationService.getRecommendationsBatch(request.getUsernames(), request.getLimit(), result -> {
+                    try {
+                        os.write(objectMapper.writeValueAsBytes(result));
+                        os.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Status ist schon gesendet -> Fehler als letzte Zeile melden
+                os.write("{\"error\":\"Database error\"}\n".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // GET /api/media/{id}/similar?limit={limit} (öffentlich wie die Media-Detailseite)
+    public void handleSimilarMedia(HttpExchange exchange) throws IOException {
+        handleMediaNeighbors(exchange, similarMediaService::getSimilarMedia);
+    }
+
+    // GET /api/media/{id}/also-rated?limit={limit} ("User die das mochten, mochten auch")
+    public void handleAlsoRated(HttpExchange exchange) throws IOException {
+        handleMediaNeighbors(exchange, coOccurrenceService::getAlsoRated);
+    }
+
+    // Gemeinsame Logik für /api/media/{id}/... Listen aus In-Memory Indexen (null = Media nicht gefunden)
+    private void handleMediaNeighbors(HttpExchange exchange,
+                                      BiFunction<Integer, Integer, List<Map<String, Object>>> lookup) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendResponse(exchange, 405, "{\"error\":\"Method not allowed\"}");
+            return;
+        }
+
+        try {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            int mediaId = Integer.parseInt(parts[3]);
+            int limit = parseLimitParam(exchange.getRequestURI().getQuery(), 10);
+
+            List<Map<String, Object>> entries = lookup.apply(mediaId, limit);
+            if (entries == null) {
+                sendResponse(exchange, 404, "{\"error\":\"Media not found\"}");
+                return;
+            }
+            sendResponse(exchange, 200, objectMapper.writeValueAsString(entries));
+        } catch (NumberFormatException e) {
+            sendResponse(exchange, 400, "{\"error\":\"Invalid media ID\"}");
+        } catch (IllegalArgumentException e) {
+            sendResponse(exchange, 400, "{\"error\":\"" + e.getMessage() + "\"}");
+        }
+    }
+
     // Authentifizierung via Bearer Token
     private Optional<User> authenticateRequest(HttpExchange exchange) {
         String authHeader = exchange.getRequestHeaders().getFirst("Authorization");
@@ -0,0 +1,38 @@
+package org.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Data Transfer Object für Batch-Empfehlungen
+// Empfängt die Usernames (und optional das Limit pro User) vom Client
+public class BatchRecommendationRequest {
+    private List<String> usernames;
+    private int limit;
+
+    // Standard-Konstruktor (für Jackson JSON-Mapping)
+    public BatchRecommendationRequest() {
+        this.usernames = new ArrayList<>();
+        this.limit = 10;
+    }
+
+    public BatchRecommendationRequest(List<String> usernames, int limit) {
+        this.usernames = usernames;
+        this.limit = limit;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
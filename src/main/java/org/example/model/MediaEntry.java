@@ -16,6 +16,8 @@ public class MediaEntry {
     private String creator;  // Username des Erstellers
     private List<Rating> ratings;  // Alle Ratings zu diesem Media
     private double averageScore;  // Durchschnittliche Bewertung (berechnet)
+    private int favoriteCount;  // Anzahl User die das Media favorisiert haben
+    private int confirmedCount;  // Anzahl bestätigter Ratings (Basis von averageScore)
 
     // Standard-Konstruktor (für Jackson JSON-Mapping)
     public MediaEntry() {
@@ -129,5 +131,21 @@ public class MediaEntry {
     public void setAverageScore(double averageScore) {
         this.averageScore = averageScore;
     }
+
+    public int getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public void setFavoriteCount(int favoriteCount) {
+        this.favoriteCount = favoriteCount;
+    }
+
+    public int getConfirmedCount() {
+        return confirmedCount;
+    }
+
+    public void setConfirmedCount(int confirmedCount) {
+        this.confirmedCount = confirmedCount;
+    }
 }
 
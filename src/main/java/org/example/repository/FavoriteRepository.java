@@ -35,37 +35,107 @@ public class FavoriteRepository {
         });
     }
 
-    // Fügt ein Media zu den Favorites eines Users hinzu
-    public boolean addFavorite(String username, int mediaId) {
+    // Delta-Update des gepflegten Zählers, ergänzt um "+ 1 WHERE ..." bzw. "- 1 WHERE ..."
+    private static final String COUNTER_SQL = "UPDATE media_entries SET favorite_count = favorite_count ";
+
+    // Ergebnis einer Favoriten-Änderung (ein Statement inkl. Existenzprüfung des Media)
+    public enum FavoriteChange {
+        ADDED,
+        REMOVED,
+        UNCHANGED,  // War schon im Zielzustand (z.B. paralleler Request desselben Users)
+        MEDIA_NOT_FOUND
+    }
+
+    // Fügt ein Media zu den Favorites eines Users hinzu (ein Round-Trip)
+    // INSERT ... SELECT aus media_entries: unbekanntes Media fügt nichts ein statt an der FK zu scheitern
+    // media_entries.favorite_count wird im selben Statement per Delta angepasst
+    public FavoriteChange addFavorite(String username, int mediaId) {
         return DatabaseConnection.executeInTransaction(conn -> {
             // ON CONFLICT DO NOTHING: Ignoriert Fehler wenn schon favorisiert (statt Exception)
-            String sql = "INSERT INTO favorites (username, media_id) VALUES (?, ?) ON CONFLICT DO NOTHING";
+            String sql = "WITH ins AS (" +
+                    "INSERT INTO favorites (username, media_id) " +
+                    "SELECT ?, id FROM media_entries WHERE id = ? " +
+                    "ON CONFLICT DO NOTHING RETURNING media_id), " +
+                    "counter AS (" + COUNTER_SQL + "+ 1 WHERE id IN (SELECT media_id FROM ins)) " +
+                    "SELECT EXISTS (SELECT 1 FROM media_entries WHERE id = ?) AS media_exists, " +
+                    "EXISTS (SELECT 1 FROM ins) AS added";
 
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, username);
                 stmt.setInt(2, mediaId);
-                return stmt.executeUpdate() > 0;  // true wenn Zeile eingefügt wurde
+                stmt.setInt(3, mediaId);
+                return readChange(stmt, false);
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         });
     }
 
-    // Entfernt ein Media aus den Favorites eines Users
+    // Entfernt ein Media aus den Favorites eines Users (inkl. favorite_count, ein Round-Trip)
     public boolean removeFavorite(String username, int mediaId) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "DELETE FROM favorites WHERE username = ? AND media_id = ?";
+            String sql = "WITH del AS (" +
+                    "DELETE FROM favorites WHERE username = ? AND media_id = ? RETURNING media_id), " +
+                    "counter AS (" + COUNTER_SQL + "- 1 WHERE id IN (SELECT media_id FROM del)) " +
+                    "SELECT EXISTS (SELECT 1 FROM del) AS removed";
 
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setString(1, username);
                 stmt.setInt(2, mediaId);
-                return stmt.executeUpdate() > 0;  // true wenn Zeile gelöscht wurde
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getBoolean("removed");  // true wenn Zeile gelöscht wurde
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         });
     }
 
+    // Wechselt den Favorite-Status in einem Statement: löscht wenn vorhanden, sonst Insert
+    // Kein Check-then-Act über mehrere Transaktionen -> keine Race zwischen Prüfung und Änderung
+    public FavoriteChange toggleFavorite(String username, int mediaId) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            // Alle CTEs sehen denselben Snapshot; ins läuft nur wenn del nichts gelöscht hat
+            String sql = "WITH del AS (" +
+                    "DELETE FROM favorites WHERE username = ? AND media_id = ? RETURNING media_id), " +
+                    "ins AS (" +
+                    "INSERT INTO favorites (username, media_id) " +
+                    "SELECT ?, id FROM media_entries WHERE id = ? AND NOT EXISTS (SELECT 1 FROM del) " +
+                    "ON CONFLICT DO NOTHING RETURNING media_id), " +
+                    "counter AS (" + COUNTER_SQL + "+ CASE WHEN EXISTS (SELECT 1 FROM ins) THEN 1 ELSE -1 END " +
+                    "WHERE id IN (SELECT media_id FROM ins UNION ALL SELECT media_id FROM del)) " +
+                    "SELECT EXISTS (SELECT 1 FROM media_entries WHERE id = ?) AS media_exists, " +
+                    "EXISTS (SELECT 1 FROM ins) AS added, " +
+                    "EXISTS (SELECT 1 FROM del) AS removed";
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, username);
+                stmt.setInt(2, mediaId);
+                stmt.setString(3, username);
+                stmt.setInt(4, mediaId);
+                stmt.setInt(5, mediaId);
+                return readChange(stmt, true);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Ein gelöschter Favorit zählt auch wenn das Media inzwischen fehlt (CASCADE räumt sonst ohnehin auf)
+    private FavoriteChange readChange(PreparedStatement stmt, boolean withRemoved) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            if (withRemoved && rs.getBoolean("removed")) {
+                return FavoriteChange.REMOVED;
+            }
+            if (!rs.getBoolean("media_exists")) {
+                return FavoriteChange.MEDIA_NOT_FOUND;
+            }
+            return rs.getBoolean("added") ? FavoriteChange.ADDED : FavoriteChange.UNCHANGED;
+        }
+    }
+
     // Prüft ob ein Media in den Favorites eines Users ist
     public boolean isFavorite(String username, int mediaId) {
         return DatabaseConnection.executeInTransaction(conn -> {
@@ -155,10 +225,10 @@ public class FavoriteRepository {
         });
     }
 
-    // Holt die Anzahl der User die ein spezifisches Media favorisiert haben
+    // Holt die Anzahl der User die ein spezifisches Media favorisiert haben (gepflegter Zähler statt COUNT)
     public int getFavoriteCount(int mediaId) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "SELECT COUNT(*) FROM favorites WHERE media_id = ?";
+            String sql = "SELECT favorite_count FROM media_entries WHERE id = ?";
 
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, mediaId);
@@ -2,12 +2,17 @@ package org.example.repository;
 
 import org.example.model.MediaEntry;
 import org.example.model.MediaType;
+import org.example.model.Rating;
 import org.example.util.DatabaseConnection;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 // Data Access Layer für Media-Einträge
@@ -30,6 +35,15 @@ public class MediaRepository {
                     ")";
             try (Statement stmt = conn.createStatement()) {
                 stmt.execute(sql);
+                // Spalten die nach der ersten Version dazugekommen sind (schema.sql legt sie direkt an)
+                stmt.execute("ALTER TABLE media_entries ADD COLUMN IF NOT EXISTS average_rating DECIMAL(3,2) DEFAULT 0");
+                stmt.execute("ALTER TABLE media_entries ADD COLUMN IF NOT EXISTS confirmed_count INTEGER DEFAULT 0");
+                stmt.execute("ALTER TABLE media_entries ADD COLUMN IF NOT EXISTS confirmed_sum INTEGER DEFAULT 0");
+                stmt.execute("ALTER TABLE media_entries ADD COLUMN IF NOT EXISTS stars_total INTEGER[] DEFAULT '{0,0,0,0,0}'");
+                stmt.execute("ALTER TABLE media_entries ADD COLUMN IF NOT EXISTS stars_confirmed INTEGER[] DEFAULT '{0,0,0,0,0}'");
+                stmt.execute("ALTER TABLE media_entries ADD COLUMN IF NOT EXISTS favorite_count INTEGER DEFAULT 0");
+                // Meistfavorisierte Media: Top-N direkt aus dem Index
+                stmt.execute("CREATE INDEX IF NOT EXISTS idx_media_favorites ON media_entries(favorite_count DESC, id)");
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -100,6 +114,23 @@ public class MediaRepository {
         });
     }
 
+    // Lädt alle Media-Einträge sortiert nach durchschnittlicher Bewertung (beste zuerst)
+    public List<MediaEntry> findAllOrderedByRating() {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT * FROM media_entries ORDER BY average_rating DESC, id";
+            List<MediaEntry> entries = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    entries.add(mapResultSetToMedia(rs));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return entries;
+        });
+    }
+
     // Aktualisiert bestehenden Media-Eintrag (Creator bleibt unverändert)
     public void update(MediaEntry media) {
         DatabaseConnection.executeInTransaction(conn -> {
@@ -121,35 +152,275 @@ public class MediaRepository {
         });
     }
 
-    // Löscht Media-Eintrag aus Datenbank
-    public void delete(int id) {
-        DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "DELETE FROM media_entries WHERE id = ?";
+    // Was beim Löschen eines Media mitgelöscht wurde (creator null = Media existierte nicht mehr)
+    public record DeletedMedia(String creator, List<Rating> ratings, List<String> favoritedBy) {
+    }
+
+    // Löscht Media-Eintrag aus Datenbank und liefert die mitgelöschten Ratings und Favoriten
+    // Ratings und Favoriten werden explizit gelöscht statt per CASCADE, damit Listener sie einzeln abziehen können;
+    // die Zeilensperre auf dem Media blockiert neue Ratings/Favoriten (FK-Prüfung) bis zum Commit
+    public DeletedMedia delete(int id) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            try (PreparedStatement lock = conn.prepareStatement(
+                         "SELECT creator FROM media_entries WHERE id = ? FOR UPDATE");
+                 PreparedStatement ratingsStmt = conn.prepareStatement(
+                         "DELETE FROM ratings WHERE media_id = ? " +
+                         "RETURNING id, media_id, username, stars, confirmed, likes, created_at");
+                 PreparedStatement favoritesStmt = conn.prepareStatement(
+                         "DELETE FROM favorites WHERE media_id = ? RETURNING username");
+                 PreparedStatement mediaStmt = conn.prepareStatement("DELETE FROM media_entries WHERE id = ?")) {
+                lock.setInt(1, id);
+                ResultSet rs = lock.executeQuery();
+                if (!rs.next()) {
+                    return new DeletedMedia(null, List.of(), List.of());
+                }
+                String creator = rs.getString("creator");
+
+                ratingsStmt.setInt(1, id);
+                List<Rating> ratings = new ArrayList<>();
+                rs = ratingsStmt.executeQuery();
+                while (rs.next()) {
+                    Rating rating = new Rating();
+                    rating.setId(rs.getInt("id"));
+                    rating.setMediaId(rs.getInt("media_id"));
+                    rating.setUsername(rs.getString("username"));
+                    rating.setStars(rs.getInt("stars"));
+                    rating.setConfirmed(rs.getBoolean("confirmed"));
+                    rating.setLikes(rs.getInt("likes"));
+                    Timestamp created = rs.getTimestamp("created_at");
+                    if (created != null) {
+                        rating.setTimestamp(created.toLocalDateTime());
+                    }
+                    ratings.add(rating);
+                }
+
+                favoritesStmt.setInt(1, id);
+                List<String> favoritedBy = new ArrayList<>();
+                rs = favoritesStmt.executeQuery();
+                while (rs.next()) {
+                    favoritedBy.add(rs.getString("username"));
+                }
+
+                mediaStmt.setInt(1, id);
+                mediaStmt.executeUpdate();
+                return new DeletedMedia(creator, ratings, favoritedBy);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static final int REPAIR_CHUNK = 500;  // Media pro Transaktion beim Abgleich
+
+    // Delta-Update der Rating-Aggregate eines Media (Parameter via bindAggregateDelta)
+    // Rechte Seiten sehen die alten Spaltenwerte -> Delta wird überall gleich angewendet
+    // Histogramme werden als Ganzes neu gesetzt (mehrere Zuweisungen auf dasselbe Array-Element sind nicht kumulativ)
+    static final String ADJUST_AGGREGATES_SQL = "UPDATE media_entries SET " +
+            "stars_total = ARRAY[stars_total[1] + ?, stars_total[2] + ?, stars_total[3] + ?, " +
+            "stars_total[4] + ?, stars_total[5] + ?], " +
+            "stars_confirmed = ARRAY[stars_confirmed[1] + ?, stars_confirmed[2] + ?, stars_confirmed[3] + ?, " +
+            "stars_confirmed[4] + ?, stars_confirmed[5] + ?], " +
+            "confirmed_count = confirmed_count + ?, " +
+            "confirmed_sum = confirmed_sum + ?, " +
+            "average_rating = CASE WHEN confirmed_count + ? > 0 " +
+            "THEN (confirmed_sum + ?)::decimal / (confirmed_count + ?) ELSE 0 END " +
+            "WHERE id = ?";
+
+    // Setzt die Parameter von ADJUST_AGGREGATES_SQL
+    static void bindAggregateDelta(PreparedStatement stmt, int mediaId, RatingAggregateDelta delta) throws SQLException {
+        int index = 1;
+        for (int stars = 1; stars <= 5; stars++) {
+            stmt.setInt(index++, delta.total(stars));
+        }
+        for (int stars = 1; stars <= 5; stars++) {
+            stmt.setInt(index++, delta.confirmed(stars));
+        }
+        stmt.setInt(index++, delta.confirmedCount());
+        stmt.setInt(index++, delta.confirmedSum());
+        stmt.setInt(index++, delta.confirmedCount());
+        stmt.setInt(index++, delta.confirmedSum());
+        stmt.setInt(index++, delta.confirmedCount());
+        stmt.setInt(index, mediaId);
+    }
+
+    // Bezug des angemeldeten Users zu einem Media: Favorit und eigene Sterne (null = nicht bewertet)
+    public record ViewerAnnotation(boolean favorite, Integer stars) {
+    }
+
+    // Favoriten-Status und eigene Sterne eines Users für eine ganze Media-Liste in einem Query
+    // (statt isFavorite + getRatingByMediaAndUser pro Eintrag); Media ohne Bezug fehlen in der Map
+    public Map<Integer, ViewerAnnotation> getViewerAnnotations(String username, Collection<Integer> mediaIds) {
+        if (mediaIds.isEmpty()) {
+            return Map.of();
+        }
+        return DatabaseConnection.executeInTransaction(conn -> {
+            // Beide Joins treffen genau eine Zeile: PK (username, media_id) bzw. UNIQUE(media_id, username)
+            String sql = "SELECT m.id, f.media_id IS NOT NULL AS favorite, r.stars " +
+                    "FROM media_entries m " +
+                    "LEFT JOIN favorites f ON f.media_id = m.id AND f.username = ? " +
+                    "LEFT JOIN ratings r ON r.media_id = m.id AND r.username = ? " +
+                    "WHERE m.id = ANY(?) AND (f.media_id IS NOT NULL OR r.id IS NOT NULL)";
+            Map<Integer, ViewerAnnotation> annotations = new HashMap<>();
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, id);
-                stmt.executeUpdate();
+                stmt.setString(1, username);
+                stmt.setString(2, username);
+                stmt.setArray(3, conn.createArrayOf("integer", mediaIds.toArray()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        annotations.put(rs.getInt("id"), new ViewerAnnotation(rs.getBoolean("favorite"),
+                                rs.getObject("stars", Integer.class)));  // NULL = nicht bewertet
+                    }
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
-            return null;
+            return annotations;
         });
     }
 
-    // Aktualisiert durchschnittliche Bewertung für Media-Eintrag
-    public void updateAverageRating(int mediaId, double avgRating) {
-        DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "UPDATE media_entries SET average_rating = ? WHERE id = ?";
+    // Rating-Statistik eines Media aus den gepflegten Aggregaten (leer wenn Media nicht existiert)
+    // Histogramme: Index 0-4 = Anzahl Ratings mit 1-5 Sternen
+    public Optional<Map<String, Object>> getRatingStats(int mediaId) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT average_rating, confirmed_count, stars_total, stars_confirmed " +
+                    "FROM media_entries WHERE id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setDouble(1, avgRating);
-                stmt.setInt(2, mediaId);
-                stmt.executeUpdate();
+                stmt.setInt(1, mediaId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+                    int[] total = toHistogram(rs.getArray("stars_total"));
+                    Map<String, Object> stats = new LinkedHashMap<>();
+                    stats.put("mediaId", mediaId);
+                    stats.put("averageRating", rs.getDouble("average_rating"));
+                    stats.put("confirmedCount", rs.getInt("confirmed_count"));
+                    stats.put("totalCount", Arrays.stream(total).sum());
+                    stats.put("histogram", toHistogram(rs.getArray("stars_confirmed")));
+                    stats.put("histogramTotal", total);
+                    return Optional.of(stats);
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
-            return null;
         });
     }
 
+    // Gleicht confirmed_count/confirmed_sum/average_rating und die Sterne-Histogramme mit den tatsächlichen Ratings ab
+    // Repariert nur abweichende Zeilen und gibt deren Anzahl zurück (z.B. nach manuellen DB-Änderungen)
+    // Voraussetzung: kein Write-Behind aktiv (sonst zählen eingereihte Deltas nach dem Abgleich doppelt)
+    public int repairRatingAggregates() {
+        return repairLocked("UPDATE media_entries m SET confirmed_count = s.rating_count, confirmed_sum = s.stars_sum, " +
+                "average_rating = CASE WHEN s.rating_count > 0 " +
+                "THEN s.stars_sum::decimal / s.rating_count ELSE 0 END, " +
+                "stars_total = s.stars_total, stars_confirmed = s.stars_confirmed " +
+                "FROM (SELECT me.id, " +
+                "      COUNT(r.id) FILTER (WHERE r.confirmed) AS rating_count, " +
+                "      COALESCE(SUM(r.stars) FILTER (WHERE r.confirmed), 0) AS stars_sum, " +
+                "      ARRAY[" + histogramColumns("true") + "] AS stars_total, " +
+                "      ARRAY[" + histogramColumns("r.confirmed") + "] AS stars_confirmed " +
+                "      FROM media_entries me LEFT JOIN ratings r ON r.media_id = me.id " +
+                "      WHERE me.id = ANY(?) GROUP BY me.id) s " +
+                "WHERE m.id = s.id AND (m.confirmed_count IS DISTINCT FROM s.rating_count " +
+                "OR m.confirmed_sum IS DISTINCT FROM s.stars_sum " +
+                "OR m.stars_total IS DISTINCT FROM s.stars_total " +
+                "OR m.stars_confirmed IS DISTINCT FROM s.stars_confirmed)");
+    }
+
+    // Führt einen Abgleich (UPDATE mit einem Parameter: Array der Media-IDs) in Blöcken von REPAIR_CHUNK Media aus
+    // Pro Block werden zuerst die Media-Zeilen gesperrt (ID-Reihenfolge), erst das nächste Statement rechnet neu:
+    // Es sieht damit alle Writes, die vor der Sperre committet wurden; spätere Writes warten auf die Sperre und
+    // wenden ihr Delta auf den reparierten Stand an -> der Abgleich überschreibt keine parallelen Änderungen
+    private int repairLocked(String repairSql) {
+        List<Integer> mediaIds = DatabaseConnection.executeInTransaction(conn -> {
+            List<Integer> ids = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT id FROM media_entries ORDER BY id")) {
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return ids;
+        });
+
+        int repaired = 0;
+        for (int from = 0; from < mediaIds.size(); from += REPAIR_CHUNK) {
+            Object[] chunk = mediaIds.subList(from, Math.min(from + REPAIR_CHUNK, mediaIds.size())).toArray();
+            repaired += DatabaseConnection.executeInTransaction(conn -> {
+                try (PreparedStatement lock = conn.prepareStatement(
+                        "SELECT id FROM media_entries WHERE id = ANY(?) ORDER BY id FOR UPDATE");
+                     PreparedStatement repair = conn.prepareStatement(repairSql)) {
+                    Array ids = conn.createArrayOf("integer", chunk);
+                    lock.setArray(1, ids);
+                    lock.executeQuery().close();
+                    repair.setArray(1, ids);
+                    return repair.executeUpdate();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        return repaired;
+    }
+
+    // Gleicht favorite_count mit den tatsächlichen Favoriten ab (z.B. nach gelöschten Usern, deren Favoriten
+    // per CASCADE ohne Delta verschwinden); repariert nur abweichende Zeilen und gibt deren Anzahl zurück
+    // Gesperrt wie beim Rating-Abgleich: paralleles Hinzufügen/Entfernen wird nicht mit altem COUNT überschrieben
+    public int repairFavoriteCounts() {
+        return repairLocked("UPDATE media_entries m SET favorite_count = s.favorite_count " +
+                "FROM (SELECT me.id, COUNT(f.media_id)::int AS favorite_count " +
+                "      FROM media_entries me LEFT JOIN favorites f ON f.media_id = me.id " +
+                "      WHERE me.id = ANY(?) GROUP BY me.id) s " +
+                "WHERE m.id = s.id AND m.favorite_count IS DISTINCT FROM s.favorite_count");
+    }
+
+    // Meistfavorisierte Media (gepflegter Zähler, Index idx_media_favorites), Gleichstand: ältere ID zuerst
+    public List<MediaEntry> findMostFavorited(int limit) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT * FROM media_entries WHERE favorite_count > 0 " +
+                    "ORDER BY favorite_count DESC, id LIMIT ?";
+            List<MediaEntry> entries = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(mapResultSetToMedia(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return entries;
+        });
+    }
+
+    // "COUNT(r.id) FILTER (WHERE r.stars = 1 AND condition)::int, ..." für die Sterne 1-5
+    private static String histogramColumns(String condition) {
+        StringBuilder columns = new StringBuilder();
+        for (int stars = 1; stars <= 5; stars++) {
+            if (stars > 1) {
+                columns.append(", ");
+            }
+            columns.append("COUNT(r.id) FILTER (WHERE r.stars = ").append(stars)
+                    .append(" AND ").append(condition).append(")::int");
+        }
+        return columns.toString();
+    }
+
+    // SQL-Array -> int[5] (NULL, z.B. vor dem ersten Abgleich, = leeres Histogramm)
+    private static int[] toHistogram(Array array) throws SQLException {
+        int[] histogram = new int[5];
+        if (array != null) {
+            Integer[] values = (Integer[]) array.getArray();
+            for (int i = 0; i < Math.min(values.length, 5); i++) {
+                histogram[i] = values[i] == null ? 0 : values[i];
+            }
+        }
+        return histogram;
+    }
+
     // Konvertiert Datenbank-Zeile (ResultSet) zu MediaEntry Object
     // Helper-Methode um DB-Zeile in Java-Object zu konvertieren
     private MediaEntry mapResultSetToMedia(ResultSet rs) throws SQLException {
@@ -165,6 +436,9 @@ public class MediaRepository {
         }
         media.setAgeRestriction(rs.getInt("age_restriction"));
         media.setCreator(rs.getString("creator"));
+        media.setAverageScore(rs.getDouble("average_rating"));  // Abgeleitet aus confirmed_sum / confirmed_count
+        media.setConfirmedCount(rs.getInt("confirmed_count"));  // Per Delta gepflegt (RatingRepository)
+        media.setFavoriteCount(rs.getInt("favorite_count"));  // Per Delta gepflegt (FavoriteRepository)
         return media;
     }
 
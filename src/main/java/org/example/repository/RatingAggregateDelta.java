@@ -0,0 +1,70 @@
+package org.example.repository;
+
+// Änderung der Rating-Aggregate eines Media (Sterne-Histogramme, confirmed_count, confirmed_sum)
+// Mehrere Deltas desselben Media lassen sich zu einem zusammenfassen (Write-Behind)
+public class RatingAggregateDelta {
+    private final int[] total = new int[5];  // Index 0-4 = Sterne 1-5, alle Ratings
+    private final int[] confirmed = new int[5];  // Nur bestätigte Ratings
+
+    // Delta für den Übergang alter Stand -> neuer Stand eines Ratings (Stars 0 = Rating existiert(e) nicht)
+    public static RatingAggregateDelta of(int oldStars, boolean oldConfirmed, int newStars, boolean newConfirmed) {
+        RatingAggregateDelta delta = new RatingAggregateDelta();
+        if (oldStars > 0) {
+            delta.total[oldStars - 1]--;
+            if (oldConfirmed) {
+                delta.confirmed[oldStars - 1]--;
+            }
+        }
+        if (newStars > 0) {
+            delta.total[newStars - 1]++;
+            if (newConfirmed) {
+                delta.confirmed[newStars - 1]++;
+            }
+        }
+        return delta;
+    }
+
+    // Addiert ein weiteres Delta desselben Media
+    public RatingAggregateDelta merge(RatingAggregateDelta other) {
+        for (int i = 0; i < 5; i++) {
+            total[i] += other.total[i];
+            confirmed[i] += other.confirmed[i];
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < 5; i++) {
+            if (total[i] != 0 || confirmed[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int total(int stars) {
+        return total[stars - 1];
+    }
+
+    public int confirmed(int stars) {
+        return confirmed[stars - 1];
+    }
+
+    // Änderung von confirmed_count
+    public int confirmedCount() {
+        int count = 0;
+        for (int value : confirmed) {
+            count += value;
+        }
+        return count;
+    }
+
+    // Änderung von confirmed_sum
+    public int confirmedSum() {
+        int sum = 0;
+        for (int i = 0; i < 5; i++) {
+            sum += confirmed[i] * (i + 1);
+        }
+        return sum;
+    }
+}
@@ -4,12 +4,51 @@ import org.example.model.Rating;
 import org.example.util.DatabaseConnection;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 // Data Access Layer für Ratings
 // Verwaltet CRUD-Operationen für ratings Tabelle
 public class RatingRepository {
+    // Aggregat-Teil des Upserts: Delta zwischen prev (vorher, evtl. leer) und upserted (nachher) pro Sterne-Wert
+    // Nur wenn das Rating neu ist oder sich Sterne bzw. confirmed (Vorprüfung) ändern
+    private static final String UPSERT_AGGREGATES_SQL =
+            "UPDATE media_entries m SET " +
+            "stars_total = ARRAY[" + histogramUpdate("stars_total", "t") + "], " +
+            "stars_confirmed = ARRAY[" + histogramUpdate("stars_confirmed", "c") + "], " +
+            "confirmed_count = m.confirmed_count + d.cc, " +
+            "confirmed_sum = m.confirmed_sum + d.cs, " +
+            "average_rating = CASE WHEN m.confirmed_count + d.cc > 0 " +
+            "THEN (m.confirmed_sum + d.cs)::decimal / (m.confirmed_count + d.cc) ELSE 0 END " +
+            "FROM (SELECT u.media_id, " + histogramDeltas() +
+            "      u.confirmed::int - COALESCE(p.confirmed::int, 0) AS cc, " +
+            "      CASE WHEN u.confirmed THEN u.stars ELSE 0 END " +
+            "      - COALESCE(CASE WHEN p.confirmed THEN p.stars ELSE 0 END, 0) AS cs " +
+            "      FROM upserted u LEFT JOIN prev p ON true " +
+            "      WHERE p.id IS NULL OR p.stars <> u.stars OR p.confirmed <> u.confirmed) d " +
+            "WHERE m.id = d.media_id";
+
+    // Schmale Projektion: alle Spalten, die Listen und In-Memory Indexe brauchen, ohne comment
+    private static final String SUMMARY_COLUMNS = "id, media_id, username, stars, confirmed, likes, created_at";
+
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+
+    // Write-Behind der Media-Aggregate: mediaId -> gesammeltes Delta (nur wenn aggregateWriteBehind aktiv)
+    private final Map<Integer, RatingAggregateDelta> pendingAggregates = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock aggregateModeLock = new ReentrantReadWriteLock();
+    private final Object flushLock = new Object();
+    private boolean aggregateWriteBehind;  // Nur unter aggregateModeLock
+    private int writeBehindSuspensions;  // > 0: Write-Behind ausgesetzt (Abgleich läuft)
 
     // Erstellt Ratings-Tabelle beim Server-Start
     public void createTable() {
@@ -28,8 +67,24 @@ public class RatingRepository {
                     "FOREIGN KEY (media_id) REFERENCES media_entries(id) ON DELETE CASCADE," +  // CASCADE: Löscht Ratings wenn Media gelöscht wird
                     "FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE" +
                     ")";
+            // Ein Like pro User und Rating (Quelle der Wahrheit für Duplikat-Prüfung, ratings.likes ist der Zähler)
+            String likesSql = "CREATE TABLE IF NOT EXISTS rating_likes (" +
+                    "rating_id INTEGER NOT NULL," +
+                    "username VARCHAR(255) NOT NULL," +
+                    "liked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                    "PRIMARY KEY (rating_id, username)," +
+                    "FOREIGN KEY (rating_id) REFERENCES ratings(id) ON DELETE CASCADE," +
+                    "FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE" +
+                    ")";
+            // Partieller Index für die Moderations-Queue: enthält nur unbestätigte Ratings, bleibt klein
+            String pendingIndexSql = "CREATE INDEX IF NOT EXISTS idx_ratings_pending ON ratings(id) WHERE confirmed = false";
+            // Top-Kommentare pro Media nach Likes
+            String likesIndexSql = "CREATE INDEX IF NOT EXISTS idx_ratings_media_likes ON ratings(media_id, likes DESC, id)";
             try (Statement stmt = conn.createStatement()) {
                 stmt.execute(sql);
+                stmt.execute(likesSql);
+                stmt.execute(pendingIndexSql);
+                stmt.execute(likesIndexSql);
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -37,48 +92,94 @@ public class RatingRepository {
         });
     }
 
-    // Erstellt neues Rating oder aktualisiert bestehendes
-    public Rating createRating(Rating rating) {
-        return DatabaseConnection.executeInTransaction(conn -> {
-            // ON CONFLICT: Wenn Rating schon existiert (UNIQUE constraint), dann UPDATE statt INSERT
-            String sql = "INSERT INTO ratings (media_id, username, stars, comment, confirmed, likes) " +
-                         "VALUES (?, ?, ?, ?, ?, ?) " +
-                         "ON CONFLICT (media_id, username) DO UPDATE SET " +  // Upsert: Insert or Update
-                         "stars = EXCLUDED.stars, comment = EXCLUDED.comment, updated_at = CURRENT_TIMESTAMP " +
-                         "RETURNING id, created_at, updated_at";  // Gibt generierte Werte zurück
+    // Ergebnis eines Upserts: previous = Stand vorher (null bei neuem Rating), current = gespeicherter Stand
+    public record RatingUpsert(Rating previous, Rating current) {
+    }
 
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, rating.getMediaId());
-                pstmt.setString(2, rating.getUsername());
-                pstmt.setInt(3, rating.getStars());
-                pstmt.setString(4, rating.getComment());
-                pstmt.setBoolean(5, rating.isConfirmed());
-                pstmt.setInt(6, rating.getLikes());
+    // Paralleler erster Insert desselben Users auf dasselbe Media -> Statement muss wiederholt werden
+    private static final class UpsertConflictException extends RuntimeException {
+    }
 
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        rating.setId(rs.getInt("id"));
-                        rating.setTimestamp(rs.getTimestamp("created_at").toLocalDateTime());  // Timestamp -> LocalDateTime
-                    }
+    // Erstellt ein Rating oder aktualisiert Sterne/Kommentar des bestehenden Ratings (ein User, ein Rating pro Media)
+    // Ein einziges Statement: sperrt den vorherigen Stand, upsertet, passt die Aggregate des Media per Delta an
+    // und liefert alten und neuen Stand zurück -> ein Round-Trip
+    // Mit Write-Behind entfällt der Aggregat-Teil, das Delta wird stattdessen gesammelt
+    // confirmed: Ergebnis der automatischen Vorprüfung, null = bestehender Status bleibt (neue Ratings unbestätigt)
+    public RatingUpsert upsertRating(int mediaId, String username, int stars, String comment, Boolean confirmed) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tryUpsertRating(mediaId, username, stars, comment, confirmed);
+            } catch (UpsertConflictException e) {
+                if (attempt >= MAX_UPSERT_ATTEMPTS) {
+                    throw new RuntimeException("Rating upsert kept conflicting with concurrent inserts", e);
                 }
-                return rating;
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
             }
-        });
+        }
     }
 
-    // Aktualisiert ein bestehendes Rating
-    public boolean updateRating(int ratingId, int stars, String comment) {
-        return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "UPDATE ratings SET stars = ?, comment = ?, updated_at = CURRENT_TIMESTAMP " +
-                         "WHERE id = ?";
+    // prev liest den Snapshot vom Beginn des Statements: legt derselbe User parallel sein erstes Rating an,
+    // ist prev leer obwohl der Insert auf den gerade committeten Datensatz läuft (ON CONFLICT DO UPDATE)
+    // -> wäre als neues Rating gezählt worden; erkannt über xmax, die Transaktion wird zurückgerollt und
+    // neu versucht (das neue Statement sieht und sperrt dann den committeten Stand)
+    private RatingUpsert tryUpsertRating(int mediaId, String username, int stars, String comment, Boolean confirmed) {
+        return writeRatings((conn, deferred) -> {
+            boolean inlineAggregates = deferred == null;
+            String sql = "WITH prev AS (" +
+                         "  SELECT id, stars, comment, confirmed, likes, created_at FROM ratings " +
+                         "  WHERE media_id = ? AND username = ? FOR UPDATE" +
+                         "), upserted AS (" +
+                         // ON CONFLICT: Wenn Rating schon existiert (UNIQUE constraint), dann UPDATE statt INSERT
+                         // likes bleiben dabei erhalten, confirmed nur wenn die Vorprüfung nichts vorgibt
+                         "  INSERT INTO ratings (media_id, username, stars, comment, confirmed, likes) " +
+                         "  VALUES (?, ?, ?, ?, COALESCE(?::boolean, false), 0) " +
+                         "  ON CONFLICT (media_id, username) DO UPDATE SET " +
+                         "  stars = EXCLUDED.stars, comment = EXCLUDED.comment, updated_at = CURRENT_TIMESTAMP, " +
+                         "  confirmed = COALESCE(?::boolean, ratings.confirmed) " +
+                         "  RETURNING id, media_id, username, stars, comment, confirmed, likes, created_at, " +
+                         "  (xmax = 0) AS inserted" +
+                         ")" + (inlineAggregates ? ", aggregates AS (" + UPSERT_AGGREGATES_SQL + ")" : "") + " " +
+                         "SELECT u.*, p.id AS prev_id, p.stars AS prev_stars, p.comment AS prev_comment, " +
+                         "p.confirmed AS prev_confirmed, p.likes AS prev_likes, p.created_at AS prev_created_at " +
+                         "FROM upserted u LEFT JOIN prev p ON true";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, stars);
-                pstmt.setString(2, comment);
-                pstmt.setInt(3, ratingId);
-                return pstmt.executeUpdate() > 0;
+                pstmt.setInt(1, mediaId);
+                pstmt.setString(2, username);
+                pstmt.setInt(3, mediaId);
+                pstmt.setString(4, username);
+                pstmt.setInt(5, stars);
+                pstmt.setString(6, comment);
+                pstmt.setObject(7, confirmed, Types.BOOLEAN);
+                pstmt.setObject(8, confirmed, Types.BOOLEAN);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Failed to upsert rating");
+                    }
+                    rs.getInt("prev_id");
+                    boolean prevMissing = rs.wasNull();
+                    if (prevMissing && !rs.getBoolean("inserted")) {
+                        throw new UpsertConflictException();  // Rollback verwirft auch das falsche Aggregat-Delta
+                    }
+                    Rating current = mapResultSetToRating(rs);
+                    Rating previous = null;
+                    if (!prevMissing) {
+                        previous = new Rating(current.getId(), mediaId, username,
+                                rs.getInt("prev_stars"), rs.getString("prev_comment"));
+                        previous.setConfirmed(rs.getBoolean("prev_confirmed"));
+                        previous.setLikes(rs.getInt("prev_likes"));
+                        Timestamp created = rs.getTimestamp("prev_created_at");
+                        if (created != null) {
+                            previous.setTimestamp(created.toLocalDateTime());
+                        }
+                    }
+                    if (!inlineAggregates) {
+                        deferred.merge(mediaId, RatingAggregateDelta.of(
+                                previous == null ? 0 : previous.getStars(), previous != null && previous.isConfirmed(),
+                                current.getStars(), current.isConfirmed()), RatingAggregateDelta::merge);
+                    }
+                    return new RatingUpsert(previous, current);
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -86,29 +187,48 @@ public class RatingRepository {
     }
 
     // Aktualisiert nur den Kommentar eines Ratings
-    public boolean updateComment(int ratingId, String comment) {
-        return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "UPDATE ratings SET comment = ?, updated_at = CURRENT_TIMESTAMP, confirmed = false " +
-                         "WHERE id = ?";
+    // confirmed = false: erneute Moderation (zählt nicht mehr im Durchschnitt), true = Vorprüfung war sauber
+    public boolean updateComment(int ratingId, String comment, boolean confirmed) {
+        return writeRatings((conn, deferred) -> {
+            String sql = "UPDATE ratings r SET comment = ?, updated_at = CURRENT_TIMESTAMP, confirmed = ? " +
+                         "FROM (SELECT id, confirmed FROM ratings WHERE id = ? FOR UPDATE) prev " +
+                         "WHERE r.id = prev.id " +
+                         "RETURNING r.media_id, r.stars, prev.confirmed AS was_confirmed";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, comment);
-                pstmt.setInt(2, ratingId);
-                return pstmt.executeUpdate() > 0;
+                pstmt.setBoolean(2, confirmed);
+                pstmt.setInt(3, ratingId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    int stars = rs.getInt("stars");
+                    adjustAggregates(conn, deferred, rs.getInt("media_id"), stars, rs.getBoolean("was_confirmed"),
+                            stars, confirmed);
+                    return true;
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         });
     }
 
-    // Löscht Rating nach ID
+    // Löscht Rating nach ID (inkl. Abzug aus den Aggregaten des Media)
     public boolean deleteRating(int ratingId) {
-        return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "DELETE FROM ratings WHERE id = ?";
+        return writeRatings((conn, deferred) -> {
+            String sql = "DELETE FROM ratings WHERE id = ? RETURNING media_id, stars, confirmed";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, ratingId);
-                return pstmt.executeUpdate() > 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    adjustAggregates(conn, deferred, rs.getInt("media_id"), rs.getInt("stars"), rs.getBoolean("confirmed"),
+                            0, false);
+                    return true;
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -135,14 +255,40 @@ public class RatingRepository {
         });
     }
 
-    // Holt alle Ratings für ein spezifisches Media
-    public List<Rating> getRatingsByMediaId(int mediaId) {
+    // Holt alle Ratings für ein spezifisches Media (withComments = false: schmale Zeilen ohne comment-Spalte)
+    public List<Rating> getRatingsByMediaId(int mediaId, boolean withComments) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "SELECT * FROM ratings WHERE media_id = ? ORDER BY created_at DESC";
+            String sql = "SELECT " + columns(withComments) + " FROM ratings WHERE media_id = ? ORDER BY created_at DESC";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, mediaId);
 
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<Rating> ratings = new ArrayList<>();
+                    while (rs.next()) {
+                        ratings.add(withComments ? mapResultSetToRating(rs) : mapResultSetToRatingSummary(rs));
+                    }
+                    return ratings;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Beste Ratings eines Media nach gespeicherten Likes (Index idx_ratings_media_likes liefert sie vorsortiert)
+    // plus die Ratings aus includeIds, die zu diesem Media gehören (z.B. mit noch nicht geschriebenen Likes)
+    // Ergebnis unsortiert, ohne Duplikate
+    public List<Rating> getTopRatingsByMediaId(int mediaId, int limit, Collection<Integer> includeIds) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "(SELECT * FROM ratings WHERE media_id = ? ORDER BY likes DESC, id LIMIT ?) " +
+                         "UNION SELECT * FROM ratings WHERE media_id = ? AND id = ANY(?)";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, mediaId);
+                pstmt.setInt(2, limit);
+                pstmt.setInt(3, mediaId);
+                pstmt.setArray(4, conn.createArrayOf("integer", includeIds.toArray()));
                 try (ResultSet rs = pstmt.executeQuery()) {
                     List<Rating> ratings = new ArrayList<>();
                     while (rs.next()) {
@@ -156,10 +302,11 @@ public class RatingRepository {
         });
     }
 
-    // Holt bestätigte Ratings für ein spezifisches Media
-    public List<Rating> getConfirmedRatingsByMediaId(int mediaId) {
+    // Holt bestätigte Ratings für ein spezifisches Media (withComments = false: ohne comment-Spalte)
+    public List<Rating> getConfirmedRatingsByMediaId(int mediaId, boolean withComments) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "SELECT * FROM ratings WHERE media_id = ? AND confirmed = true ORDER BY created_at DESC";
+            String sql = "SELECT " + columns(withComments) + " FROM ratings " +
+                         "WHERE media_id = ? AND confirmed = true ORDER BY created_at DESC";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, mediaId);
@@ -167,7 +314,7 @@ public class RatingRepository {
                 try (ResultSet rs = pstmt.executeQuery()) {
                     List<Rating> ratings = new ArrayList<>();
                     while (rs.next()) {
-                        ratings.add(mapResultSetToRating(rs));
+                        ratings.add(withComments ? mapResultSetToRating(rs) : mapResultSetToRatingSummary(rs));
                     }
                     return ratings;
                 }
@@ -198,10 +345,10 @@ public class RatingRepository {
         });
     }
 
-    // Holt alle Ratings eines Users
-    public List<Rating> getRatingsByUser(String username) {
+    // Holt alle Ratings eines Users (withComments = false: ohne comment-Spalte)
+    public List<Rating> getRatingsByUser(String username, boolean withComments) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "SELECT * FROM ratings WHERE username = ? ORDER BY created_at DESC";
+            String sql = "SELECT " + columns(withComments) + " FROM ratings WHERE username = ? ORDER BY created_at DESC";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setString(1, username);
@@ -209,7 +356,98 @@ public class RatingRepository {
                 try (ResultSet rs = pstmt.executeQuery()) {
                     List<Rating> ratings = new ArrayList<>();
                     while (rs.next()) {
-                        ratings.add(mapResultSetToRating(rs));
+                        ratings.add(withComments ? mapResultSetToRating(rs) : mapResultSetToRatingSummary(rs));
+                    }
+                    return ratings;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Kommentare mehrerer Ratings in einer Query (zweiter Schritt nach einer schmalen Liste)
+    // ratingId -> Kommentar; Ratings ohne Kommentar oder unbekannte IDs fehlen in der Map
+    public Map<Integer, String> getComments(Collection<Integer> ratingIds) {
+        if (ratingIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT id, comment FROM ratings WHERE id = ANY(?) AND comment IS NOT NULL";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setArray(1, conn.createArrayOf("integer", ratingIds.toArray()));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Map<Integer, String> comments = new HashMap<>();
+                    while (rs.next()) {
+                        comments.put(rs.getInt("id"), rs.getString("comment"));
+                    }
+                    return comments;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Holt alle Ratings ohne Kommentar (schmale Projektion zum Aufbau der In-Memory Indexe beim Server-Start)
+    public List<Rating> getAllRatings() {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM ratings";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(10_000);  // Streamt große Tabellen in Blöcken statt alles auf einmal zu laden
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<Rating> ratings = new ArrayList<>();
+                    while (rs.next()) {
+                        ratings.add(mapResultSetToRatingSummary(rs));
+                    }
+                    return ratings;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Holt alle Ratings ab einem Zeitpunkt ohne Kommentar (z.B. für zeitliche Leaderboards)
+    public List<Rating> getRatingsSince(LocalDateTime since) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM ratings " +
+                         "WHERE created_at >= ?";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(since));
+                pstmt.setFetchSize(10_000);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<Rating> ratings = new ArrayList<>();
+                    while (rs.next()) {
+                        ratings.add(mapResultSetToRatingSummary(rs));
+                    }
+                    return ratings;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Holt die Ratings mehrerer User in einer Query (ohne Kommentar), gruppiert nach Username
+    public Map<String, List<Rating>> getRatingsByUsers(List<String> usernames) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT " + SUMMARY_COLUMNS + " FROM ratings " +
+                         "WHERE username = ANY(?)";  // ANY(array): ein Round-Trip statt einer Query pro User
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setArray(1, conn.createArrayOf("varchar", usernames.toArray()));
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Map<String, List<Rating>> ratings = new HashMap<>();
+                    while (rs.next()) {
+                        Rating rating = mapResultSetToRatingSummary(rs);
+                        ratings.computeIfAbsent(rating.getUsername(), u -> new ArrayList<>()).add(rating);
                     }
                     return ratings;
                 }
@@ -233,13 +471,31 @@ public class RatingRepository {
         });
     }
 
-    // Bestätigt ein Rating (Moderation)
-    public boolean confirmRating(int ratingId) {
+    // Speichert das Like eines Users; false wenn er das Rating schon geliked hat (oder es nicht existiert)
+    public boolean addLike(int ratingId, String username) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "UPDATE ratings SET confirmed = true WHERE id = ?";
+            String sql = "INSERT INTO rating_likes (rating_id, username) " +
+                         "SELECT id, ? FROM ratings WHERE id = ? " +
+                         "ON CONFLICT (rating_id, username) DO NOTHING";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, username);
+                pstmt.setInt(2, ratingId);
+                return pstmt.executeUpdate() > 0;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Entfernt das Like eines Users; false wenn es keines gab
+    public boolean removeLike(int ratingId, String username) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "DELETE FROM rating_likes WHERE rating_id = ? AND username = ?";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
                 pstmt.setInt(1, ratingId);
+                pstmt.setString(2, username);
                 return pstmt.executeUpdate() > 0;
             } catch (SQLException e) {
                 throw new RuntimeException(e);
@@ -247,26 +503,332 @@ public class RatingRepository {
         });
     }
 
-    // Berechnet durchschnittliche Bewertung für ein Media
-    public double getAverageRating(int mediaId) {
+    // Alle User die ein Rating geliked haben
+    public List<String> getLikers(int ratingId) {
         return DatabaseConnection.executeInTransaction(conn -> {
-            String sql = "SELECT AVG(stars) as avg_rating FROM ratings WHERE media_id = ? AND confirmed = true";
+            String sql = "SELECT username FROM rating_likes WHERE rating_id = ?";
 
             try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, mediaId);
+                pstmt.setInt(1, ratingId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<String> usernames = new ArrayList<>();
+                    while (rs.next()) {
+                        usernames.add(rs.getString("username"));
+                    }
+                    return usernames;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
 
+    // Anzahl gespeicherter Likes (zum Dimensionieren des Bloom-Filters)
+    public long countLikes() {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM rating_likes")) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Streamt alle (ratingId, username) Paare ohne sie als Liste zu sammeln (Cursor mit fetchSize)
+    public void forEachLike(BiConsumer<Integer, String> consumer) {
+        DatabaseConnection.executeInTransaction(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT rating_id, username FROM rating_likes")) {
+                pstmt.setFetchSize(10_000);
                 try (ResultSet rs = pstmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getDouble("avg_rating");
+                    while (rs.next()) {
+                        consumer.accept(rs.getInt("rating_id"), rs.getString("username"));
                     }
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
-            return 0.0;
+            return null;
         });
     }
 
+    // Streamt alle Ratings mit nicht-leerem Kommentar in ID-Reihenfolge (Backfill des Duplikat-Index)
+    public void forEachComment(Consumer<Rating> consumer) {
+        DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT * FROM ratings WHERE comment IS NOT NULL AND comment <> '' ORDER BY id";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setFetchSize(10_000);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapResultSetToRating(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return null;
+        });
+    }
+
+    // Addiert gesammelte Likes mehrerer Ratings in einem Multi-Row UPDATE (ratingId -> Anzahl neuer Likes)
+    // Gibt die Anzahl aktualisierter Ratings zurück (gelöschte Ratings werden übersprungen)
+    public int addLikes(Map<Integer, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "UPDATE ratings r SET likes = r.likes + d.delta " +
+                         "FROM unnest(?::int[], ?::int[]) AS d(id, delta) " +
+                         "WHERE r.id = d.id";
+
+            Integer[] ids = new Integer[deltas.size()];
+            Integer[] values = new Integer[deltas.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Long> entry : deltas.entrySet()) {
+                ids[i] = entry.getKey();
+                values[i] = Math.toIntExact(entry.getValue());
+                i++;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setArray(1, conn.createArrayOf("integer", ids));
+                pstmt.setArray(2, conn.createArrayOf("integer", values));
+                return pstmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Bestätigt mehrere Ratings in einem Statement (Moderation); bereits bestätigte oder fehlende IDs werden übersprungen
+    // Aggregate werden danach einmal pro betroffenem Media angepasst (Deltas zusammengefasst, ein Batch)
+    // Gibt die neu bestätigten Ratings zurück (Stand nach der Bestätigung)
+    public List<Rating> confirmRatings(Collection<Integer> ratingIds) {
+        if (ratingIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return writeRatings((conn, deferred) -> {
+            // Sperrt in ID-Reihenfolge -> überlappende Batches verschiedener Moderatoren blockieren sich nicht gegenseitig
+            String sql = "UPDATE ratings SET confirmed = true " +
+                         "WHERE id IN (SELECT id FROM ratings WHERE id = ANY(?) AND confirmed = false ORDER BY id FOR UPDATE) " +
+                         "AND confirmed = false " +
+                         "RETURNING id, media_id, username, stars, comment, confirmed, likes, created_at";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setArray(1, conn.createArrayOf("integer", ratingIds.toArray()));
+                List<Rating> confirmed = new ArrayList<>();
+                // TreeMap: Media-Zeilen werden in fester Reihenfolge aktualisiert
+                Map<Integer, RatingAggregateDelta> deltas = new TreeMap<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Rating rating = mapResultSetToRating(rs);
+                        confirmed.add(rating);
+                        RatingAggregateDelta delta = RatingAggregateDelta.of(rating.getStars(), false, rating.getStars(), true);
+                        deltas.merge(rating.getMediaId(), delta, RatingAggregateDelta::merge);
+                    }
+                }
+                if (deferred != null) {
+                    deltas.forEach((mediaId, delta) -> deferred.merge(mediaId, delta, RatingAggregateDelta::merge));
+                } else if (!deltas.isEmpty()) {
+                    try (PreparedStatement adjust = conn.prepareStatement(MediaRepository.ADJUST_AGGREGATES_SQL)) {
+                        for (Map.Entry<Integer, RatingAggregateDelta> entry : deltas.entrySet()) {
+                            MediaRepository.bindAggregateDelta(adjust, entry.getKey(), entry.getValue());
+                            adjust.addBatch();
+                        }
+                        adjust.executeBatch();
+                    }
+                }
+                return confirmed;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Moderations-Queue: unbestätigte Ratings mit ID > afterId, älteste zuerst (Keyset-Paging über idx_ratings_pending)
+    public List<Rating> getPendingRatings(int afterId, int limit) {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT * FROM ratings WHERE confirmed = false AND id > ? ORDER BY id LIMIT ?";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, afterId);
+                pstmt.setInt(2, limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    List<Rating> ratings = new ArrayList<>();
+                    while (rs.next()) {
+                        ratings.add(mapResultSetToRating(rs));
+                    }
+                    return ratings;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Passt die Aggregate des Media (Histogramme, confirmed_count/confirmed_sum, average_rating) per Delta an
+    // Ohne Write-Behind auf der Connection des Rating-Writes -> gleiche Transaktion, kein AVG/GROUP BY
+    // Mit Write-Behind (deferred != null) wird das Delta gesammelt und nach dem Commit eingereiht
+    private void adjustAggregates(Connection conn, Map<Integer, RatingAggregateDelta> deferred, int mediaId,
+                                  int oldStars, boolean oldConfirmed, int newStars, boolean newConfirmed)
+            throws SQLException {
+        RatingAggregateDelta delta = RatingAggregateDelta.of(oldStars, oldConfirmed, newStars, newConfirmed);
+        if (delta.isEmpty()) {
+            return;
+        }
+        if (deferred != null) {
+            deferred.merge(mediaId, delta, RatingAggregateDelta::merge);
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(MediaRepository.ADJUST_AGGREGATES_SQL)) {
+            MediaRepository.bindAggregateDelta(pstmt, mediaId, delta);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // Sammelt ein Delta für den nächsten flushAggregates()
+    // compute ist pro Key atomar -> kein Delta geht zwischen merge und flush verloren
+    private void queueAggregates(int mediaId, RatingAggregateDelta delta) {
+        if (!delta.isEmpty()) {
+            pendingAggregates.compute(mediaId, (id, pending) -> pending == null ? delta : pending.merge(delta));
+        }
+    }
+
+    // Führt einen Rating-Write aus, der die Media-Aggregate ändert
+    // deferred = null: Aggregate inline in derselben Transaktion; sonst sammelt die Operation ihre Deltas dort
+    // und sie werden erst nach erfolgreichem Commit eingereiht (Rollback -> kein Delta)
+    // Der Read-Lock hält bis das Delta eingereiht ist -> ein Moduswechsel wartet auf laufende Writes
+    private <T> T writeRatings(BiFunction<Connection, Map<Integer, RatingAggregateDelta>, T> operation) {
+        aggregateModeLock.readLock().lock();
+        try {
+            Map<Integer, RatingAggregateDelta> deferred =
+                    aggregateWriteBehind && writeBehindSuspensions == 0 ? new TreeMap<>() : null;
+            T result = DatabaseConnection.executeInTransaction(conn -> operation.apply(conn, deferred));
+            if (deferred != null) {
+                deferred.forEach(this::queueAggregates);
+            }
+            return result;
+        } finally {
+            aggregateModeLock.readLock().unlock();
+        }
+    }
+
+    // Schaltet das Sammeln der Aggregat-Deltas ein/aus (beim Ausschalten danach flushAggregates() aufrufen)
+    // Kehrt erst zurück wenn alle laufenden Rating-Writes ihr Delta geschrieben bzw. eingereiht haben
+    public void setAggregateWriteBehind(boolean enabled) {
+        aggregateModeLock.writeLock().lock();
+        try {
+            this.aggregateWriteBehind = enabled;
+        } finally {
+            aggregateModeLock.writeLock().unlock();
+        }
+    }
+
+    // Setzt Write-Behind vorübergehend aus (z.B. für den Aggregat-Abgleich): danach schreiben alle Rating-Writes
+    // ihre Aggregate wieder inline; bereits gesammelte Deltas müssen noch mit flushAggregates() geschrieben werden
+    // Verschachtelbar, jedes suspend braucht ein resume; der eingestellte Modus bleibt dabei unverändert
+    public void suspendAggregateWriteBehind() {
+        aggregateModeLock.writeLock().lock();
+        try {
+            writeBehindSuspensions++;
+        } finally {
+            aggregateModeLock.writeLock().unlock();
+        }
+    }
+
+    public void resumeAggregateWriteBehind() {
+        aggregateModeLock.writeLock().lock();
+        try {
+            writeBehindSuspensions = Math.max(0, writeBehindSuspensions - 1);
+        } finally {
+            aggregateModeLock.writeLock().unlock();
+        }
+    }
+
+    // Schreibt alle gesammelten Deltas, ein UPDATE pro Media in einem Batch; gibt die Anzahl Media zurück
+    // Schlägt das Schreiben fehl, werden die Deltas wieder eingereiht
+    // Ein Aufruf kehrt erst zurück wenn auch ein parallel laufender Flush geschrieben ist (flushLock)
+    public int flushAggregates() {
+        synchronized (flushLock) {
+            Map<Integer, RatingAggregateDelta> batch = new HashMap<>();
+            for (Integer mediaId : pendingAggregates.keySet()) {
+                RatingAggregateDelta delta = pendingAggregates.remove(mediaId);
+                if (delta != null && !delta.isEmpty()) {
+                    batch.put(mediaId, delta);
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            try {
+                DatabaseConnection.executeInTransaction(conn -> {
+                    try (PreparedStatement pstmt = conn.prepareStatement(MediaRepository.ADJUST_AGGREGATES_SQL)) {
+                        for (Map.Entry<Integer, RatingAggregateDelta> entry : batch.entrySet()) {
+                            MediaRepository.bindAggregateDelta(pstmt, entry.getKey(), entry.getValue());
+                            pstmt.addBatch();
+                        }
+                        pstmt.executeBatch();
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                batch.forEach((mediaId, delta) ->
+                        pendingAggregates.compute(mediaId, (id, pending) -> pending == null ? delta : pending.merge(delta)));
+                throw e;
+            }
+            return batch.size();
+        }
+    }
+
+    // Summe und Anzahl bestätigter Ratings pro Media: mediaId -> {Summe Sterne, Anzahl}
+    public Map<Integer, long[]> getConfirmedRatingStats() {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            String sql = "SELECT media_id, SUM(stars) AS stars_sum, COUNT(*) AS rating_count FROM ratings " +
+                         "WHERE confirmed = true GROUP BY media_id";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                Map<Integer, long[]> stats = new HashMap<>();
+                while (rs.next()) {
+                    stats.put(rs.getInt("media_id"), new long[]{rs.getLong("stars_sum"), rs.getLong("rating_count")});
+                }
+                return stats;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // "m.stars_total[1] + d.t1, ..." für die Sterne 1-5
+    private static String histogramUpdate(String column, String prefix) {
+        StringBuilder sql = new StringBuilder();
+        for (int stars = 1; stars <= 5; stars++) {
+            sql.append(stars > 1 ? ", " : "").append("m.").append(column).append("[").append(stars).append("] + d.")
+                    .append(prefix).append(stars);
+        }
+        return sql.toString();
+    }
+
+    // Delta-Spalten t1..t5 (alle Ratings) und c1..c5 (bestätigte) zwischen prev p und upserted u
+    private static String histogramDeltas() {
+        StringBuilder sql = new StringBuilder();
+        for (int stars = 1; stars <= 5; stars++) {
+            sql.append("(u.stars = ").append(stars).append(")::int - COALESCE((p.stars = ").append(stars)
+                    .append(")::int, 0) AS t").append(stars).append(", ");
+        }
+        for (int stars = 1; stars <= 5; stars++) {
+            sql.append("(u.confirmed AND u.stars = ").append(stars).append(")::int - COALESCE((p.confirmed AND p.stars = ")
+                    .append(stars).append(")::int, 0) AS c").append(stars).append(", ");
+        }
+        return sql.toString();
+    }
+
+    // Spaltenliste mit oder ohne comment (TEXT, oft lang und ausgelagert -> nur lesen wenn gebraucht)
+    private static String columns(boolean withComments) {
+        return withComments ? SUMMARY_COLUMNS + ", comment" : SUMMARY_COLUMNS;
+    }
+
     // Helper-Methode zum Konvertieren von ResultSet zu Rating Object
     // Konvertiert DB-Zeile (ResultSet) zu Rating Java-Object
     private Rating mapResultSetToRating(ResultSet rs) throws SQLException {
@@ -286,4 +848,22 @@ public class RatingRepository {
 
         return rating;
     }
+
+    // Wie mapResultSetToRating, aber ohne comment-Spalte (für schmale Projektionen)
+    private Rating mapResultSetToRatingSummary(ResultSet rs) throws SQLException {
+        Rating rating = new Rating();
+        rating.setId(rs.getInt("id"));
+        rating.setMediaId(rs.getInt("media_id"));
+        rating.setUsername(rs.getString("username"));
+        rating.setStars(rs.getInt("stars"));
+        rating.setConfirmed(rs.getBoolean("confirmed"));
+        rating.setLikes(rs.getInt("likes"));
+
+        Timestamp created = rs.getTimestamp("created_at");
+        if (created != null) {
+            rating.setTimestamp(created.toLocalDateTime());
+        }
+
+        return rating;
+    }
 }
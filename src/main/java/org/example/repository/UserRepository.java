@@ -235,6 +235,45 @@ public class UserRepository {
         });
     }
 
+    // Kennzahlen aller User (auch 0) zum einmaligen Aufbau der In-Memory Leaderboards:
+    // ratingCount, likesReceived (Likes auf eigene Ratings), starsSum, mediaCount, favoriteCount
+    public List<java.util.Map<String, Object>> getLeaderboardStats() {
+        return DatabaseConnection.executeInTransaction(conn -> {
+            // Vorab aggregierte Subqueries statt JOIN über alle Tabellen (verhindert Multiplikation der Zeilen)
+            String sql = "SELECT u.username, " +
+                        "COALESCE(r.rating_count, 0) AS rating_count, " +
+                        "COALESCE(r.likes_received, 0) AS likes_received, " +
+                        "COALESCE(r.stars_sum, 0) AS stars_sum, " +
+                        "COALESCE(m.media_count, 0) AS media_count, " +
+                        "COALESCE(f.favorite_count, 0) AS favorite_count " +
+                        "FROM users u " +
+                        "LEFT JOIN (SELECT username, COUNT(*) AS rating_count, SUM(likes) AS likes_received, " +
+                        "           SUM(stars) AS stars_sum FROM ratings GROUP BY username) r " +
+                        "  ON r.username = u.username " +
+                        "LEFT JOIN (SELECT creator, COUNT(*) AS media_count FROM media_entries GROUP BY creator) m " +
+                        "  ON m.creator = u.username " +
+                        "LEFT JOIN (SELECT username, COUNT(*) AS favorite_count FROM favorites GROUP BY username) f " +
+                        "  ON f.username = u.username";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                ResultSet rs = stmt.executeQuery();
+                List<java.util.Map<String, Object>> stats = new ArrayList<>();
+                while (rs.next()) {
+                    java.util.Map<String, Object> entry = new java.util.HashMap<>();
+                    entry.put("username", rs.getString("username"));
+                    entry.put("ratingCount", rs.getLong("rating_count"));
+                    entry.put("likesReceived", rs.getLong("likes_received"));
+                    entry.put("starsSum", rs.getLong("stars_sum"));
+                    entry.put("mediaCount", rs.getLong("media_count"));
+                    entry.put("favoriteCount", rs.getLong("favorite_count"));
+                    stats.add(entry);
+                }
+                return stats;
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
     // Holt Empfehlungen für User basierend auf Genres von hoch bewerteten Media
     public List<java.util.Map<String, Object>> getRecommendations(String username, int limit) {
         return DatabaseConnection.executeInTransaction(conn -> {
@@ -7,24 +7,49 @@ import org.example.controller.UserController;
 import org.example.controller.FavoriteController;
 import org.example.controller.RecommendationController;
 import org.example.controller.LeaderboardController;
+import org.example.controller.MediaRankingController;
+import org.example.controller.MetricsController;
 import org.example.repository.MediaRepository;
 import org.example.repository.UserRepository;
 import org.example.repository.RatingRepository;
 import org.example.repository.FavoriteRepository;
+import org.example.service.CommentDuplicateIndex;
+import org.example.service.CommentScreeningService;
 import org.example.service.MediaService;
 import org.example.service.UserService;
 import org.example.service.RatingService;
+import org.example.service.LikeCounterService;
+import org.example.service.RatingLikeIndex;
+import org.example.service.RatingAggregateRepairService;
+import org.example.service.RatingAggregateWriteBehindService;
+import org.example.service.PopularityService;
 import org.example.service.RecommendationService;
 import org.example.service.LeaderboardService;
 import org.example.service.FavoriteService;
+import org.example.service.CoOccurrenceService;
+import org.example.service.MediaCatalog;
+import org.example.service.SimilarMediaService;
+import org.example.service.TopMediaService;
+import org.example.service.TrendingService;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 // HTTP Server-Setup und Routing-Konfiguration
 // Erstellt alle Dependencies (Repos, Services, Controller) und konfiguriert Endpoints
 public class RestServer {
     private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final PopularityService popularityService;
+    private final LeaderboardService leaderboardService;
+    private final TrendingService trendingService;
+    private final RatingAggregateRepairService ratingAggregateRepairService;
+    private final RatingAggregateWriteBehindService ratingAggregateWriteBehindService;
+    private final LikeCounterService likeCounterService;
+    private final CommentScreeningService commentScreeningService;
 
     // Constructor: Initialisiert Server mit allen Dependencies
     public RestServer(int port) throws IOException {
@@ -40,21 +65,96 @@ public class RestServer {
         ratingRepository.createTable();
         favoriteRepository.createTable();
 
+        // Rating-Aggregate der Media einmal abgleichen (füllt neue Spalten), danach periodisch gegen Drift
+        this.ratingAggregateRepairService = new RatingAggregateRepairService(mediaRepository, ratingRepository);
+        ratingAggregateRepairService.repair();
+        ratingAggregateRepairService.start();
+
+        // Aggregat-Deltas pro Media sammeln und gebündelt schreiben (keine Sperre der Media-Zeile pro Rating)
+        this.ratingAggregateWriteBehindService = new RatingAggregateWriteBehindService(ratingRepository);
+        ratingAggregateWriteBehindService.start();
+
         // Create services
         UserService userService = new UserService(userRepository);
         MediaService mediaService = new MediaService(mediaRepository);
-        RatingService ratingService = new RatingService(ratingRepository, mediaRepository);
-        RecommendationService recommendationService = new RecommendationService(userRepository);
-        LeaderboardService leaderboardService = new LeaderboardService(userRepository);
+        // Likes werden im Speicher gezählt und periodisch gebündelt geschrieben (keine Hot-Row pro Klick)
+        this.likeCounterService = new LikeCounterService(ratingRepository);
+        likeCounterService.start();
+        // Ein Like pro User: Bloom-Filter + exakte Mengen im Speicher, rating_likes als Quelle der Wahrheit
+        RatingLikeIndex ratingLikeIndex = new RatingLikeIndex(ratingRepository);
+        ratingLikeIndex.rebuild();
+        // Kommentar-Vorprüfung gegen gesperrte Begriffe, Wörterbuch wird bei Änderungen im Hintergrund neu geladen
+        // Fast gleiche Kommentare (MinHash/LSH) werden markiert; Index einmal aus allen Kommentaren aufbauen
+        CommentDuplicateIndex commentDuplicateIndex = new CommentDuplicateIndex(ratingRepository);
+        int duplicateComments = commentDuplicateIndex.backfill();
+        if (duplicateComments > 0) {
+            System.out.println("Found " + duplicateComments + " near-duplicate rating comments");
+        }
+        this.commentScreeningService = new CommentScreeningService(commentDuplicateIndex);
+        commentScreeningService.reload();
+        commentScreeningService.start();
+        RatingService ratingService = new RatingService(ratingRepository, likeCounterService, ratingLikeIndex,
+                commentScreeningService);
+        ratingService.addListener(commentDuplicateIndex);
         FavoriteService favoriteService = new FavoriteService(favoriteRepository, mediaRepository);
 
+        // In-Memory Indexe: einmal aus der DB laden, danach inkrementell über Listener aktualisieren
+        // Katalog zuerst, da die anderen Indexe Titel/Genres daraus lesen
+        MediaCatalog mediaCatalog = new MediaCatalog(mediaRepository);
+        mediaCatalog.rebuild();
+        mediaService.addListener(mediaCatalog);
+
+        SimilarMediaService similarMediaService = new SimilarMediaService(mediaCatalog, ratingRepository);
+        similarMediaService.rebuild();
+        ratingService.addListener(similarMediaService);
+        mediaService.addListener(similarMediaService);
+
+        CoOccurrenceService coOccurrenceService = new CoOccurrenceService(mediaCatalog, ratingRepository);
+        coOccurrenceService.rebuild();
+        ratingService.addListener(coOccurrenceService);
+        mediaService.addListener(coOccurrenceService);
+
+        TopMediaService topMediaService = new TopMediaService(mediaCatalog, ratingRepository);
+        topMediaService.rebuild();
+        ratingService.addListener(topMediaService);
+        mediaService.addListener(topMediaService);
+
+        // Trending: abklingende Aktivitäts-Scores, Top-Liste wird periodisch neu bestimmt
+        this.trendingService = new TrendingService(mediaCatalog, ratingRepository);
+        trendingService.rebuild();
+        trendingService.start();
+        ratingService.addListener(trendingService);
+        favoriteService.addListener(trendingService);
+        mediaService.addListener(trendingService);
+
+        this.leaderboardService = new LeaderboardService(userRepository, ratingRepository, likeCounterService);
+        leaderboardService.rebuild();
+        leaderboardService.start();
+        ratingService.addListener(leaderboardService);
+        userService.addListener(leaderboardService);
+        mediaService.addListener(leaderboardService);
+        favoriteService.addListener(leaderboardService);
+
+        // Beliebte Media (Cold-Start Fallback) werden periodisch im Hintergrund neu berechnet
+        this.popularityService = new PopularityService(mediaCatalog, mediaRepository);
+        popularityService.refresh();
+        popularityService.start();
+
+        RecommendationService recommendationService = new RecommendationService(userRepository, mediaRepository,
+                ratingRepository, mediaCatalog, popularityService, coOccurrenceService, similarMediaService);
+
         // Create controllers
         UserController userController = new UserController(userService);
         MediaController mediaController = new MediaController(mediaService, userService);
         RatingController ratingController = new RatingController(ratingService, userService);
         FavoriteController favoriteController = new FavoriteController(favoriteService, userService);
-        RecommendationController recommendationController = new RecommendationController(recommendationService, userService);
+        RecommendationController recommendationController = new RecommendationController(
+                recommendationService, similarMediaService, coOccurrenceService, userService);
         LeaderboardController leaderboardController = new LeaderboardController(leaderboardService, userService);
+        MediaRankingController mediaRankingController = new MediaRankingController(topMediaService, trendingService,
+                favoriteService);
+        MetricsController metricsController = new MetricsController(likeCounterService, ratingLikeIndex,
+                commentScreeningService);
 
         // Erstellt HTTP-Server auf gegebenem Port
         this.server = HttpServer.create(new InetSocketAddress(port), 0);
@@ -82,16 +182,32 @@ public class RestServer {
         server.createContext("/api/media/", exchange -> {
             String path = exchange.getRequestURI().getPath();
             // Unterscheidet zwischen Media-Ratings und Media selbst
-            if (path.contains("/ratings")) {
+            if (path.equals("/api/media/top")) {
+                mediaRankingController.handleTopMedia(exchange);
+            } else if (path.equals("/api/media/trending")) {
+                mediaRankingController.handleTrending(exchange);
+            } else if (path.equals("/api/media/most-favorited")) {
+                mediaRankingController.handleMostFavorited(exchange);
+            } else if (path.contains("/ratings")) {
                 ratingController.handleMediaRatings(exchange);
+            } else if (path.endsWith("/similar")) {
+                recommendationController.handleSimilarMedia(exchange);
+            } else if (path.endsWith("/also-rated")) {
+                recommendationController.handleAlsoRated(exchange);
             } else {
                 mediaController.handleMedia(exchange);
             }
         });
         server.createContext("/api/media", mediaController::handleMedia);
         server.createContext("/api/ratings", ratingController::handleRating);
+        server.createContext("/api/ratings/pending", ratingController::handlePendingRatings);
+        server.createContext("/api/ratings/confirm", ratingController::handleConfirmRatings);
+        server.createContext("/api/ratings/comments", ratingController::handleRatingComments);
+        server.createContext("/api/metrics", metricsController::handle);
 
-        server.setExecutor(null);  // Default executor (single-threaded)
+        // Virtual Thread pro Request: lange Streams (z.B. Batch-Empfehlungen) blockieren keine anderen Requests
+        this.requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(requestExecutor);
     }
 
     // Startet HTTP-Server
@@ -103,6 +219,20 @@ public class RestServer {
     // Stoppt HTTP-Server
     public void stop() {
         server.stop(0);
+        requestExecutor.shutdown();
+        try {
+            requestExecutor.awaitTermination(5, TimeUnit.SECONDS);  // Laufende Writes vor dem letzten Flush abschließen
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Gepufferte Writes zuerst, damit sie beim Shutdown-Hook nicht von den übrigen Services abhängen
+        ratingAggregateRepairService.stop();
+        ratingAggregateWriteBehindService.stop();  // Schreibt noch gesammelte Deltas
+        likeCounterService.stop();  // Schreibt noch gepufferte Likes
+        popularityService.stop();
+        leaderboardService.stop();
+        trendingService.stop();
+        commentScreeningService.stop();
     }
 }
 
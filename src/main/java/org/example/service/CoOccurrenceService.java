@@ -0,0 +1,140 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.example.util.CoOccurrenceMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Service für "User die das bewertet haben, bewerteten auch..."
+// Pflegt eine Co-Occurrence Matrix (Media x Media -> Anzahl User mit >= 4 Sternen für beide)
+// Wird inkrementell über Rating-Events aktualisiert statt per Self-Join auf ratings berechnet
+public class CoOccurrenceService implements RatingListener, MediaListener {
+    static final int HIGH_RATING = 4;  // Ab so vielen Sternen zählt ein Rating als "mag ich"
+    private static final int TOP_K = 100;  // Pro Media werden die Top-K Partner gehalten
+
+    private final MediaCatalog catalog;
+    private final RatingRepository ratingRepository;
+    private final CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(TOP_K);
+    private final Map<String, int[]> likedByUser = new HashMap<>();  // username -> sortierte mediaIds (>= 4 Sterne)
+
+    public CoOccurrenceService(MediaCatalog catalog, RatingRepository ratingRepository) {
+        this.catalog = catalog;
+        this.ratingRepository = ratingRepository;
+    }
+
+    // Lädt alle Ratings einmalig aus der DB (beim Server-Start)
+    public synchronized void rebuild() {
+        matrix.clear();
+        likedByUser.clear();
+        for (Rating rating : ratingRepository.getAllRatings()) {
+            if (rating.getStars() >= HIGH_RATING) {
+                addLike(rating.getUsername(), rating.getMediaId());
+            }
+        }
+    }
+
+    // Gibt die Media zurück, die am häufigsten zusammen mit mediaId hoch bewertet wurden
+    // Gibt null zurück wenn das Media nicht existiert
+    public synchronized List<Map<String, Object>> getAlsoRated(int mediaId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (!catalog.contains(mediaId)) {
+            return null;
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int[] partner : matrix.topPartners(mediaId, limit)) {
+            MediaCatalog.MediaInfo info = catalog.get(partner[0]);
+            if (info == null) {
+                continue;
+            }
+            Map<String, Object> entry = catalog.toEntry(info);
+            entry.put("count", partner[1]);  // Anzahl User die beide hoch bewertet haben
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // Media die der User mit >= 4 Sternen bewertet hat (In-Memory, für Cold-Start Erkennung)
+    public synchronized int[] getHighRatedMedia(String username) {
+        return likedByUser.getOrDefault(username, new int[0]).clone();
+    }
+
+    @Override
+    public synchronized void onRatingSaved(Rating previous, Rating current) {
+        boolean wasHigh = previous != null && previous.getStars() >= HIGH_RATING;
+        boolean isHigh = current.getStars() >= HIGH_RATING;
+        if (!wasHigh && isHigh) {
+            addLike(current.getUsername(), current.getMediaId());
+        } else if (wasHigh && !isHigh) {
+            removeLike(current.getUsername(), current.getMediaId());
+        }
+    }
+
+    @Override
+    public synchronized void onRatingDeleted(Rating rating) {
+        if (rating.getStars() >= HIGH_RATING) {
+            removeLike(rating.getUsername(), rating.getMediaId());
+        }
+    }
+
+    @Override
+    public synchronized void onMediaDeleted(int mediaId) {
+        matrix.removeId(mediaId);
+        // Ratings werden per CASCADE gelöscht; seltenes Event, daher einfacher Scan über alle User
+        for (Map.Entry<String, int[]> entry : likedByUser.entrySet()) {
+            entry.setValue(without(entry.getValue(), mediaId));
+        }
+        likedByUser.values().removeIf(liked -> liked.length == 0);
+    }
+
+    private void addLike(String username, int mediaId) {
+        int[] liked = likedByUser.getOrDefault(username, new int[0]);
+        int pos = Arrays.binarySearch(liked, mediaId);
+        if (pos >= 0) {
+            return;
+        }
+        for (int other : liked) {
+            matrix.increment(mediaId, other);
+        }
+        int insertAt = -pos - 1;
+        int[] updated = new int[liked.length + 1];
+        System.arraycopy(liked, 0, updated, 0, insertAt);
+        updated[insertAt] = mediaId;
+        System.arraycopy(liked, insertAt, updated, insertAt + 1, liked.length - insertAt);
+        likedByUser.put(username, updated);
+    }
+
+    private void removeLike(String username, int mediaId) {
+        int[] liked = likedByUser.get(username);
+        if (liked == null || Arrays.binarySearch(liked, mediaId) < 0) {
+            return;
+        }
+        int[] updated = without(liked, mediaId);
+        for (int other : updated) {
+            matrix.decrement(mediaId, other);
+        }
+        if (updated.length == 0) {
+            likedByUser.remove(username);
+        } else {
+            likedByUser.put(username, updated);
+        }
+    }
+
+    private static int[] without(int[] sorted, int value) {
+        int pos = Arrays.binarySearch(sorted, value);
+        if (pos < 0) {
+            return sorted;
+        }
+        int[] updated = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, updated, 0, pos);
+        System.arraycopy(sorted, pos + 1, updated, pos, sorted.length - pos - 1);
+        return updated;
+    }
+}
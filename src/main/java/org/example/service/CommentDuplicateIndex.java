@@ -0,0 +1,191 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+import org.example.util.MinHash;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-Memory Index für fast gleiche Kommentare (Spam-Kampagnen mit leicht variierten Kopien auf vielen Media)
+// MinHash-Signatur pro Kommentar, aufgeteilt in BANDS Bänder à ROWS Werte (Locality Sensitive Hashing):
+// Kommentare mit gleichem Band landen im selben Bucket; nur diese Kandidaten werden verglichen
+// -> Prüfung eines neuen Kommentars in nahezu konstanter Zeit, unabhängig von der Anzahl Kommentare
+// Mit 16 x 8 werden Paare ab ~70% Ähnlichkeit fast sicher Kandidat; Treffer erst ab ratings.duplicates.similarity
+// Kurze Kommentare ("Great movie!") sind natürlich ähnlich und werden nicht geprüft (ratings.duplicates.min-length)
+public class CommentDuplicateIndex implements RatingListener {
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+    private static final int MAX_BUCKET_CANDIDATES = 50;  // Obergrenze der Kandidaten pro Bucket (volle Buckets)
+    private static final long SEED = 0x5EEDL;  // Fest -> gleiche Signaturen über Neustarts
+
+    private final RatingRepository ratingRepository;
+    private final MinHash minHash = new MinHash(BANDS * ROWS, 5, SEED);
+    private final double threshold;
+    private final int minLength;
+
+    private final Map<Integer, Entry> entries = new HashMap<>();  // ratingId -> Signatur und Besitzer
+    private final Map<Long, LinkedHashSet<Integer>> buckets = new HashMap<>();  // Band-Schlüssel -> ratingIds
+
+    // Metriken
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong comparisons = new AtomicLong();
+    private final AtomicLong duplicatesFound = new AtomicLong();
+
+    private record Entry(int mediaId, String username, int[] signature, long[] bandKeys) {
+    }
+
+    public CommentDuplicateIndex(RatingRepository ratingRepository) {
+        this(ratingRepository, Double.parseDouble(AppConfig.getString("ratings.duplicates.similarity", "0.8")),
+                AppConfig.getInt("ratings.duplicates.min-length", 40));
+    }
+
+    CommentDuplicateIndex(RatingRepository ratingRepository, double threshold, int minLength) {
+        this.ratingRepository = ratingRepository;
+        this.threshold = threshold;
+        this.minLength = minLength;
+    }
+
+    // Backfill: indexiert alle gespeicherten Kommentare neu (beim Server-Start)
+    // Gibt die Anzahl Kommentare zurück, die einem früheren Kommentar eines anderen Ratings fast gleichen
+    public int backfill() {
+        int[] duplicates = new int[1];
+        synchronized (this) {
+            entries.clear();
+            buckets.clear();
+        }
+        ratingRepository.forEachComment(rating -> {
+            if (index(rating.getId(), rating.getMediaId(), rating.getUsername(), rating.getComment(), true)) {
+                duplicates[0]++;
+            }
+        });
+        return duplicates[0];
+    }
+
+    // ID eines fast gleichen Kommentars eines anderen Ratings (nicht desselben Users auf demselben Media)
+    public OptionalInt findDuplicate(int mediaId, String username, String comment) {
+        int[] signature = signatureOf(comment);
+        if (signature == null) {
+            return OptionalInt.empty();
+        }
+        checks.incrementAndGet();
+        synchronized (this) {
+            OptionalInt match = findMatch(mediaId, username, signature, bandKeys(signature));
+            if (match.isPresent()) {
+                duplicatesFound.incrementAndGet();
+            }
+            return match;
+        }
+    }
+
+    @Override
+    public void onRatingSaved(Rating previous, Rating current) {
+        if (previous == null || !Objects.equals(previous.getComment(), current.getComment())) {
+            index(current.getId(), current.getMediaId(), current.getUsername(), current.getComment(), false);
+        }
+    }
+
+    @Override
+    public synchronized void onRatingDeleted(Rating rating) {
+        remove(rating.getId());
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("checks", checks.get());
+        metrics.put("comparisons", comparisons.get());
+        metrics.put("duplicatesFound", duplicatesFound.get());
+        synchronized (this) {
+            metrics.put("indexedComments", entries.size());
+            metrics.put("buckets", buckets.size());
+        }
+        return metrics;
+    }
+
+    // Ersetzt den Eintrag eines Ratings; mit checkFirst wird vorher auf Duplikate geprüft (Backfill)
+    private boolean index(int ratingId, int mediaId, String username, String comment, boolean checkFirst) {
+        int[] signature = signatureOf(comment);  // Außerhalb des Locks (teuerster Teil)
+        synchronized (this) {
+            remove(ratingId);
+            if (signature == null) {
+                return false;
+            }
+            long[] keys = bandKeys(signature);
+            boolean duplicate = checkFirst && findMatch(mediaId, username, signature, keys).isPresent();
+            entries.put(ratingId, new Entry(mediaId, username, signature, keys));
+            for (long key : keys) {
+                buckets.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(ratingId);
+            }
+            return duplicate;
+        }
+    }
+
+    // Volle Buckets (z.B. gemeinsame Textbausteine) werden nach MAX_BUCKET_CANDIDATES abgebrochen,
+    // die übrigen Bänder werden trotzdem geprüft; neueste Kommentare zuerst (Kampagnen sind meist frisch)
+    private OptionalInt findMatch(int mediaId, String username, int[] signature, long[] keys) {
+        Set<Integer> seen = new HashSet<>();
+        for (long key : keys) {
+            LinkedHashSet<Integer> bucket = buckets.get(key);
+            if (bucket == null) {
+                continue;
+            }
+            int examined = 0;
+            for (int candidate : bucket.reversed()) {
+                if (examined++ == MAX_BUCKET_CANDIDATES) {
+                    break;
+                }
+                if (!seen.add(candidate)) {
+                    continue;
+                }
+                Entry entry = entries.get(candidate);
+                if (entry.mediaId() == mediaId && entry.username().equals(username)) {
+                    continue;  // Eigenes Rating (Update desselben Kommentars)
+                }
+                comparisons.incrementAndGet();
+                if (MinHash.similarity(signature, entry.signature()) >= threshold) {
+                    return OptionalInt.of(candidate);
+                }
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    private void remove(int ratingId) {
+        Entry entry = entries.remove(ratingId);
+        if (entry == null) {
+            return;
+        }
+        for (long key : entry.bandKeys()) {
+            Set<Integer> bucket = buckets.get(key);
+            bucket.remove(ratingId);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    private int[] signatureOf(String comment) {
+        return MinHash.normalizedLength(comment) < minLength ? null : minHash.signature(comment);
+    }
+
+    // Ein Schlüssel pro Band: Bandnummer + Hash der ROWS Signaturwerte
+    private static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long hash = band;
+            for (int row = 0; row < ROWS; row++) {
+                hash = hash * 31 + signature[band * ROWS + row];
+            }
+            keys[band] = hash * BANDS + band;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.service;
+
+import org.example.util.AhoCorasick;
+import org.example.util.AppConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Automatische Vorprüfung von Rating-Kommentaren gegen ein Wörterbuch gesperrter Begriffe
+// Wörterbuch: Textdatei (ratings.screening.dictionary), ein Begriff pro Zeile, # = Kommentarzeile
+// Saubere Kommentare werden automatisch bestätigt, markierte landen in der Moderations-Queue
+// Ohne konfiguriertes Wörterbuch bleibt alles wie bisher (UNSCREENED -> manuelle Moderation)
+// Fast gleiche Kopien bestehender Kommentare (CommentDuplicateIndex) werden immer markiert (DUPLICATE)
+// Hot Reload: Änderungen der Datei werden periodisch erkannt, der neue Automat wird im Hintergrund gebaut
+// und per volatile Referenz getauscht -> laufende Requests prüfen ohne Pause gegen den alten Stand weiter
+public class CommentScreeningService {
+
+    public enum Result {
+        UNSCREENED,  // Kein Wörterbuch geladen, Rating bleibt unbestätigt
+        CLEAN,
+        FLAGGED,
+        DUPLICATE  // Fast gleich einem Kommentar eines anderen Ratings (Spam-Verdacht)
+    }
+
+    private final Path dictionary;  // null = Screening deaktiviert
+    private final long reloadSeconds;
+    private final CommentDuplicateIndex duplicates;  // null = keine Duplikat-Erkennung
+    private volatile AhoCorasick automaton;  // null bis das Wörterbuch einmal geladen wurde
+    private volatile FileTime loadedVersion;
+
+    private final LongAdder screened = new LongAdder();
+    private final LongAdder flagged = new LongAdder();
+    private final AtomicLong reloads = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    public CommentScreeningService(CommentDuplicateIndex duplicates) {
+        this(configuredDictionary(), AppConfig.getLong("ratings.screening.reload-seconds", 30), duplicates);
+    }
+
+    CommentScreeningService(Path dictionary, long reloadSeconds, CommentDuplicateIndex duplicates) {
+        this.dictionary = dictionary;
+        this.reloadSeconds = reloadSeconds;
+        this.duplicates = duplicates;
+    }
+
+    CommentScreeningService(Path dictionary, long reloadSeconds) {
+        this(dictionary, reloadSeconds, null);
+    }
+
+    // Prüft den Kommentar eines Ratings (User auf Media): gesperrte Begriffe, danach fast gleiche Kommentare
+    // anderer Ratings; das eigene Rating desselben Users zählt nicht als Duplikat
+    public Result screen(int mediaId, String username, String comment) {
+        Result result = screen(comment);
+        if (result != Result.FLAGGED && duplicates != null
+                && duplicates.findDuplicate(mediaId, username, comment).isPresent()) {
+            return Result.DUPLICATE;
+        }
+        return result;
+    }
+
+    // Prüft einen Kommentar; leere Kommentare sind sauber
+    public Result screen(String comment) {
+        AhoCorasick current = automaton;  // Einmal lesen -> ein Request sieht genau einen Wörterbuch-Stand
+        if (current == null) {
+            return Result.UNSCREENED;
+        }
+        screened.increment();
+        if (current.containsAny(comment)) {
+            flagged.increment();
+            return Result.FLAGGED;
+        }
+        return Result.CLEAN;
+    }
+
+    // Gefundene Begriffe (z.B. als Hinweis für Moderatoren), leer wenn kein Wörterbuch geladen ist
+    public Set<String> findTerms(String comment) {
+        AhoCorasick current = automaton;
+        return current == null ? Set.of() : current.findAll(comment);
+    }
+
+    // Lädt das Wörterbuch neu wenn sich die Datei seit dem letzten Laden geändert hat
+    // Bei Fehlern (Datei fehlt, nicht lesbar) bleibt der bisherige Automat aktiv; gibt true zurück wenn neu geladen
+    public synchronized boolean reload() {
+        if (dictionary == null) {
+            return false;
+        }
+        try {
+            FileTime version = Files.getLastModifiedTime(dictionary);
+            if (automaton != null && version.equals(loadedVersion)) {
+                return false;
+            }
+            List<String> terms = new ArrayList<>();
+            for (String line : Files.readAllLines(dictionary, StandardCharsets.UTF_8)) {
+                String term = line.trim();
+                if (!term.isEmpty() && !term.startsWith("#")) {
+                    terms.add(term);
+                }
+            }
+            AhoCorasick built = new AhoCorasick(terms);  // Bau außerhalb der Request-Threads
+            automaton = built;
+            loadedVersion = version;
+            reloads.incrementAndGet();
+            System.out.println("Loaded comment screening dictionary with " + built.size() + " terms");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Could not load comment screening dictionary " + dictionary + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Startet die periodische Prüfung auf Änderungen (Intervall aus application.properties, 0 = kein Hot Reload)
+    public synchronized void start() {
+        if (scheduler != null || dictionary == null || reloadSeconds <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "comment-screening-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reload, reloadSeconds, reloadSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Zähler für /api/metrics
+    public Map<String, Object> getMetrics() {
+        AhoCorasick current = automaton;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", current != null);
+        metrics.put("terms", current == null ? 0 : current.size());
+        metrics.put("screened", screened.sum());
+        metrics.put("flagged", flagged.sum());
+        metrics.put("reloads", reloads.get());
+        if (duplicates != null) {
+            metrics.put("duplicates", duplicates.getMetrics());
+        }
+        return metrics;
+    }
+
+    private static Path configuredDictionary() {
+        String path = AppConfig.getString("ratings.screening.dictionary", "");
+        return path.isBlank() ? null : Path.of(path.trim());
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.service;
+
+// Listener für Favoriten-Änderungen (z.B. In-Memory Leaderboards und Zähler)
+public interface FavoriteListener {
+
+    // Media wurde zu den Favoriten eines Users hinzugefügt
+    default void onFavoriteAdded(String username, int mediaId) {
+    }
+
+    // Media wurde aus den Favoriten eines Users entfernt
+    default void onFavoriteRemoved(String username, int mediaId) {
+    }
+}
@@ -2,16 +2,24 @@ package org.example.service;
 
 import org.example.model.MediaEntry;
 import org.example.repository.FavoriteRepository;
+import org.example.repository.FavoriteRepository.FavoriteChange;
 import org.example.repository.MediaRepository;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // Business Logic Layer für Favorites-Management
 // User können Media als Favoriten markieren
 public class FavoriteService {
 
+    static final int MAX_LIMIT = 100;
+
     private final FavoriteRepository favoriteRepository;
     private final MediaRepository mediaRepository;
+    private final List<FavoriteListener> listeners = new CopyOnWriteArrayList<>();
 
     // Constructor mit Dependency Injection (für Tests und SOLID DIP)
     public FavoriteService(FavoriteRepository favoriteRepository, MediaRepository mediaRepository) {
@@ -24,51 +32,45 @@ public class FavoriteService {
         this(new FavoriteRepository(), new MediaRepository());
     }
 
+    // Registriert Listener für Favoriten-Änderungen (z.B. In-Memory Leaderboard)
+    public void addListener(FavoriteListener listener) {
+        listeners.add(listener);
+    }
+
     // Wechselt Favorite-Status (fügt hinzu wenn nicht vorhanden, entfernt wenn vorhanden)
-    // Gibt true zurück wenn hinzugefügt, false wenn entfernt
+    // Gibt true zurück wenn hinzugefügt, false wenn entfernt; ein einziger DB-Round-Trip
     public boolean toggleFavorite(String username, int mediaId) {
-        // Prüft ob Media existiert
-        MediaEntry media = mediaRepository.getMediaById(mediaId);
-        if (media == null) {
-            throw new IllegalArgumentException("Media with ID " + mediaId + " does not exist");
-        }
-
-        // Prüft ob bereits als Favorite markiert
-        if (favoriteRepository.isFavorite(username, mediaId)) {
-            // Entfernt Favorite
-            favoriteRepository.removeFavorite(username, mediaId);
-            return false;  // Wurde entfernt
-        } else {
-            // Fügt Favorite hinzu
-            favoriteRepository.addFavorite(username, mediaId);
-            return true;  // Wurde hinzugefügt
+        FavoriteChange change = favoriteRepository.toggleFavorite(username, mediaId);
+        switch (change) {
+            case ADDED -> fireAdded(username, mediaId);
+            case REMOVED -> fireRemoved(username, mediaId);
+            case MEDIA_NOT_FOUND ->
+                    throw new IllegalArgumentException("Media with ID " + mediaId + " does not exist");
+            case UNCHANGED -> {
+                // Paralleler Toggle hat den Favoriten gerade angelegt -> ist jetzt Favorit
+            }
         }
+        return change != FavoriteChange.REMOVED;
     }
 
     // Fügt ein Media zu den Favorites eines Users hinzu
     public void addFavorite(String username, int mediaId) {
-        // Prüft ob Media existiert
-        MediaEntry media = mediaRepository.getMediaById(mediaId);
-        if (media == null) {
+        FavoriteChange change = favoriteRepository.addFavorite(username, mediaId);
+        if (change == FavoriteChange.MEDIA_NOT_FOUND) {
             throw new IllegalArgumentException("Media with ID " + mediaId + " does not exist");
         }
-
-        // Prüft ob bereits als Favorite markiert
-        if (favoriteRepository.isFavorite(username, mediaId)) {
+        if (change == FavoriteChange.UNCHANGED) {
             throw new IllegalStateException("Media is already in favorites");
         }
-
-        favoriteRepository.addFavorite(username, mediaId);
+        fireAdded(username, mediaId);
     }
 
-    // Entfernt ein Media aus den Favorites eines Users
+    // Entfernt ein Media aus den Favorites eines Users (DELETE meldet ob etwas entfernt wurde)
     public void removeFavorite(String username, int mediaId) {
-        // Prüft ob als Favorite markiert
-        if (!favoriteRepository.isFavorite(username, mediaId)) {
+        if (!favoriteRepository.removeFavorite(username, mediaId)) {
             throw new IllegalStateException("Media is not in favorites");
         }
-
-        favoriteRepository.removeFavorite(username, mediaId);
+        fireRemoved(username, mediaId);
     }
 
     // Holt alle Favorites eines Users
@@ -86,8 +88,39 @@ public class FavoriteService {
         return favoriteRepository.getFavoriteCount(mediaId);
     }
 
+    // Meistfavorisierte Media (Rangliste aus dem gepflegten Zähler, ohne COUNT über favorites)
+    public List<Map<String, Object>> getMostFavorited(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (MediaEntry media : mediaRepository.findMostFavorited(limit)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", media.getId());
+            item.put("title", media.getTitle());
+            item.put("mediaType", media.getMediaType() != null ? media.getMediaType().name() : null);
+            item.put("genres", String.join(",", media.getGenres()));
+            item.put("rank", result.size() + 1);
+            item.put("favoriteCount", media.getFavoriteCount());
+            result.add(item);
+        }
+        return result;
+    }
+
     // Holt alle Favorite-IDs eines Users
     public List<Integer> getFavoriteIds(String username) {
         return favoriteRepository.getFavoriteIdsByUser(username);
     }
+
+    private void fireAdded(String username, int mediaId) {
+        for (FavoriteListener listener : listeners) {
+            listener.onFavoriteAdded(username, mediaId);
+        }
+    }
+
+    private void fireRemoved(String username, int mediaId) {
+        for (FavoriteListener listener : listeners) {
+            listener.onFavoriteRemoved(username, mediaId);
+        }
+    }
 }
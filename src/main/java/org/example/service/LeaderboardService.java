@@ -1,24 +1,361 @@
 package org.example.service;
 
+import org.example.model.MediaEntry;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository.DeletedMedia;
+import org.example.repository.RatingRepository;
 import org.example.repository.UserRepository;
+import org.example.util.AppConfig;
+import org.example.util.RankedBoard;
+import org.example.util.WindowedCounts;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Service für Leaderboards (aktivste User nach Anzahl Ratings, Likes, Media, Favoriten, Durchschnitts-Sternen)
+// Die Kennzahlen werden einmal aus der DB geladen und danach über Events der Services inkrementell gepflegt,
+// die sortierten Ranglisten liefern Top-N in O(log n + N) statt GROUP BY über alle Ratings pro Request
+// Zusätzlich rollierende Zeitfenster (day = 24h, week = 7 Tage, month = 30 Tage) aus Stunden-/Tages-Buckets;
+// abgelaufene Buckets werden periodisch kompaktiert und die Fenster-Ranglisten dabei nachgezogen
+public class LeaderboardService implements RatingListener, UserListener, MediaListener, FavoriteListener {
+    static final int MAX_WINDOW = 50;  // Maximal so viele Nachbarn pro Richtung
+    private static final String ALL_TIME = "all";
+
+    // Auswählbare Kennzahlen (?metric=), key = Feldname im Response
+    enum Metric {
+        RATINGS("ratings", "ratingCount"),
+        LIKES("likes", "likesReceived"),
+        AVERAGE_STARS("averageStars", "averageStars"),  // Score = Durchschnitt * 100 (Ranking mit Ganzzahlen)
+        MEDIA("media", "mediaCount"),
+        FAVORITES("favorites", "favoriteCount");
+
+        final String param;
+        final String key;
+
+        Metric(String param, String key) {
+            this.param = param;
+            this.key = key;
+        }
+
+        static Metric of(String param) {
+            if (param == null) {
+                return RATINGS;
+            }
+            for (Metric metric : values()) {
+                if (metric.param.equalsIgnoreCase(param)) {
+                    return metric;
+                }
+            }
+            throw new IllegalArgumentException("Unknown metric: " + param);
+        }
+    }
 
-// Service für Leaderboard (aktivste User nach Anzahl Ratings)
-public class LeaderboardService {
     private final UserRepository userRepository;
+    private final RatingRepository ratingRepository;
+    private final LikeCounterService likeCounter;
+    private final Clock clock;
+    private final Map<Metric, RankedBoard<String>> boards = new EnumMap<>(Metric.class);
+    private final RankedBoard<String> board;  // Rating-Anzahl (Standard-Leaderboard)
+    private final Map<String, long[]> starsGiven = new HashMap<>();  // username -> {Summe Sterne, Anzahl Ratings}
+    private final WindowedCounts recentRatings = new WindowedCounts();
+    private final Map<WindowedCounts.Window, RankedBoard<String>> windowBoards = new EnumMap<>(WindowedCounts.Window.class);
+    private ScheduledExecutorService scheduler;
+
+    // likeCounter liefert die noch gepufferten Likes der Ratings, die mit einem Media gelöscht werden
+    public LeaderboardService(UserRepository userRepository, RatingRepository ratingRepository,
+                              LikeCounterService likeCounter) {
+        this(userRepository, ratingRepository, likeCounter, Clock.systemDefaultZone());
+    }
+
+    // Constructor ohne Like-Puffer
+    public LeaderboardService(UserRepository userRepository, RatingRepository ratingRepository) {
+        this(userRepository, ratingRepository, new LikeCounterService(ratingRepository));
+    }
 
-    public LeaderboardService(UserRepository userRepository) {
+    // Constructor mit Clock (für Tests)
+    LeaderboardService(UserRepository userRepository, RatingRepository ratingRepository, Clock clock) {
+        this(userRepository, ratingRepository, new LikeCounterService(ratingRepository), clock);
+    }
+
+    LeaderboardService(UserRepository userRepository, RatingRepository ratingRepository,
+                       LikeCounterService likeCounter, Clock clock) {
         this.userRepository = userRepository;
+        this.ratingRepository = ratingRepository;
+        this.likeCounter = likeCounter;
+        this.clock = clock;
+        for (Metric metric : Metric.values()) {
+            boards.put(metric, new RankedBoard<>());
+        }
+        this.board = boards.get(Metric.RATINGS);
+        for (WindowedCounts.Window window : WindowedCounts.Window.values()) {
+            windowBoards.put(window, new RankedBoard<>());
+        }
+    }
+
+    // Lädt die Kennzahlen aller User einmalig aus der DB (beim Server-Start)
+    // Für die Zeitfenster werden nur die Ratings der letzten 30 Tage geladen
+    public synchronized void rebuild() {
+        for (RankedBoard<String> metricBoard : boards.values()) {
+            metricBoard.clear();
+        }
+        starsGiven.clear();
+        for (Map<String, Object> stats : userRepository.getLeaderboardStats()) {
+            String username = (String) stats.get("username");
+            long ratingCount = (Long) stats.get("ratingCount");
+            board.put(username, ratingCount);
+            boards.get(Metric.LIKES).put(username, (Long) stats.get("likesReceived"));
+            boards.get(Metric.MEDIA).put(username, (Long) stats.get("mediaCount"));
+            boards.get(Metric.FAVORITES).put(username, (Long) stats.get("favoriteCount"));
+            if (ratingCount > 0) {
+                starsGiven.put(username, new long[]{(Long) stats.get("starsSum"), ratingCount});
+                updateAverageStars(username);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        recentRatings.clear();
+        for (Rating rating : ratingRepository.getRatingsSince(now.minusDays(WindowedCounts.MAX_DAYS))) {
+            recentRatings.add(rating.getUsername(), rating.getTimestamp(), 1, now);
+        }
+        refreshWindowBoards(now);
+    }
+
+    // Startet die periodische Kompaktierung der Zeitfenster (Intervall aus application.properties)
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        long interval = AppConfig.getLong("leaderboard.compaction-seconds", 300);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::compact, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Fasst abgelaufene Stunden zu Tagen zusammen und entfernt abgelaufene Ratings aus den Fenster-Ranglisten
+    public synchronized void compact() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        recentRatings.compact(now);
+        refreshWindowBoards(now);
     }
 
     // Gibt Leaderboard sortiert nach Anzahl Ratings zurück
     //string username, int ratingCount
-    public List<Map<String, Object>> getLeaderboard(int limit) {
+    public synchronized List<Map<String, Object>> getLeaderboard(int limit) {
+        return getLeaderboard(limit, null, ALL_TIME);
+    }
+
+    // metric = ratings (Standard), likes, averageStars, media, favorites
+    // period = all, day, week oder month (Zeitfenster nur für ratings)
+    public synchronized List<Map<String, Object>> getLeaderboard(int limit, String metric, String period) {
         if (limit <= 0) {
             throw new IllegalArgumentException("Limit must be greater than 0");
         }
-        return userRepository.getLeaderboard(limit);
+        Metric selected = Metric.of(metric);
+        List<Map<String, Object>> leaderboard = new ArrayList<>();
+        for (RankedBoard.Entry<String> entry : boardFor(selected, period).range(0, limit)) {
+            leaderboard.add(toEntry(entry, selected));
+        }
+        return leaderboard;
+    }
+
+    // Rang eines Users plus window Nachbarn darüber und darunter (O(log n) Rang-Lookup)
+    // Gibt null zurück wenn der User nicht im Leaderboard ist
+    public synchronized Map<String, Object> getRankAround(String username, int window) {
+        return getRankAround(username, window, null, ALL_TIME);
+    }
+
+    // In Zeitfenstern (und bei averageStars) sind nur User mit mindestens einem Rating enthalten
+    public synchronized Map<String, Object> getRankAround(String username, int window, String metric, String period) {
+        if (window < 0 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Window must be between 0 and " + MAX_WINDOW);
+        }
+        Metric selected = Metric.of(metric);
+        RankedBoard<String> ranked = boardFor(selected, period);
+        int rank = ranked.rank(username);
+        if (rank < 0) {
+            return null;
+        }
+        int from = Math.max(0, rank - 1 - window);
+        List<Map<String, Object>> neighbors = new ArrayList<>();
+        for (RankedBoard.Entry<String> entry : ranked.range(from, rank - 1 - from + window + 1)) {
+            neighbors.add(toEntry(entry, selected));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("username", username);
+        result.put("rank", rank);
+        result.put(selected.key, value(selected, ranked.score(username)));
+        result.put("totalUsers", ranked.size());
+        result.put("neighbors", neighbors);  // Einträge von rank - window bis rank + window (inkl. User selbst)
+        return result;
+    }
+
+    @Override
+    public synchronized void onRatingSaved(Rating previous, Rating current) {
+        String username = current.getUsername();
+        if (previous == null) {  // Update eines bestehenden Ratings ändert die Anzahl nicht
+            board.add(username, 1);
+            LocalDateTime now = LocalDateTime.now(clock);
+            recentRatings.add(username, timestampOf(current, now), 1, now);
+            refreshWindowBoards(username, now);
+            addStars(username, current.getStars(), 1);
+        } else {
+            addStars(username, current.getStars() - previous.getStars(), 0);
+        }
+    }
+
+    @Override
+    public synchronized void onRatingDeleted(Rating rating) {
+        String username = rating.getUsername();
+        if (board.contains(username)) {
+            board.add(username, -1);
+        }
+        if (boards.get(Metric.LIKES).contains(username)) {
+            boards.get(Metric.LIKES).add(username, -rating.getLikes());
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        recentRatings.add(username, timestampOf(rating, now), -1, now);
+        refreshWindowBoards(username, now);
+        addStars(username, -rating.getStars(), -1);
+    }
+
+    @Override
+    public synchronized void onRatingLiked(Rating rating) {
+        boards.get(Metric.LIKES).add(rating.getUsername(), 1);  // Zählt für den Autor des Ratings
+    }
+
+    @Override
+    public synchronized void onRatingUnliked(Rating rating) {
+        boards.get(Metric.LIKES).add(rating.getUsername(), -1);
+    }
+
+    @Override
+    public synchronized void onUserRegistered(String username) {
+        for (Metric metric : Metric.values()) {
+            if (metric != Metric.AVERAGE_STARS && !boards.get(metric).contains(username)) {
+                boards.get(metric).put(username, 0);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onMediaCreated(MediaEntry media) {
+        if (media.getCreator() != null) {
+            boards.get(Metric.MEDIA).add(media.getCreator(), 1);
+        }
+    }
+
+    @Override
+    public synchronized void onFavoriteAdded(String username, int mediaId) {
+        boards.get(Metric.FAVORITES).add(username, 1);
+    }
+
+    @Override
+    public synchronized void onFavoriteRemoved(String username, int mediaId) {
+        if (boards.get(Metric.FAVORITES).contains(username)) {
+            boards.get(Metric.FAVORITES).add(username, -1);
+        }
+    }
+
+    // Zieht nur die Beiträge der mitgelöschten Ratings und Favoriten ab (kein Neuladen aller User)
+    @Override
+    public synchronized void onMediaDeleted(int mediaId, DeletedMedia removed) {
+        if (removed.creator() != null && boards.get(Metric.MEDIA).contains(removed.creator())) {
+            boards.get(Metric.MEDIA).add(removed.creator(), -1);
+        }
+        for (Rating rating : removed.ratings()) {
+            onRatingDeleted(likeCounter.withPending(rating));  // Gepufferte Likes wurden per Event schon gezählt
+        }
+        for (String username : removed.favoritedBy()) {
+            onFavoriteRemoved(username, mediaId);
+        }
+    }
+
+    private RankedBoard<String> boardFor(Metric metric, String period) {
+        if (period == null || ALL_TIME.equals(period)) {
+            return boards.get(metric);
+        }
+        if (metric != Metric.RATINGS) {
+            throw new IllegalArgumentException("Period is only supported for metric ratings");
+        }
+        for (WindowedCounts.Window window : WindowedCounts.Window.values()) {
+            if (window.name().equalsIgnoreCase(period)) {
+                return windowBoards.get(window);
+            }
+        }
+        throw new IllegalArgumentException("Unknown period: " + period);
+    }
+
+    private void refreshWindowBoards(LocalDateTime now) {
+        for (RankedBoard<String> windowBoard : windowBoards.values()) {
+            windowBoard.clear();
+        }
+        for (String username : recentRatings.keys()) {
+            refreshWindowBoards(username, now);
+        }
+    }
+
+    // Setzt die Fenster-Summen eines Users neu (User ohne Ratings im Fenster werden entfernt)
+    private void refreshWindowBoards(String username, LocalDateTime now) {
+        for (Map.Entry<WindowedCounts.Window, RankedBoard<String>> entry : windowBoards.entrySet()) {
+            long count = recentRatings.sum(username, entry.getKey(), now);
+            if (count > 0) {
+                entry.getValue().put(username, count);
+            } else {
+                entry.getValue().remove(username);
+            }
+        }
+    }
+
+    private static LocalDateTime timestampOf(Rating rating, LocalDateTime fallback) {
+        return rating.getTimestamp() != null ? rating.getTimestamp() : fallback;
+    }
+
+    // Ändert Sternesumme und Rating-Anzahl eines Users und aktualisiert den Durchschnitt
+    private void addStars(String username, int starsDelta, int countDelta) {
+        long[] given = starsGiven.computeIfAbsent(username, u -> new long[2]);
+        given[0] += starsDelta;
+        given[1] += countDelta;
+        if (given[1] <= 0) {
+            starsGiven.remove(username);
+            boards.get(Metric.AVERAGE_STARS).remove(username);
+        } else {
+            updateAverageStars(username);
+        }
+    }
+
+    private void updateAverageStars(String username) {
+        long[] given = starsGiven.get(username);
+        boards.get(Metric.AVERAGE_STARS).put(username, Math.round(given[0] * 100.0 / given[1]));
+    }
+
+    private static Object value(Metric metric, long score) {
+        return metric == Metric.AVERAGE_STARS ? (Object) (score / 100.0) : (Object) (int) score;
+    }
+
+    private Map<String, Object> toEntry(RankedBoard.Entry<String> entry, Metric metric) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("rank", entry.rank());  // Rang-Position (1, 2, 3, ...)
+        result.put("username", entry.key());
+        result.put(metric.key, value(metric, entry.score()));
+        return result;
     }
 }
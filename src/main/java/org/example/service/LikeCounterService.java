@@ -0,0 +1,209 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Zwischenspeicher für Likes: statt "UPDATE ratings SET likes = likes + 1" pro Klick wird pro Rating
+// ein LongAdder (intern gestreifte Zähler, kaum Contention) erhöht; ein Hintergrund-Flush schreibt
+// alle Deltas periodisch mit einem einzigen Multi-Row UPDATE
+// Reads addieren das noch nicht geschriebene Delta zum gespeicherten Wert
+// Ohne start() (oder mit Intervall 0) wird jedes Like wie bisher synchron geschrieben
+public class LikeCounterService {
+    private final RatingRepository ratingRepository;
+    private final Map<Integer, LongAdder> pending = new ConcurrentHashMap<>();  // ratingId -> noch nicht geschriebene Likes
+    // Beim vorherigen Flush entfernte (leere) Zähler: ein Thread der den Zähler kurz davor geholt hat,
+    // kann noch hineinzählen -> wird beim nächsten Flush mitgeschrieben und erst dann verworfen
+    private List<Map.Entry<Integer, LongAdder>> retired = new ArrayList<>();
+    private volatile boolean buffering;
+    private ScheduledExecutorService scheduler;
+
+    // Metriken
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong flushedLikes = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private volatile long lastFlushMillis;
+    private volatile long maxFlushMillis;
+
+    public LikeCounterService(RatingRepository ratingRepository) {
+        this.ratingRepository = ratingRepository;
+    }
+
+    // Startet das Puffern (Flush-Intervall aus application.properties, 0 = jedes Like synchron schreiben)
+    public synchronized void start() {
+        long interval = AppConfig.getLong("ratings.likes.flush-millis", 1000);
+        if (scheduler != null || interval <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        buffering = true;
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Stoppt das Puffern und schreibt alle noch offenen Likes
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);  // Laufenden Flush abwarten
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        buffering = false;
+        flushQuietly();
+    }
+
+    // Zählt ein Like (gepuffert oder synchron); false wenn das Rating nicht existiert (nur synchron erkennbar)
+    public boolean increment(int ratingId) {
+        if (!buffering) {
+            return ratingRepository.incrementLikes(ratingId);
+        }
+        pending.computeIfAbsent(ratingId, id -> new LongAdder()).increment();
+        return true;
+    }
+
+    // Nimmt ein Like zurück (Unlike), gepuffert oder synchron
+    public boolean decrement(int ratingId) {
+        if (!buffering) {
+            return ratingRepository.addLikes(Map.of(ratingId, -1L)) > 0;
+        }
+        pending.computeIfAbsent(ratingId, id -> new LongAdder()).decrement();
+        return true;
+    }
+
+    // Noch nicht geschriebene Likes eines Ratings
+    public long pending(int ratingId) {
+        LongAdder adder = pending.get(ratingId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    // Ratings mit mehr offenen Likes als Unlikes (können in Ranglisten nach Likes aufsteigen)
+    public Set<Integer> pendingIncreases() {
+        Set<Integer> ratingIds = new HashSet<>();
+        for (Map.Entry<Integer, LongAdder> entry : pending.entrySet()) {
+            if (entry.getValue().sum() > 0) {
+                ratingIds.add(entry.getKey());
+            }
+        }
+        return ratingIds;
+    }
+
+    // Addiert die offenen Likes zum gespeicherten Wert (Rating darf null sein)
+    public Rating withPending(Rating rating) {
+        if (rating != null) {
+            long delta = pending(rating.getId());
+            if (delta != 0) {
+                rating.setLikes((int) (rating.getLikes() + delta));
+            }
+        }
+        return rating;
+    }
+
+    public List<Rating> withPending(List<Rating> ratings) {
+        if (!pending.isEmpty()) {
+            for (Rating rating : ratings) {
+                withPending(rating);
+            }
+        }
+        return ratings;
+    }
+
+    // Schreibt alle offenen Likes in einem UPDATE und gibt die Anzahl geschriebener Likes zurück
+    // Vom Zähler wird genau der gelesene Wert abgezogen -> gleichzeitige Likes bleiben für den nächsten Flush
+    public synchronized long flush() {
+        long started = System.nanoTime();
+        Map<Integer, Long> deltas = new HashMap<>();
+        Map<Integer, LongAdder> sources = new HashMap<>();
+        List<Map.Entry<Integer, LongAdder>> previouslyRetired = retired;
+        retired = new ArrayList<>();
+        for (Map.Entry<Integer, LongAdder> entry : previouslyRetired) {
+            long value = entry.getValue().sumThenReset();  // Nicht mehr in pending -> nur noch Nachzügler
+            if (value != 0) {
+                deltas.merge(entry.getKey(), value, Long::sum);
+            }
+        }
+        for (Map.Entry<Integer, LongAdder> entry : pending.entrySet()) {
+            long value = entry.getValue().sum();
+            if (value != 0) {
+                entry.getValue().add(-value);
+                deltas.merge(entry.getKey(), value, Long::sum);
+                sources.put(entry.getKey(), entry.getValue());
+            } else if (pending.remove(entry.getKey(), entry.getValue())) {
+                retired.add(entry);  // Seit dem letzten Flush kein Like -> Speicher freigeben
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            ratingRepository.addLikes(deltas);
+        } catch (RuntimeException e) {
+            // Deltas zurückbuchen, damit sie weder verloren gehen noch doppelt zählen
+            deltas.forEach((ratingId, value) ->
+                    pending.computeIfAbsent(ratingId, id -> sources.getOrDefault(id, new LongAdder())).add(value));
+            failedFlushes.incrementAndGet();
+            throw e;
+        }
+
+        long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        lastFlushMillis = millis;
+        maxFlushMillis = Math.max(maxFlushMillis, millis);
+        flushCount.incrementAndGet();
+        flushedLikes.addAndGet(total);
+        return total;
+    }
+
+    // Metriken für Monitoring (offene Deltas und Flush-Latenz)
+    public Map<String, Object> getMetrics() {
+        long pendingLikes = 0;
+        int pendingRatings = 0;
+        for (LongAdder adder : pending.values()) {
+            long value = adder.sum();
+            if (value != 0) {
+                pendingLikes += value;
+                pendingRatings++;
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("buffering", buffering);
+        metrics.put("pendingLikes", pendingLikes);
+        metrics.put("pendingRatings", pendingRatings);
+        metrics.put("flushCount", flushCount.get());
+        metrics.put("flushedLikes", flushedLikes.get());
+        metrics.put("failedFlushes", failedFlushes.get());
+        metrics.put("lastFlushMillis", lastFlushMillis);
+        metrics.put("maxFlushMillis", maxFlushMillis);
+        return metrics;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {  // Deltas bleiben gepuffert, nächster Versuch im nächsten Intervall
+            System.err.println("Like flush failed: " + e.getMessage());
+        }
+    }
+}
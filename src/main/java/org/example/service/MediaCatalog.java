@@ -0,0 +1,81 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.repository.MediaRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-Memory Katalog mit den Stammdaten aller Media (Titel, Typ, Genres)
+// Wird von den In-Memory Indexen geteilt, damit Responses ohne SQL Titel etc. enthalten können
+public class MediaCatalog implements MediaListener {
+    private final MediaRepository mediaRepository;
+    private final Map<Integer, MediaInfo> media = new ConcurrentHashMap<>();
+
+    // Schlanke, unveränderliche Sicht auf einen Media-Eintrag
+    // genres = normalisiert (lowercase, getrimmt) für Vergleiche, genresText = Original wie in der DB
+    public record MediaInfo(int id, String title, String mediaType, Set<String> genres, String genresText) {
+    }
+
+    public MediaCatalog(MediaRepository mediaRepository) {
+        this.mediaRepository = mediaRepository;
+    }
+
+    // Lädt alle Media einmalig aus der DB (beim Server-Start)
+    public void rebuild() {
+        media.clear();
+        for (MediaEntry entry : mediaRepository.findAll()) {
+            onMediaSaved(entry);
+        }
+    }
+
+    public MediaInfo get(int mediaId) {
+        return media.get(mediaId);
+    }
+
+    public boolean contains(int mediaId) {
+        return media.containsKey(mediaId);
+    }
+
+    public Collection<MediaInfo> all() {
+        return media.values();
+    }
+
+    // Basis-Felder für JSON-Responses (gleiche Keys wie bei Empfehlungen)
+    public Map<String, Object> toEntry(MediaInfo info) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("id", info.id());
+        entry.put("title", info.title());
+        entry.put("mediaType", info.mediaType());
+        entry.put("genres", info.genresText());
+        return entry;
+    }
+
+    @Override
+    public void onMediaSaved(MediaEntry entry) {
+        String mediaType = entry.getMediaType() != null ? entry.getMediaType().name() : null;
+        media.put(entry.getId(), new MediaInfo(entry.getId(), entry.getTitle(), mediaType,
+                normalizeGenres(entry.getGenres()), String.join(",", entry.getGenres())));
+    }
+
+    @Override
+    public void onMediaDeleted(int mediaId) {
+        media.remove(mediaId);
+    }
+
+    // Normalisiert Genres für Vergleiche ("Sci-Fi " -> "sci-fi")
+    public static Set<String> normalizeGenres(List<String> genres) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String genre : genres) {
+            if (genre != null && !genre.trim().isEmpty()) {
+                normalized.add(genre.trim().toLowerCase());
+            }
+        }
+        return normalized;
+    }
+}
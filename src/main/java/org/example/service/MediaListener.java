@@ -0,0 +1,26 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.repository.MediaRepository.DeletedMedia;
+
+// Listener für Media-Änderungen (erstellt, aktualisiert, gelöscht)
+public interface MediaListener {
+
+    // Media wurde erstellt oder aktualisiert
+    default void onMediaSaved(MediaEntry media) {
+    }
+
+    // Media wurde neu erstellt (Standard: wie jede andere Speicherung behandeln)
+    default void onMediaCreated(MediaEntry media) {
+        onMediaSaved(media);
+    }
+
+    // Media wurde gelöscht (Ratings und Favorites werden ohne einzelne Events mitgelöscht)
+    default void onMediaDeleted(int mediaId) {
+    }
+
+    // Media wurde gelöscht, mit den dabei entfernten Ratings und Favoriten (Standard: nur die ID)
+    default void onMediaDeleted(int mediaId, DeletedMedia removed) {
+        onMediaDeleted(mediaId);
+    }
+}
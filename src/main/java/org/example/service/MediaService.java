@@ -4,20 +4,31 @@ import org.example.model.MediaEntry;
 import org.example.model.MediaType;
 import org.example.model.User;
 import org.example.repository.MediaRepository;
+import org.example.repository.MediaRepository.DeletedMedia;
+import org.example.repository.MediaRepository.ViewerAnnotation;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // Business Logic Layer für Media-Management
 // Verwaltet CRUD-Operationen für Media-Einträge
 public class MediaService {
     private final MediaRepository mediaRepository;
+    private final List<MediaListener> listeners = new CopyOnWriteArrayList<>();
 
     // Constructor
     public MediaService(MediaRepository mediaRepository) {
         this.mediaRepository = mediaRepository;
     }
 
+    // Registriert Listener für Media-Änderungen (z.B. In-Memory Indexe)
+    public void addListener(MediaListener listener) {
+        listeners.add(listener);
+    }
+
     // Erstellt neuen Media-Eintrag (nur für eingeloggte User)
     public MediaEntry createMedia(MediaEntry media, User creator) {
 
@@ -33,6 +44,10 @@ public class MediaService {
         media.setCreator(creator.getUsername());
         int id = mediaRepository.save(media);  // Speichert in DB und gibt ID zurück
         media.setId(id);
+
+        for (MediaListener listener : listeners) {
+            listener.onMediaCreated(media);
+        }
         return media;
     }
 
@@ -53,6 +68,10 @@ public class MediaService {
         updatedMedia.setId(id);
         updatedMedia.setCreator(existing.getCreator());
         mediaRepository.update(updatedMedia);
+
+        for (MediaListener listener : listeners) {
+            listener.onMediaSaved(updatedMedia);
+        }
         return updatedMedia;
     }
 
@@ -69,7 +88,11 @@ public class MediaService {
             throw new IllegalArgumentException("You can only delete your own media entries");
         }
 
-        mediaRepository.delete(id);
+        DeletedMedia removed = mediaRepository.delete(id);
+
+        for (MediaListener listener : listeners) {
+            listener.onMediaDeleted(id, removed);
+        }
     }
 
     // Lädt einzelnen Media-Eintrag nach ID
@@ -77,6 +100,20 @@ public class MediaService {
         return mediaRepository.findById(id);
     }
 
+    // Rating-Statistik (Durchschnitt, Anzahl, Sterne-Histogramme) aus den gepflegten Aggregaten
+    public Optional<Map<String, Object>> getRatingStats(int id) {
+        return mediaRepository.getRatingStats(id);
+    }
+
+    // Favoriten-Status und eigene Sterne des Users für die angezeigten Media (ein Query pro Liste)
+    public Map<Integer, ViewerAnnotation> getViewerAnnotations(String username, List<MediaEntry> media) {
+        List<Integer> mediaIds = new ArrayList<>(media.size());
+        for (MediaEntry entry : media) {
+            mediaIds.add(entry.getId());
+        }
+        return mediaRepository.getViewerAnnotations(username, mediaIds);
+    }
+
     // Lädt alle Media-Einträge
     public List<MediaEntry> getAllMedia() {
         return mediaRepository.findAll();
@@ -0,0 +1,156 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.repository.MediaRepository;
+import org.example.util.AppConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Service für globale und genre-spezifische Top-Listen (Cold-Start Fallback für Empfehlungen)
+// Ranking = Bayes-gewichteter Durchschnitt: (n * avg + m * C) / (n + m)
+// n = Anzahl bestätigter Ratings, C = globaler Durchschnitt, m = Prior-Gewicht
+// Listen werden periodisch im Hintergrund neu berechnet, Reads laufen ohne SQL
+public class PopularityService {
+    static final int TOP_N = 100;  // So viele Media werden pro Liste gehalten
+
+    private final MediaCatalog catalog;
+    private final MediaRepository mediaRepository;
+    private final double priorWeight;
+    private ScheduledExecutorService scheduler;
+
+    // Unveränderlicher Stand der Listen, wird bei jedem Refresh komplett ersetzt
+    private volatile Snapshot snapshot = new Snapshot(List.of(), Map.of());
+
+    private record Snapshot(List<Popular> global, Map<String, List<Popular>> byGenre) {
+    }
+
+    private record Popular(int mediaId, double score, double averageRating, int ratingCount) {
+    }
+
+    public PopularityService(MediaCatalog catalog, MediaRepository mediaRepository) {
+        this.catalog = catalog;
+        this.mediaRepository = mediaRepository;
+        this.priorWeight = AppConfig.getInt("recommendations.popular.prior-weight", 5);
+    }
+
+    // Berechnet alle Listen neu (1 Query auf media_entries, Anzahl und Durchschnitt sind dort gepflegt)
+    public void refresh() {
+        List<MediaEntry> media = mediaRepository.findAll();
+
+        double weightedSum = 0.0;
+        long totalCount = 0;
+        for (MediaEntry entry : media) {
+            int count = entry.getConfirmedCount();
+            weightedSum += entry.getAverageScore() * count;
+            totalCount += count;
+        }
+        double globalMean = totalCount == 0 ? 0.0 : weightedSum / totalCount;
+
+        List<Popular> ranked = new ArrayList<>();
+        Map<Integer, MediaEntry> byId = new HashMap<>();
+        for (MediaEntry entry : media) {
+            int count = entry.getConfirmedCount();
+            if (count == 0) {
+                continue;  // Ohne bestätigte Ratings kein Popularitäts-Signal
+            }
+            double score = (count * entry.getAverageScore() + priorWeight * globalMean) / (count + priorWeight);
+            ranked.add(new Popular(entry.getId(), score, entry.getAverageScore(), count));
+            byId.put(entry.getId(), entry);
+        }
+        ranked.sort(Comparator.comparingDouble(Popular::score).reversed()
+                .thenComparing(Comparator.comparingInt(Popular::ratingCount).reversed())
+                .thenComparingInt(Popular::mediaId));
+
+        Map<String, List<Popular>> byGenre = new HashMap<>();
+        for (Popular popular : ranked) {  // Bereits sortiert -> Genre-Listen bleiben sortiert
+            for (String genre : MediaCatalog.normalizeGenres(byId.get(popular.mediaId()).getGenres())) {
+                List<Popular> list = byGenre.computeIfAbsent(genre, g -> new ArrayList<>());
+                if (list.size() < TOP_N) {
+                    list.add(popular);
+                }
+            }
+        }
+        byGenre.replaceAll((genre, list) -> List.copyOf(list));
+        snapshot = new Snapshot(List.copyOf(ranked.subList(0, Math.min(TOP_N, ranked.size()))), Map.copyOf(byGenre));
+    }
+
+    // Startet den periodischen Refresh (Intervall aus application.properties)
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        long interval = AppConfig.getLong("recommendations.popular.refresh-seconds", 300);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "popularity-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {  // Alter Stand bleibt gültig, nächster Versuch im nächsten Intervall
+                System.err.println("Popularity refresh failed: " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Beliebteste Media: zuerst aus den bevorzugten Genres, danach aus der globalen Liste aufgefüllt
+    // exclude = Media die nicht vorkommen sollen (z.B. schon bewertet)
+    public List<Map<String, Object>> getPopular(Collection<String> genres, Set<Integer> exclude, int limit) {
+        Snapshot current = snapshot;
+
+        List<Popular> preferred = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (String genre : genres) {
+            for (Popular popular : current.byGenre().getOrDefault(genre, List.of())) {
+                if (seen.add(popular.mediaId())) {
+                    preferred.add(popular);
+                }
+            }
+        }
+        preferred.sort(Comparator.comparingDouble(Popular::score).reversed().thenComparingInt(Popular::mediaId));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        Set<Integer> added = new HashSet<>();
+        addAll(result, added, preferred, exclude, limit);
+        addAll(result, added, current.global(), exclude, limit);
+        return result;
+    }
+
+    private void addAll(List<Map<String, Object>> result, Set<Integer> added, List<Popular> source,
+                        Set<Integer> exclude, int limit) {
+        for (Popular popular : source) {
+            if (result.size() >= limit) {
+                return;
+            }
+            if (exclude.contains(popular.mediaId()) || added.contains(popular.mediaId())) {
+                continue;
+            }
+            MediaCatalog.MediaInfo info = catalog.get(popular.mediaId());
+            if (info == null) {
+                continue;  // Seit dem letzten Refresh gelöscht
+            }
+            Map<String, Object> entry = catalog.toEntry(info);
+            entry.put("averageRating", popular.averageRating());
+            result.add(entry);
+            added.add(popular.mediaId());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.service;
+
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Periodischer Abgleich der Rating-Aggregate (confirmed_count/confirmed_sum/average_rating) pro Media
+// Die Aggregate werden bei jedem Rating-Write per Delta gepflegt; der Abgleich korrigiert Drift
+// (z.B. manuelle DB-Änderungen) und füllt beim ersten Start die neuen Spalten bestehender Media
+// Gleicht im selben Lauf favorite_count ab (gelöschte User entfernen Favoriten per CASCADE ohne Delta)
+public class RatingAggregateRepairService {
+    private final MediaRepository mediaRepository;
+    private final RatingRepository ratingRepository;
+    private ScheduledExecutorService scheduler;
+
+    public RatingAggregateRepairService(MediaRepository mediaRepository, RatingRepository ratingRepository) {
+        this.mediaRepository = mediaRepository;
+        this.ratingRepository = ratingRepository;
+    }
+
+    // Gleicht alle Media einmal ab und gibt die Anzahl korrigierter Aggregate zurück
+    // Write-Behind ist währenddessen ausgesetzt (Rating-Writes passen die Aggregate inline unter der Zeilensperre an)
+    // und vorher gesammelte Deltas werden geschrieben, sonst würden sie nach dem Abgleich doppelt zählen
+    public int repair() {
+        ratingRepository.suspendAggregateWriteBehind();
+        try {
+            ratingRepository.flushAggregates();
+            int repaired = mediaRepository.repairRatingAggregates();
+            if (repaired > 0) {
+                System.out.println("Repaired rating aggregates of " + repaired + " media");
+            }
+            int favorites = mediaRepository.repairFavoriteCounts();
+            if (favorites > 0) {
+                System.out.println("Repaired favorite counts of " + favorites + " media");
+            }
+            return repaired + favorites;
+        } finally {
+            ratingRepository.resumeAggregateWriteBehind();
+        }
+    }
+
+    // Startet den periodischen Abgleich (Intervall aus application.properties, 0 = deaktiviert)
+    public synchronized void start() {
+        long interval = AppConfig.getLong("media.aggregates.repair-seconds", 3600);
+        if (scheduler != null || interval <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rating-aggregate-repair");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                repair();
+            } catch (RuntimeException e) {  // Nächster Versuch im nächsten Intervall
+                System.err.println("Rating aggregate repair failed: " + e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.service;
+
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Write-Behind für die Rating-Aggregate der Media (Durchschnitt, Anzahl, Sterne-Histogramme)
+// Statt bei jedem Rating-Write die Zeile in media_entries zu sperren, sammelt das Repository die Deltas pro Media;
+// dieser Service schreibt sie höchstens einmal pro Intervall (ein UPDATE pro Media, egal wie viele Ratings)
+// Staleness der Aggregate ist durch das Intervall begrenzt, beim Stoppen wird alles geschrieben
+public class RatingAggregateWriteBehindService {
+    private final RatingRepository ratingRepository;
+    private ScheduledExecutorService scheduler;
+
+    public RatingAggregateWriteBehindService(RatingRepository ratingRepository) {
+        this.ratingRepository = ratingRepository;
+    }
+
+    // Aktiviert Write-Behind (Intervall aus application.properties, 0 = Aggregate synchron im Rating-Write)
+    public synchronized void start() {
+        long interval = AppConfig.getLong("media.aggregates.flush-millis", 1000);
+        if (scheduler != null || interval <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rating-aggregate-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ratingRepository.setAggregateWriteBehind(true);
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Schreibt alle gesammelten Deltas sofort
+    public void flush() {
+        try {
+            ratingRepository.flushAggregates();
+        } catch (RuntimeException e) {  // Deltas bleiben gesammelt, nächster Versuch im nächsten Intervall
+            System.err.println("Rating aggregate flush failed: " + e.getMessage());
+        }
+    }
+
+    // Stoppt den Hintergrund-Flush, schaltet auf synchrone Updates zurück und schreibt die restlichen Deltas
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);  // Laufenden Flush abwarten
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        ratingRepository.setAggregateWriteBehind(false);
+        flush();
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.service;
+
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+import org.example.util.BloomFilter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-Memory Index "hat User X Rating Y schon geliked?" (Quelle der Wahrheit bleibt rating_likes)
+// Vorne ein Bloom-Filter über alle (ratingId, username) Paare: "sicher nicht geliked" ohne DB-Zugriff;
+// nur bei "vielleicht" wird die exakte Liker-Menge des Ratings geprüft (einmal aus der DB geladen, LRU-Cache)
+// Unlike entfernt nur aus der exakten Menge (Bloom-Filter kann nicht löschen -> führt danach nur zum exakten Check)
+public class RatingLikeIndex {
+    private static final int MIN_CAPACITY = 100_000;
+
+    private final RatingRepository ratingRepository;
+    private final double falsePositiveRate;
+    private final int cacheSize;
+    private volatile BloomFilter filter;
+    private final Map<Integer, Set<String>> likers;  // ratingId -> exakte Liker-Menge (nur zuletzt benutzte Ratings)
+    private final AtomicLong changeGeneration = new AtomicLong();  // Verhindert Cachen veralteter Mengen nach Like/Unlike
+
+    // Metriken
+    private final AtomicLong filterNegatives = new AtomicLong();
+    private final AtomicLong exactChecks = new AtomicLong();
+    private final AtomicLong exactLoads = new AtomicLong();
+    private final AtomicLong duplicatesRejected = new AtomicLong();
+
+    public RatingLikeIndex(RatingRepository ratingRepository) {
+        this.ratingRepository = ratingRepository;
+        this.falsePositiveRate = Double.parseDouble(AppConfig.getString("ratings.likes.bloom-fpp", "0.01"));
+        this.cacheSize = AppConfig.getInt("ratings.likes.cache-ratings", 10_000);
+        this.filter = new BloomFilter(MIN_CAPACITY, falsePositiveRate);
+        this.likers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Set<String>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Baut den Bloom-Filter aus allen gespeicherten Likes neu auf (beim Server-Start)
+    // Kapazität = doppelte aktuelle Anzahl -> Fehlerrate bleibt auch bei weiterem Wachstum lange niedrig
+    public void rebuild() {
+        long count = ratingRepository.countLikes();
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, count * 2), falsePositiveRate);
+        ratingRepository.forEachLike((ratingId, username) -> rebuilt.put(key(ratingId, username)));
+        filter = rebuilt;
+        synchronized (likers) {
+            likers.clear();
+        }
+    }
+
+    // true wenn der User das Rating bereits geliked hat
+    public boolean hasLiked(int ratingId, String username) {
+        if (!filter.mightContain(key(ratingId, username))) {
+            filterNegatives.incrementAndGet();
+            return false;
+        }
+        exactChecks.incrementAndGet();
+        return likersOf(ratingId).contains(username);
+    }
+
+    // Nach erfolgreichem Insert in rating_likes
+    // Zählt die Generation hoch: ein parallel laufender Ladevorgang hat das Like evtl. nicht gesehen
+    public void markLiked(int ratingId, String username) {
+        filter.put(key(ratingId, username));
+        changeGeneration.incrementAndGet();
+        synchronized (likers) {
+            Set<String> set = likers.get(ratingId);
+            if (set != null) {
+                set.add(username);
+            }
+        }
+    }
+
+    // Nach erfolgreichem Delete aus rating_likes
+    public void markUnliked(int ratingId, String username) {
+        changeGeneration.incrementAndGet();
+        synchronized (likers) {
+            Set<String> set = likers.get(ratingId);
+            if (set != null) {
+                set.remove(username);
+            }
+        }
+    }
+
+    // Ein doppeltes Like wurde abgewiesen (für Metriken)
+    public void recordDuplicate() {
+        duplicatesRejected.incrementAndGet();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("filterNegatives", filterNegatives.get());
+        metrics.put("exactChecks", exactChecks.get());
+        metrics.put("exactLoads", exactLoads.get());
+        metrics.put("duplicatesRejected", duplicatesRejected.get());
+        synchronized (likers) {
+            metrics.put("cachedRatings", likers.size());
+        }
+        metrics.put("filterBits", filter.bitCount());
+        metrics.put("filterFalsePositiveRate", filter.expectedFalsePositiveRate());
+        return metrics;
+    }
+
+    // Exakte Liker-Menge eines Ratings, bei Bedarf aus der DB geladen (außerhalb des Locks)
+    private Set<String> likersOf(int ratingId) {
+        synchronized (likers) {
+            Set<String> set = likers.get(ratingId);
+            if (set != null) {
+                return set;
+            }
+        }
+        long generation = changeGeneration.get();
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        loaded.addAll(ratingRepository.getLikers(ratingId));
+        exactLoads.incrementAndGet();
+        synchronized (likers) {
+            Set<String> existing = likers.get(ratingId);
+            if (existing != null) {
+                return existing;
+            }
+            if (generation == changeGeneration.get()) {  // Zwischenzeitliches Like/Unlike -> nicht cachen
+                likers.put(ratingId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private static String key(int ratingId, String username) {
+        return ratingId + ":" + username;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.service;
+
+import org.example.model.Rating;
+
+// Listener für Rating-Änderungen
+// In-Memory Indexe (z.B. Similar Media) werden darüber inkrementell aktuell gehalten
+public interface RatingListener {
+
+    // Rating wurde erstellt oder geändert (previous = null bei neuem Rating)
+    // Auch bei Bestätigung und Kommentar-Änderung (confirmed wechselt zwischen previous und current)
+    default void onRatingSaved(Rating previous, Rating current) {
+    }
+
+    // Rating wurde gelöscht
+    default void onRatingDeleted(Rating rating) {
+    }
+
+    // Rating hat ein Like bekommen (rating = Stand nach dem Like)
+    default void onRatingLiked(Rating rating) {
+    }
+
+    // Like wurde zurückgenommen (rating = Stand nach dem Unlike)
+    default void onRatingUnliked(Rating rating) {
+    }
+}
@@ -1,27 +1,57 @@
 package org.example.service;
 
 import org.example.model.Rating;
-import org.example.repository.MediaRepository;
 import org.example.repository.RatingRepository;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 // Business Logic Layer für Rating-Management
 // Verwaltet Bewertungen von Media durch User
 public class RatingService {
+    static final int MAX_CONFIRM_BATCH = 10_000;
+    static final int MAX_PENDING_LIMIT = 500;
+    static final int MAX_TOP_LIMIT = 100;
+    static final int MAX_COMMENT_BATCH = 100;
 
     private final RatingRepository ratingRepository;
-    private final MediaRepository mediaRepository;
+    private final LikeCounterService likeCounter;
+    private final RatingLikeIndex likeIndex;
+    private final CommentScreeningService commentScreening;
+    private final TopRatingsCache topRatings;
+    private final List<RatingListener> listeners = new CopyOnWriteArrayList<>();
 
     // Constructor
-    public RatingService(RatingRepository ratingRepository, MediaRepository mediaRepository) {
+    public RatingService(RatingRepository ratingRepository, LikeCounterService likeCounter, RatingLikeIndex likeIndex,
+                         CommentScreeningService commentScreening) {
         this.ratingRepository = ratingRepository;
-        this.mediaRepository = mediaRepository;
+        this.likeCounter = likeCounter;
+        this.likeIndex = likeIndex;
+        this.commentScreening = commentScreening;
+        this.topRatings = new TopRatingsCache(ratingRepository, likeCounter);
+        listeners.add(topRatings);  // Erste Seite wird bei Likes/Änderungen/Löschen aktualisiert oder verworfen
+    }
+
+    // Constructor ohne Kommentar-Vorprüfung (alle Ratings gehen in die manuelle Moderation)
+    public RatingService(RatingRepository ratingRepository, LikeCounterService likeCounter, RatingLikeIndex likeIndex) {
+        this(ratingRepository, likeCounter, likeIndex, new CommentScreeningService(null, 0));
+    }
+
+    // Constructor ohne Like-Puffer und ohne vorgeladenen Like-Index (Duplikate erkennt dann die DB)
+    public RatingService(RatingRepository ratingRepository) {
+        this(ratingRepository, new LikeCounterService(ratingRepository), new RatingLikeIndex(ratingRepository));
     }
 
     // Default Constructor
     public RatingService() {
-        this(new RatingRepository(), new MediaRepository());
+        this(new RatingRepository());
+    }
+
+    // Registriert Listener für Rating-Änderungen (z.B. In-Memory Indexe)
+    public void addListener(RatingListener listener) {
+        listeners.add(listener);
     }
 
     // Erstellt oder aktualisiert Rating für Media-Eintrag
@@ -33,37 +63,23 @@ public class RatingService {
             throw new IllegalArgumentException("Stars must be between 1 and 5");
         }
 
-        // Prüft ob Rating bereits existiert
-        Rating existingRating = ratingRepository.getRatingByMediaAndUser(mediaId, username);
-
-        Rating rating = new Rating();
-        rating.setMediaId(mediaId);
-        rating.setUsername(username);
-        rating.setStars(stars);
-        rating.setComment(comment);
-        rating.setConfirmed(false); // Neue Kommentare benötigen Moderation
-        rating.setLikes(0);
+        // Ein Statement: Upsert + Delta auf die Aggregate des Media, liefert alten und neuen Stand
+        // Vorprüfung entscheidet über confirmed; ohne Wörterbuch benötigen neue Ratings Moderation
+        // und bestehende behalten ihren Status (Likes bleiben immer erhalten)
+        RatingRepository.RatingUpsert upsert = ratingRepository.upsertRating(mediaId, username, stars, comment,
+                autoConfirm(mediaId, username, comment));
+        Rating rating = likeCounter.withPending(upsert.current());
 
-        if (existingRating != null) {
-            // Aktualisiert bestehendes Rating
-            rating.setId(existingRating.getId());
-            rating.setLikes(existingRating.getLikes()); // Behält bestehende Likes
-            ratingRepository.updateRating(existingRating.getId(), stars, comment);
-            rating = ratingRepository.getRatingById(existingRating.getId());
-        } else {
-            // Erstellt neues Rating
-            rating = ratingRepository.createRating(rating);
+        for (RatingListener listener : listeners) {
+            listener.onRatingSaved(upsert.previous(), rating);
         }
 
-        // Berechnet und aktualisiert durchschnittliche Bewertung für das Media
-        updateMediaAverageRating(mediaId);
-
         return rating;
     }
 
     // Löscht ein Rating. Nur der Owner kann sein Rating löschen
     public boolean deleteRating(int ratingId, String username) {
-        Rating rating = ratingRepository.getRatingById(ratingId);
+        Rating rating = getRatingById(ratingId);  // Mit gepufferten Likes, sonst ziehen Listener zu wenige ab
 
         if (rating == null) {
             return false;
@@ -77,8 +93,9 @@ public class RatingService {
         boolean deleted = ratingRepository.deleteRating(ratingId);
 
         if (deleted) {
-            // Berechnet durchschnittliche Bewertung nach Löschung neu
-            updateMediaAverageRating(rating.getMediaId());
+            for (RatingListener listener : listeners) {
+                listener.onRatingDeleted(rating);
+            }
         }
 
         return deleted;
@@ -86,7 +103,7 @@ public class RatingService {
 
     // Aktualisiert nur den Kommentar eines Ratings (nur Owner)
     public boolean updateComment(int ratingId, String username, String newComment) {
-        Rating rating = ratingRepository.getRatingById(ratingId);
+        Rating rating = getRatingById(ratingId);
 
         if (rating == null) {
             return false;
@@ -97,12 +114,18 @@ public class RatingService {
             throw new SecurityException("You can only update your own comments");
         }
 
-        return ratingRepository.updateComment(ratingId, newComment);
+        // Geänderter Kommentar wird erneut moderiert, außer die Vorprüfung findet nichts
+        boolean confirmed = Boolean.TRUE.equals(autoConfirm(rating.getMediaId(), username, newComment));
+        boolean updated = ratingRepository.updateComment(ratingId, newComment, confirmed);
+        if (updated) {
+            fireCommentChanged(rating, newComment, confirmed);
+        }
+        return updated;
     }
 
     // Löscht nur den Kommentar eines Ratings (behält die Stars, nur Owner)
     public boolean deleteComment(int ratingId, String username) {
-        Rating rating = ratingRepository.getRatingById(ratingId);
+        Rating rating = getRatingById(ratingId);
 
         if (rating == null) {
             return false;
@@ -114,60 +137,189 @@ public class RatingService {
         }
 
         // Löscht Kommentar durch Setzen auf leeren String
-        return ratingRepository.updateComment(ratingId, "");
+        boolean confirmed = Boolean.TRUE.equals(autoConfirm(rating.getMediaId(), username, ""));
+        boolean updated = ratingRepository.updateComment(ratingId, "", confirmed);
+        if (updated) {
+            fireCommentChanged(rating, "", confirmed);
+        }
+        return updated;
     }
 
-    // Liked ein Rating (erhöht Like-Counter)
-    public boolean likeRating(int ratingId) {
-        return ratingRepository.incrementLikes(ratingId);
+    // Liked ein Rating (ein Like pro User, Like-Counter gepuffert über LikeCounterService)
+    // Gibt den Stand nach dem Like zurück, null wenn das Rating nicht existiert
+    // Doppelte Likes werden über den In-Memory Index ohne DB-Zugriff abgewiesen (IllegalStateException)
+    public Rating likeRating(int ratingId, String username) {
+        if (likeIndex.hasLiked(ratingId, username)) {
+            likeIndex.recordDuplicate();
+            throw new IllegalStateException("Rating already liked");
+        }
+        Rating rating = getRatingById(ratingId);
+        if (rating == null) {
+            return null;
+        }
+        if (!ratingRepository.addLike(ratingId, username)) {
+            // Gleichzeitiges Like desselben Users (oder Index noch nicht geladen) -> DB hat es erkannt
+            likeIndex.markLiked(ratingId, username);
+            likeIndex.recordDuplicate();
+            throw new IllegalStateException("Rating already liked");
+        }
+        likeIndex.markLiked(ratingId, username);
+        likeCounter.increment(ratingId);
+        rating.setLikes(rating.getLikes() + 1);
+        for (RatingListener listener : listeners) {
+            listener.onRatingLiked(rating);
+        }
+        return rating;
+    }
+
+    // Nimmt das Like eines Users zurück; null wenn das Rating nicht existiert
+    // IllegalStateException wenn der User das Rating nicht geliked hat (meist ohne DB-Zugriff erkannt)
+    public Rating unlikeRating(int ratingId, String username) {
+        if (!likeIndex.hasLiked(ratingId, username)) {
+            throw new IllegalStateException("Rating not liked");
+        }
+        Rating rating = getRatingById(ratingId);
+        if (rating == null) {
+            return null;
+        }
+        if (!ratingRepository.removeLike(ratingId, username)) {
+            throw new IllegalStateException("Rating not liked");
+        }
+        likeIndex.markUnliked(ratingId, username);
+        likeCounter.decrement(ratingId);
+        rating.setLikes(rating.getLikes() - 1);
+        for (RatingListener listener : listeners) {
+            listener.onRatingUnliked(rating);
+        }
+        return rating;
     }
 
     // Bestätigt ein Rating (Moderation - setzt confirmed=true)
-    // Nur bestätigte Ratings werden für Durchschnitt verwendet
+    // Nur bestätigte Ratings werden für Durchschnitt verwendet (Repository zählt sie in die Aggregate des Media)
     public boolean confirmRating(int ratingId) {
-        boolean confirmed = ratingRepository.confirmRating(ratingId);
-
-        if (confirmed) {
-            // Berechnet Durchschnitt neu da bestätigte Ratings den Durchschnitt beeinflussen
-            Rating rating = ratingRepository.getRatingById(ratingId);
-            if (rating != null) {
-                updateMediaAverageRating(rating.getMediaId());
-            }
+        List<Rating> confirmed = ratingRepository.confirmRatings(List.of(ratingId));
+        if (confirmed.isEmpty()) {
+            // Nichts geändert: Rating war schon bestätigt (idempotent) oder existiert nicht
+            return ratingRepository.getRatingById(ratingId) != null;
         }
+        fireConfirmed(likeCounter.withPending(confirmed));
+        return true;
+    }
 
+    // Bestätigt bis zu MAX_CONFIRM_BATCH Ratings auf einmal (ein UPDATE, Aggregate einmal pro Media)
+    // Gibt die neu bestätigten Ratings zurück; bereits bestätigte oder unbekannte IDs werden ignoriert
+    public List<Rating> confirmRatings(List<Integer> ratingIds) {
+        if (ratingIds == null || ratingIds.isEmpty()) {
+            throw new IllegalArgumentException("No rating IDs given");
+        }
+        if (ratingIds.size() > MAX_CONFIRM_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_CONFIRM_BATCH + " ratings per batch");
+        }
+        List<Rating> confirmed = likeCounter.withPending(ratingRepository.confirmRatings(new LinkedHashSet<>(ratingIds)));
+        fireConfirmed(confirmed);
         return confirmed;
     }
 
+    // Moderations-Queue: unbestätigte Ratings nach afterId (älteste zuerst), limit 1..MAX_PENDING_LIMIT
+    public List<Rating> getPendingRatings(int afterId, int limit) {
+        if (limit < 1 || limit > MAX_PENDING_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PENDING_LIMIT);
+        }
+        return likeCounter.withPending(ratingRepository.getPendingRatings(Math.max(afterId, 0), limit));
+    }
+
     // Holt alle Ratings für ein spezifisches Media
     public List<Rating> getRatingsByMediaId(int mediaId) {
-        return ratingRepository.getRatingsByMediaId(mediaId);
+        return getRatingsByMediaId(mediaId, true);
+    }
+
+    // includeComments = false: schmale Zeilen ohne Kommentar (Kommentare bei Bedarf über getComments nachladen)
+    public List<Rating> getRatingsByMediaId(int mediaId, boolean includeComments) {
+        return likeCounter.withPending(ratingRepository.getRatingsByMediaId(mediaId, includeComments));
+    }
+
+    // Beste Ratings eines Media nach Likes (limit 1..MAX_TOP_LIMIT), erste Seite aus dem Cache
+    public List<Rating> getTopRatings(int mediaId, int limit) {
+        if (limit < 1 || limit > MAX_TOP_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_TOP_LIMIT);
+        }
+        return topRatings.getTopRatings(mediaId, limit);
     }
 
     // Holt nur bestätigte Ratings für ein spezifisches Media
     public List<Rating> getConfirmedRatingsByMediaId(int mediaId) {
-        return ratingRepository.getConfirmedRatingsByMediaId(mediaId);
+        return likeCounter.withPending(ratingRepository.getConfirmedRatingsByMediaId(mediaId, true));
     }
 
     // Holt Rating-Historie für einen User
     public List<Rating> getRatingHistory(String username) {
-        return ratingRepository.getRatingsByUser(username);
+        return getRatingHistory(username, true);
+    }
+
+    // includeComments = false: schmale Zeilen ohne Kommentar
+    public List<Rating> getRatingHistory(String username, boolean includeComments) {
+        return likeCounter.withPending(ratingRepository.getRatingsByUser(username, includeComments));
+    }
+
+    // Kommentare mehrerer Ratings in einem Query nachladen (bis MAX_COMMENT_BATCH IDs), ratingId -> Kommentar
+    public Map<Integer, String> getComments(List<Integer> ratingIds) {
+        if (ratingIds == null || ratingIds.isEmpty()) {
+            throw new IllegalArgumentException("No rating IDs given");
+        }
+        if (ratingIds.size() > MAX_COMMENT_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_COMMENT_BATCH + " ratings per request");
+        }
+        return ratingRepository.getComments(new LinkedHashSet<>(ratingIds));
     }
 
     // Holt ein spezifisches Rating nach ID
     public Rating getRatingById(int ratingId) {
-        return ratingRepository.getRatingById(ratingId);
+        return likeCounter.withPending(ratingRepository.getRatingById(ratingId));
     }
 
     // Prüft ob ein User bereits ein Media bewertet hat
     public Rating getUserRatingForMedia(int mediaId, String username) {
-        return ratingRepository.getRatingByMediaAndUser(mediaId, username);
+        return likeCounter.withPending(ratingRepository.getRatingByMediaAndUser(mediaId, username));
     }
 
-    // Berechnet und aktualisiert die durchschnittliche Bewertung für einen Media-Eintrag
-    // Nur bestätigte Ratings sind im Durchschnitt enthalten
-    // Private weil nur intern verwendet
-    private void updateMediaAverageRating(int mediaId) {
-        double avgRating = ratingRepository.getAverageRating(mediaId);
-        mediaRepository.updateAverageRating(mediaId, avgRating);
+    // Vorheriger Stand unterscheidet sich nur in confirmed (Repository bestätigt nur unbestätigte Ratings)
+    private void fireConfirmed(List<Rating> confirmed) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (Rating rating : confirmed) {
+            Rating previous = new Rating(rating.getId(), rating.getMediaId(), rating.getUsername(),
+                    rating.getStars(), rating.getComment());
+            previous.setTimestamp(rating.getTimestamp());
+            previous.setLikes(rating.getLikes());
+            previous.setConfirmed(false);
+            for (RatingListener listener : listeners) {
+                listener.onRatingSaved(previous, rating);
+            }
+        }
+    }
+
+    // Ergebnis der Kommentar-Vorprüfung als confirmed-Status: true = sauber, false = markiert, null = nicht geprüft
+    private Boolean autoConfirm(int mediaId, String username, String comment) {
+        return switch (commentScreening.screen(mediaId, username, comment)) {
+            case CLEAN -> true;
+            case FLAGGED, DUPLICATE -> false;
+            case UNSCREENED -> null;
+        };
+    }
+
+    // Kommentar-Änderung setzt confirmed neu (Vorprüfung oder erneute Moderation) -> Listener bekommen den neuen Stand
+    private void fireCommentChanged(Rating previous, String comment, boolean confirmed) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Rating current = new Rating(previous.getId(), previous.getMediaId(), previous.getUsername(),
+                previous.getStars(), comment);
+        current.setTimestamp(previous.getTimestamp());
+        current.setLikes(previous.getLikes());
+        current.setConfirmed(confirmed);
+        for (RatingListener listener : listeners) {
+            listener.onRatingSaved(previous, current);
+        }
     }
 }
@@ -1,23 +1,214 @@
 package org.example.service;
 
+import org.example.model.MediaEntry;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
 import org.example.repository.UserRepository;
+import org.example.util.AppConfig;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 // Service für Empfehlungen basierend auf User-Ratings
 public class RecommendationService {
+    static final int BATCH_CHUNK_SIZE = 1000;  // So viele User werden pro Rating-Query gemeinsam geladen
+    private static final int HIGH_RATING = 4;
+
     private final UserRepository userRepository;
+    private final MediaRepository mediaRepository;
+    private final RatingRepository ratingRepository;
+    private final MediaCatalog catalog;
+    private final PopularityService popularityService;
+    private final CoOccurrenceService coOccurrenceService;
+    private final SimilarMediaService similarMediaService;
+    private final int minSignals;  // Unter so vielen hoch bewerteten Media wird mit beliebten Media aufgefüllt
 
-    public RecommendationService(UserRepository userRepository) {
+    public RecommendationService(UserRepository userRepository, MediaRepository mediaRepository,
+                                 RatingRepository ratingRepository, MediaCatalog catalog,
+                                 PopularityService popularityService, CoOccurrenceService coOccurrenceService,
+                                 SimilarMediaService similarMediaService) {
         this.userRepository = userRepository;
+        this.mediaRepository = mediaRepository;
+        this.ratingRepository = ratingRepository;
+        this.catalog = catalog;
+        this.popularityService = popularityService;
+        this.coOccurrenceService = coOccurrenceService;
+        this.similarMediaService = similarMediaService;
+        this.minSignals = AppConfig.getInt("recommendations.min-signals", 3);
     }
 
     // Gibt Empfehlungen basierend auf genre-Ähnlichkeit zu hoch bewerteten Media zurück
+    // User ohne hoch bewertete Media bekommen beliebte Media (rein In-Memory, kein SQL),
+    // User mit wenigen Signalen bekommen die personalisierten Ergebnisse mit beliebten Media aufgefüllt
     public List<Map<String, Object>> getRecommendations(String username, int limit) {
         if (limit <= 0) {
             throw new IllegalArgumentException("Limit must be greater than 0");
         }
-        return userRepository.getRecommendations(username, limit);
+        int[] likedMedia = coOccurrenceService.getHighRatedMedia(username);
+        if (likedMedia.length == 0) {
+            return popularityService.getPopular(Set.of(), similarMediaService.getRatedMedia(username), limit);
+        }
+
+        List<Map<String, Object>> recommendations = userRepository.getRecommendations(username, limit);
+        if (likedMedia.length >= minSignals || recommendations.size() >= limit) {
+            return recommendations;
+        }
+        List<Integer> liked = new ArrayList<>();
+        for (int mediaId : likedMedia) {
+            liked.add(mediaId);
+        }
+        return fillWithPopular(recommendations, similarMediaService.getRatedMedia(username), liked, limit);
+    }
+
+    // Empfehlungen für viele User auf einmal (z.B. Newsletter-Job)
+    // Kandidaten (alle Media nach Rating sortiert) werden einmal geladen und für alle User geteilt,
+    // Ratings werden pro Chunk mit einer Query geladen und die User parallel bewertet.
+    // Jedes Ergebnis ({username, recommendations}) wird sofort an sink übergeben (Reihenfolge wie usernames)
+    public void getRecommendationsBatch(List<String> usernames, int limit, Consumer<Map<String, Object>> sink) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (usernames == null || usernames.isEmpty()) {
+            throw new IllegalArgumentException("Usernames must not be empty");
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        Map<Integer, Candidate> candidatesById = new HashMap<>();  // Lookup der hoch bewerteten Media pro User
+        for (MediaEntry media : mediaRepository.findAllOrderedByRating()) {
+            Candidate candidate = new Candidate(media);
+            candidates.add(candidate);
+            candidatesById.put(candidate.id, candidate);
+        }
+
+        for (int start = 0; start < usernames.size(); start += BATCH_CHUNK_SIZE) {
+            List<String> chunk = usernames.subList(start, Math.min(start + BATCH_CHUNK_SIZE, usernames.size()));
+            Map<String, List<Rating>> ratingsByUser = ratingRepository.getRatingsByUsers(chunk);
+
+            // parallelStream + toList behält die Reihenfolge der Usernames bei
+            List<Map<String, Object>> results = chunk.parallelStream()
+                    .map(username -> {
+                        Map<String, Object> result = new HashMap<>();
+                        result.put("username", username);
+                        result.put("recommendations", recommendFromCandidates(candidates, candidatesById,
+                                ratingsByUser.getOrDefault(username, List.of()), limit));
+                        return result;
+                    })
+                    .toList();
+            results.forEach(sink);
+        }
+    }
+
+    // Gleiche Regel wie UserRepository.getRecommendations, aber in-memory auf geteilten Kandidaten:
+    // nicht bewertete Media, deren Genres das erste Genre eines hoch bewerteten Media enthalten (oder umgekehrt)
+    private List<Map<String, Object>> recommendFromCandidates(List<Candidate> candidates,
+                                                              Map<Integer, Candidate> candidatesById,
+                                                              List<Rating> ratings, int limit) {
+        Set<Integer> rated = new HashSet<>();
+        Set<String> likedFirstGenres = new LinkedHashSet<>();
+        Set<String> likedGenres = new LinkedHashSet<>();
+        Set<Integer> likedMedia = new HashSet<>();
+        for (Rating rating : ratings) {
+            rated.add(rating.getMediaId());
+            if (rating.getStars() >= HIGH_RATING) {
+                likedMedia.add(rating.getMediaId());
+            }
+        }
+        if (likedMedia.isEmpty()) {
+            return popularityService.getPopular(Set.of(), rated, limit);
+        }
+        for (int mediaId : likedMedia) {
+            Candidate liked = candidatesById.get(mediaId);
+            if (liked != null) {
+                likedFirstGenres.add(liked.firstGenre);
+                likedGenres.add(liked.genres);
+            }
+        }
+
+        List<Map<String, Object>> recommendations = new ArrayList<>();
+        for (Candidate candidate : candidates) {  // Bereits nach average_rating sortiert
+            if (recommendations.size() >= limit) {
+                break;
+            }
+            if (!rated.contains(candidate.id) && matches(candidate, likedFirstGenres, likedGenres)) {
+                recommendations.add(candidate.toEntry());
+            }
+        }
+        if (likedMedia.size() < minSignals && recommendations.size() < limit) {
+            return fillWithPopular(recommendations, rated, likedMedia, limit);
+        }
+        return recommendations;
+    }
+
+    // Füllt freie Plätze mit beliebten Media, bevorzugt aus den Genres der hoch bewerteten Media
+    private List<Map<String, Object>> fillWithPopular(List<Map<String, Object>> recommendations, Set<Integer> rated,
+                                                      Collection<Integer> likedMedia, int limit) {
+        Set<Integer> exclude = new HashSet<>(rated);
+        for (Map<String, Object> entry : recommendations) {
+            exclude.add((Integer) entry.get("id"));
+        }
+        Set<String> genres = new LinkedHashSet<>();
+        for (int mediaId : likedMedia) {
+            MediaCatalog.MediaInfo info = catalog.get(mediaId);
+            if (info != null) {
+                genres.addAll(info.genres());
+            }
+        }
+        List<Map<String, Object>> blended = new ArrayList<>(recommendations);
+        blended.addAll(popularityService.getPopular(genres, exclude, limit - recommendations.size()));
+        return blended;
+    }
+
+    private boolean matches(Candidate candidate, Set<String> likedFirstGenres, Set<String> likedGenres) {
+        if (candidate.genres == null) {
+            return false;
+        }
+        for (String firstGenre : likedFirstGenres) {
+            if (firstGenre != null && candidate.genres.contains(firstGenre)) {
+                return true;
+            }
+        }
+        for (String genres : likedGenres) {
+            if (genres != null && genres.contains(candidate.firstGenre)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Vorberechnete Sicht auf ein Media (wird von allen Usern eines Batches geteilt)
+    private static final class Candidate {
+        final int id;
+        final String title;
+        final String mediaType;
+        final String genres;  // Wie in der DB: "Action,Drama" (null wenn keine)
+        final String firstGenre;
+        final double averageRating;
+
+        Candidate(MediaEntry media) {
+            this.id = media.getId();
+            this.title = media.getTitle();
+            this.mediaType = media.getMediaType().name();
+            this.genres = media.getGenres().isEmpty() ? null : String.join(",", media.getGenres());
+            this.firstGenre = genres == null ? null : genres.split(",", -1)[0];
+            this.averageRating = media.getAverageScore();
+        }
+
+        Map<String, Object> toEntry() {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("id", id);
+            entry.put("title", title);
+            entry.put("mediaType", mediaType);
+            entry.put("genres", genres);
+            entry.put("averageRating", averageRating);
+            return entry;
+        }
     }
 }
@@ -0,0 +1,254 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Service für "More like this" (ähnliche Media zu einem Media)
+// Ähnlichkeit = Co-Ratings (User die beide Media bewertet haben) + Genre-Überschneidung
+// Nachbarn werden pro Media im Speicher gecacht und nur bei Änderungen neu berechnet (kein SQL pro Request)
+public class SimilarMediaService implements RatingListener, MediaListener {
+    static final int MAX_NEIGHBORS = 50;  // So viele Nachbarn werden pro Media gecacht
+    private static final double CO_RATING_WEIGHT = 0.7;
+    private static final double GENRE_WEIGHT = 0.3;
+
+    private final MediaCatalog catalog;
+    private final RatingRepository ratingRepository;
+
+    private final Map<Integer, Set<String>> genresByMedia = new HashMap<>();  // mediaId -> normalisierte Genres
+    private final Map<String, Set<Integer>> mediaByGenre = new HashMap<>();  // genre -> mediaIds
+    private final Map<Integer, Set<String>> ratersByMedia = new HashMap<>();  // mediaId -> usernames
+    private final Map<String, Set<Integer>> mediaByRater = new HashMap<>();  // username -> mediaIds
+    private final Map<Integer, List<Neighbor>> neighborCache = new HashMap<>();  // mediaId -> Top-Nachbarn
+    private final Set<Integer> dirty = new HashSet<>();  // Media deren Nachbarn neu berechnet werden müssen
+
+    public SimilarMediaService(MediaCatalog catalog, RatingRepository ratingRepository) {
+        this.catalog = catalog;
+        this.ratingRepository = ratingRepository;
+    }
+
+    // Lädt alle Ratings einmalig aus der DB (beim Server-Start, nachdem der Katalog geladen wurde)
+    public synchronized void rebuild() {
+        genresByMedia.clear();
+        mediaByGenre.clear();
+        ratersByMedia.clear();
+        mediaByRater.clear();
+        neighborCache.clear();
+        dirty.clear();
+
+        for (MediaCatalog.MediaInfo info : catalog.all()) {
+            putGenres(info.id(), info.genres());
+        }
+        for (Rating rating : ratingRepository.getAllRatings()) {
+            addRater(rating.getMediaId(), rating.getUsername());
+        }
+    }
+
+    // Gibt die ähnlichsten Media zurück (reiner In-Memory Read)
+    // Gibt null zurück wenn das Media nicht existiert
+    public synchronized List<Map<String, Object>> getSimilarMedia(int mediaId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (!genresByMedia.containsKey(mediaId)) {
+            return null;
+        }
+
+        List<Neighbor> neighbors = neighborCache.get(mediaId);
+        if (neighbors == null || dirty.remove(mediaId)) {
+            neighbors = computeNeighbors(mediaId);
+            neighborCache.put(mediaId, neighbors);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Neighbor neighbor : neighbors) {
+            if (result.size() >= limit) {
+                break;
+            }
+            MediaCatalog.MediaInfo info = catalog.get(neighbor.mediaId());
+            if (info == null) {
+                continue;
+            }
+            Map<String, Object> entry = catalog.toEntry(info);
+            entry.put("similarity", Math.round(neighbor.score() * 10000.0) / 10000.0);
+            result.add(entry);
+        }
+        return result;
+    }
+
+    // Alle vom User bewerteten Media (In-Memory, z.B. um Empfehlungen ohne SQL zu filtern)
+    public synchronized Set<Integer> getRatedMedia(String username) {
+        return new HashSet<>(mediaByRater.getOrDefault(username, Set.of()));
+    }
+
+    @Override
+    public synchronized void onRatingSaved(Rating previous, Rating current) {
+        if (previous == null) {  // Nur neue Ratings ändern die Co-Ratings (Stars spielen keine Rolle)
+            addRater(current.getMediaId(), current.getUsername());
+        }
+    }
+
+    @Override
+    public synchronized void onRatingDeleted(Rating rating) {
+        Set<String> raters = ratersByMedia.get(rating.getMediaId());
+        if (raters == null || !raters.remove(rating.getUsername())) {
+            return;
+        }
+        Set<Integer> rated = mediaByRater.get(rating.getUsername());
+        rated.remove(rating.getMediaId());
+        markAffected(rating.getMediaId(), rated);
+    }
+
+    @Override
+    public synchronized void onMediaSaved(MediaEntry entry) {
+        Set<String> oldGenres = genresByMedia.get(entry.getId());
+        if (oldGenres != null) {
+            removeFromGenres(entry.getId(), oldGenres);
+            markDirty(oldGenres);
+        }
+        Set<String> genres = MediaCatalog.normalizeGenres(entry.getGenres());
+        putGenres(entry.getId(), genres);
+        markDirty(genres);
+        dirty.add(entry.getId());
+    }
+
+    @Override
+    public synchronized void onMediaDeleted(int mediaId) {
+        Set<String> oldGenres = genresByMedia.remove(mediaId);
+        if (oldGenres == null) {
+            return;
+        }
+        removeFromGenres(mediaId, oldGenres);
+        markDirty(oldGenres);
+
+        // Ratings werden per CASCADE gelöscht -> Co-Ratings entfernen
+        Set<String> raters = ratersByMedia.remove(mediaId);
+        if (raters != null) {
+            for (String username : raters) {
+                Set<Integer> rated = mediaByRater.get(username);
+                rated.remove(mediaId);
+                dirty.addAll(rated);
+            }
+        }
+        neighborCache.remove(mediaId);
+        dirty.remove(mediaId);
+    }
+
+    // Berechnet Top-Nachbarn: Cosine über gemeinsame Rater + Jaccard über Genres
+    private List<Neighbor> computeNeighbors(int mediaId) {
+        Map<Integer, Integer> coRatings = new HashMap<>();  // mediaId -> Anzahl gemeinsamer Rater
+        for (String username : ratersByMedia.getOrDefault(mediaId, Set.of())) {
+            for (int other : mediaByRater.get(username)) {
+                if (other != mediaId) {
+                    coRatings.merge(other, 1, Integer::sum);
+                }
+            }
+        }
+
+        Set<String> genres = genresByMedia.get(mediaId);
+        Set<Integer> candidates = new HashSet<>(coRatings.keySet());
+        for (String genre : genres) {
+            candidates.addAll(mediaByGenre.getOrDefault(genre, Set.of()));
+        }
+        candidates.remove(mediaId);
+
+        int raterCount = ratersByMedia.getOrDefault(mediaId, Set.of()).size();
+        // Min-Heap mit fester Größe: hält nur die besten MAX_NEIGHBORS Kandidaten
+        PriorityQueue<Neighbor> heap = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::score));
+        for (int candidate : candidates) {
+            Set<String> otherGenres = genresByMedia.get(candidate);
+            if (otherGenres == null) {
+                continue;
+            }
+            double coRatingScore = 0.0;
+            Integer shared = coRatings.get(candidate);
+            if (shared != null) {
+                int otherCount = ratersByMedia.get(candidate).size();
+                coRatingScore = shared / Math.sqrt((double) raterCount * otherCount);
+            }
+            double score = CO_RATING_WEIGHT * coRatingScore + GENRE_WEIGHT * jaccard(genres, otherGenres);
+            if (score <= 0.0) {
+                continue;
+            }
+            heap.offer(new Neighbor(candidate, score));
+            if (heap.size() > MAX_NEIGHBORS) {
+                heap.poll();  // Entfernt schlechtesten Kandidaten
+            }
+        }
+
+        List<Neighbor> neighbors = new ArrayList<>(heap);
+        neighbors.sort(Comparator.comparingDouble(Neighbor::score).reversed()
+                .thenComparingInt(Neighbor::mediaId));
+        return neighbors;
+    }
+
+    private void addRater(int mediaId, String username) {
+        if (!genresByMedia.containsKey(mediaId)) {
+            return;
+        }
+        if (ratersByMedia.computeIfAbsent(mediaId, id -> new HashSet<>()).add(username)) {
+            Set<Integer> rated = mediaByRater.computeIfAbsent(username, u -> new HashSet<>());
+            rated.add(mediaId);
+            markAffected(mediaId, rated);
+        }
+    }
+
+    // Markiert das Media, alle Media mit gleichem Rater und die bisherigen Nachbarn als veraltet
+    private void markAffected(int mediaId, Set<Integer> ratedByUser) {
+        dirty.add(mediaId);
+        dirty.addAll(ratedByUser);
+        for (Neighbor neighbor : neighborCache.getOrDefault(mediaId, List.of())) {
+            dirty.add(neighbor.mediaId());
+        }
+    }
+
+    private void markDirty(Set<String> genres) {
+        for (String genre : genres) {
+            dirty.addAll(mediaByGenre.getOrDefault(genre, Set.of()));
+        }
+    }
+
+    private void putGenres(int mediaId, Set<String> genres) {
+        genresByMedia.put(mediaId, genres);
+        for (String genre : genres) {
+            mediaByGenre.computeIfAbsent(genre, g -> new HashSet<>()).add(mediaId);
+        }
+    }
+
+    private void removeFromGenres(int mediaId, Set<String> genres) {
+        for (String genre : genres) {
+            Set<Integer> ids = mediaByGenre.get(genre);
+            if (ids != null) {
+                ids.remove(mediaId);
+                if (ids.isEmpty()) {
+                    mediaByGenre.remove(genre);
+                }
+            }
+        }
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        int intersection = 0;
+        for (String genre : a) {
+            if (b.contains(genre)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private record Neighbor(int mediaId, double score) {
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+import org.example.util.RankedBoard;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Service für "beste Media" (GET /api/media/top)
+// Ranking = Bayes-Durchschnitt der bestätigten Ratings: (n * avg + m * C) / (n + m)
+// Pro Typ, Genre und Typ+Genre wird eine eigene sortierte Rangliste gepflegt;
+// Bestätigen/Löschen eines Ratings verschiebt nur das betroffene Media (O(log n) pro Liste)
+// C (globaler Durchschnitt) wird eingefroren und erst neu gesetzt wenn er um mehr als PRIOR_DRIFT abweicht
+public class TopMediaService implements RatingListener, MediaListener {
+    static final int MAX_LIMIT = 100;
+    private static final double PRIOR_DRIFT = 0.05;
+    private static final double SCORE_SCALE = 10_000.0;  // Ranglisten arbeiten mit Ganzzahlen
+    private static final String ALL = "all";
+
+    private final MediaCatalog catalog;
+    private final RatingRepository ratingRepository;
+    private final double priorWeight;
+
+    private final Map<Integer, long[]> stats = new HashMap<>();  // mediaId -> {Summe Sterne, Anzahl} (nur bestätigt)
+    private long totalSum;
+    private long totalCount;
+    private double priorMean;  // C, mit dem die aktuellen Scores berechnet wurden
+    private final Map<String, RankedBoard<Integer>> boards = new HashMap<>();  // "all", "type:MOVIE", "genre:drama", ...
+    private final Map<Integer, List<String>> boardKeys = new HashMap<>();  // mediaId -> Listen die es enthalten
+
+    public TopMediaService(MediaCatalog catalog, RatingRepository ratingRepository) {
+        this.catalog = catalog;
+        this.ratingRepository = ratingRepository;
+        this.priorWeight = AppConfig.getInt("media.top.prior-weight", 5);
+    }
+
+    // Lädt Summe und Anzahl bestätigter Ratings pro Media einmalig aus der DB (beim Server-Start)
+    public synchronized void rebuild() {
+        stats.clear();
+        stats.putAll(ratingRepository.getConfirmedRatingStats());
+        totalSum = 0;
+        totalCount = 0;
+        for (long[] entry : stats.values()) {
+            totalSum += entry[0];
+            totalCount += entry[1];
+        }
+        rerankAll();
+    }
+
+    // Beste Media, optional gefiltert nach Typ und/oder Genre
+    public synchronized List<Map<String, Object>> getTopMedia(String type, String genre, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String mediaType = null;
+        if (type != null && !type.isEmpty()) {
+            try {
+                mediaType = MediaType.valueOf(type.toUpperCase()).name();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid media type: " + type);
+            }
+        }
+        String normalizedGenre = genre == null || genre.trim().isEmpty() ? null : genre.trim().toLowerCase();
+
+        RankedBoard<Integer> board = boards.get(boardKey(mediaType, normalizedGenre));
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (board == null) {
+            return result;
+        }
+        for (RankedBoard.Entry<Integer> entry : board.range(0, limit)) {
+            MediaCatalog.MediaInfo info = catalog.get(entry.key());
+            long[] mediaStats = stats.get(entry.key());
+            Map<String, Object> item = catalog.toEntry(info);
+            item.put("rank", entry.rank());
+            item.put("averageRating", Math.round(mediaStats[0] * 100.0 / mediaStats[1]) / 100.0);
+            item.put("ratingCount", mediaStats[1]);
+            item.put("score", entry.score() / SCORE_SCALE);
+            result.add(item);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void onRatingSaved(Rating previous, Rating current) {
+        long sumDelta = 0;
+        long countDelta = 0;
+        if (previous != null && previous.isConfirmed()) {
+            sumDelta -= previous.getStars();
+            countDelta--;
+        }
+        if (current.isConfirmed()) {
+            sumDelta += current.getStars();
+            countDelta++;
+        }
+        if (sumDelta != 0 || countDelta != 0) {
+            apply(current.getMediaId(), sumDelta, countDelta);
+        }
+    }
+
+    @Override
+    public synchronized void onRatingDeleted(Rating rating) {
+        if (rating.isConfirmed()) {
+            apply(rating.getMediaId(), -rating.getStars(), -1);
+        }
+    }
+
+    @Override
+    public synchronized void onMediaSaved(MediaEntry media) {
+        reposition(media.getId());  // Typ oder Genres können sich geändert haben
+    }
+
+    @Override
+    public synchronized void onMediaDeleted(int mediaId) {
+        long[] removed = stats.remove(mediaId);
+        if (removed != null) {
+            totalSum -= removed[0];
+            totalCount -= removed[1];
+        }
+        removeFromBoards(mediaId);
+    }
+
+    private void apply(int mediaId, long sumDelta, long countDelta) {
+        long[] entry = stats.computeIfAbsent(mediaId, id -> new long[2]);
+        entry[0] += sumDelta;
+        entry[1] += countDelta;
+        if (entry[1] <= 0) {
+            stats.remove(mediaId);
+        }
+        totalSum += sumDelta;
+        totalCount += countDelta;
+
+        if (Math.abs(globalMean() - priorMean) > PRIOR_DRIFT) {
+            rerankAll();  // Seltener In-Memory Neuaufbau, kein SQL
+        } else {
+            reposition(mediaId);
+        }
+    }
+
+    private void rerankAll() {
+        priorMean = globalMean();
+        boards.clear();
+        boardKeys.clear();
+        for (int mediaId : stats.keySet()) {
+            reposition(mediaId);
+        }
+    }
+
+    // Entfernt das Media aus seinen bisherigen Listen und sortiert es mit aktuellem Score neu ein
+    private void reposition(int mediaId) {
+        removeFromBoards(mediaId);
+        long[] entry = stats.get(mediaId);
+        MediaCatalog.MediaInfo info = catalog.get(mediaId);
+        if (entry == null || info == null) {
+            return;
+        }
+        long score = Math.round(bayesian(entry[0], entry[1]) * SCORE_SCALE);
+        List<String> keys = new ArrayList<>();
+        keys.add(boardKey(null, null));
+        keys.add(boardKey(info.mediaType(), null));
+        for (String genre : info.genres()) {
+            keys.add(boardKey(null, genre));
+            keys.add(boardKey(info.mediaType(), genre));
+        }
+        for (String key : keys) {
+            boards.computeIfAbsent(key, k -> new RankedBoard<>()).put(mediaId, score);
+        }
+        boardKeys.put(mediaId, keys);
+    }
+
+    private void removeFromBoards(int mediaId) {
+        List<String> keys = boardKeys.remove(mediaId);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            RankedBoard<Integer> board = boards.get(key);
+            board.remove(mediaId);
+            if (board.size() == 0) {
+                boards.remove(key);
+            }
+        }
+    }
+
+    private double bayesian(long sum, long count) {
+        return (sum + priorWeight * priorMean) / (count + priorWeight);
+    }
+
+    private double globalMean() {
+        return totalCount == 0 ? 0.0 : (double) totalSum / totalCount;
+    }
+
+    private static String boardKey(String mediaType, String genre) {
+        if (mediaType == null && genre == null) {
+            return ALL;
+        }
+        if (genre == null) {
+            return "type:" + mediaType;
+        }
+        return mediaType == null ? "genre:" + genre : "type:" + mediaType + "|genre:" + genre;
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Cache der ersten Seite "Top-Kommentare nach Likes" pro Media (GET /api/media/{id}/ratings?sort=likes)
+// Gecacht werden die besten PAGE_SIZE Ratings der zuletzt abgefragten Media (LRU); kleinere Limits sind Teillisten
+// Likes verschieben Ratings direkt in der gecachten Seite (kein Query); neue, geänderte, bestätigte oder
+// gelöschte Ratings sowie Unlikes die ein Rating aus der vollen Seite fallen lassen könnten verwerfen die Seite
+// Seiten werden nie verändert, sondern ersetzt -> Leser bekommen immer einen konsistenten Stand
+public class TopRatingsCache implements RatingListener {
+    static final int PAGE_SIZE = 20;
+
+    // Gleiche Reihenfolge wie die DB-Abfrage: Likes absteigend, bei Gleichstand ältere ID zuerst
+    private static final Comparator<Rating> ORDER =
+            Comparator.comparingInt(Rating::getLikes).reversed().thenComparingInt(Rating::getId);
+
+    private final RatingRepository ratingRepository;
+    private final LikeCounterService likeCounter;
+    private final Map<Integer, Slot> slots;  // mediaId -> Seite (LRU, Zugriff nur unter Lock)
+
+    // version zählt jede Änderung am Media -> ein laufender Ladevorgang erkennt veraltete Ergebnisse
+    private static final class Slot {
+        List<Rating> page;  // null = nicht geladen oder verworfen
+        long version;
+    }
+
+    public TopRatingsCache(RatingRepository ratingRepository, LikeCounterService likeCounter) {
+        this.ratingRepository = ratingRepository;
+        this.likeCounter = likeCounter;
+        int cacheSize = AppConfig.getInt("ratings.top.cache-media", 1000);
+        this.slots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Slot> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Beste Ratings eines Media nach Likes; bis PAGE_SIZE aus dem Cache, größere Limits direkt aus der DB
+    public List<Rating> getTopRatings(int mediaId, int limit) {
+        if (limit > PAGE_SIZE) {
+            return loadTop(mediaId, limit);
+        }
+        Slot slot;
+        long version;
+        synchronized (slots) {
+            slot = slots.computeIfAbsent(mediaId, id -> new Slot());
+            if (slot.page != null) {
+                return slot.page.subList(0, Math.min(limit, slot.page.size()));
+            }
+            version = slot.version;
+        }
+
+        // Laden außerhalb des Locks
+        List<Rating> page = loadTop(mediaId, PAGE_SIZE);
+        synchronized (slots) {
+            if (slots.get(mediaId) == slot && slot.version == version) {
+                slot.page = page;
+            }
+        }
+        return page.subList(0, Math.min(limit, page.size()));
+    }
+
+    // Beste limit Ratings inkl. offener Likes (LikeCounterService); die DB sortiert nur nach gespeicherten Likes:
+    // - Ratings mit offenen Likes werden immer mitgeladen (könnten von außerhalb aufsteigen)
+    // - pro geladenem Rating mit offenen Unlikes kann eines von außerhalb nachrücken -> entsprechend mehr laden
+    private List<Rating> loadTop(int mediaId, int limit) {
+        Set<Integer> climbers = likeCounter.pendingIncreases();
+        int fetch = limit;
+        List<Rating> loaded;
+        while (true) {
+            List<Rating> fetched = ratingRepository.getTopRatingsByMediaId(mediaId, fetch, climbers);
+            int dropping = 0;
+            for (Rating rating : fetched) {
+                if (likeCounter.pending(rating.getId()) < 0) {
+                    dropping++;
+                }
+            }
+            loaded = fetched;
+            if (limit + dropping <= fetch) {
+                break;  // Wächst nur solange neue Ratings mit offenen Unlikes dazukommen
+            }
+            fetch = limit + dropping;
+        }
+        List<Rating> result = sorted(likeCounter.withPending(loaded));
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    @Override
+    public void onRatingSaved(Rating previous, Rating current) {
+        invalidate(current.getMediaId());
+    }
+
+    @Override
+    public void onRatingDeleted(Rating rating) {
+        invalidate(rating.getMediaId());
+    }
+
+    @Override
+    public void onRatingLiked(Rating rating) {
+        synchronized (slots) {
+            Slot slot = changed(rating.getMediaId());
+            if (slot == null || slot.page == null) {
+                return;
+            }
+            List<Rating> page = slot.page;
+            boolean contained = page.stream().anyMatch(cached -> cached.getId() == rating.getId());
+            if (!contained && page.size() < PAGE_SIZE) {
+                slot.page = null;  // Seite enthält alle Ratings -> dieses ist unbekannt (neu)
+            } else if (contained || ORDER.compare(rating, page.get(page.size() - 1)) < 0) {
+                slot.page = withRating(page, rating);  // Rückt auf oder steigt in die Seite ein
+            }
+        }
+    }
+
+    @Override
+    public void onRatingUnliked(Rating rating) {
+        synchronized (slots) {
+            Slot slot = changed(rating.getMediaId());
+            if (slot == null || slot.page == null) {
+                return;
+            }
+            List<Rating> page = slot.page;
+            if (page.stream().noneMatch(cached -> cached.getId() == rating.getId())) {
+                return;  // Außerhalb der Seite -> bleibt außerhalb
+            }
+            // Volle Seite: ein Rating außerhalb könnte jetzt besser sein -> neu laden
+            slot.page = page.size() < PAGE_SIZE ? withRating(page, rating) : null;
+        }
+    }
+
+    private void invalidate(int mediaId) {
+        synchronized (slots) {
+            Slot slot = changed(mediaId);
+            if (slot != null) {
+                slot.page = null;
+            }
+        }
+    }
+
+    // Markiert eine Änderung am Media (nur unter Lock), null wenn das Media nicht im Cache ist
+    private Slot changed(int mediaId) {
+        Slot slot = slots.get(mediaId);
+        if (slot != null) {
+            slot.version++;
+        }
+        return slot;
+    }
+
+    // Neue Seite mit aktuellem Stand des Ratings, neu sortiert und auf PAGE_SIZE gekürzt
+    private static List<Rating> withRating(List<Rating> page, Rating rating) {
+        List<Rating> updated = new ArrayList<>(page.size() + 1);
+        for (Rating cached : page) {
+            if (cached.getId() != rating.getId()) {
+                updated.add(cached);
+            }
+        }
+        updated.add(copyOf(rating));
+        List<Rating> result = sorted(updated);
+        return result.size() > PAGE_SIZE ? result.subList(0, PAGE_SIZE) : result;
+    }
+
+    private static List<Rating> sorted(List<Rating> ratings) {
+        List<Rating> sorted = new ArrayList<>(ratings);
+        sorted.sort(ORDER);
+        return List.copyOf(sorted);
+    }
+
+    // Kopie, damit spätere Änderungen am Event-Objekt die gecachte Seite nicht verändern
+    private static Rating copyOf(Rating rating) {
+        Rating copy = new Rating(rating.getId(), rating.getMediaId(), rating.getUsername(),
+                rating.getStars(), rating.getComment());
+        copy.setTimestamp(rating.getTimestamp());
+        copy.setConfirmed(rating.isConfirmed());
+        copy.setLikes(rating.getLikes());
+        return copy;
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.example.util.AppConfig;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Service für "Trending" Media (GET /api/media/trending)
+// Pro Media ein exponentiell abklingender Aktivitäts-Score: jedes Rating/Like/Favorite addiert sein Gewicht,
+// danach halbiert sich der Beitrag alle half-life Stunden
+// Statt alle Scores laufend abzuwerten wird jedes Event mit e^(λ·(t - base)) hochskaliert (Reihenfolge bleibt gleich);
+// wird der Exponent zu groß, werden alle Werte auf eine neue Basis umgerechnet (kein Overflow)
+// Die Top-Liste wird periodisch per Heap neu bestimmt, Reads laufen ohne SQL
+public class TrendingService implements RatingListener, FavoriteListener, MediaListener {
+    static final int TOP_N = 100;  // So viele Media werden in der Top-Liste gehalten
+    static final double RATING_WEIGHT = 1.0;
+    static final double LIKE_WEIGHT = 0.5;
+    static final double FAVORITE_WEIGHT = 2.0;
+    private static final double MAX_EXPONENT = 50.0;  // e^50 ≈ 5e21, weit unter Double.MAX_VALUE
+    private static final double MIN_SCORE = 0.01;  // Darunter wird ein Media beim Refresh vergessen
+    private static final int SEED_DAYS = 7;  // Ratings dieses Zeitraums werden beim Start nachgespielt
+
+    private final MediaCatalog catalog;
+    private final RatingRepository ratingRepository;
+    private final Clock clock;
+    private final double lambda;  // Abklingrate pro Sekunde = ln(2) / Halbwertszeit
+
+    private final Map<Integer, Double> scores = new HashMap<>();  // mediaId -> Score relativ zu base
+    private long base;  // Sekunden seit Epoch, auf die sich die gespeicherten Scores beziehen
+    private ScheduledExecutorService scheduler;
+
+    // Unveränderliche Top-Liste, wird bei jedem Refresh komplett ersetzt
+    private volatile List<Trending> snapshot = List.of();
+
+    private record Trending(int mediaId, double score) {
+    }
+
+    public TrendingService(MediaCatalog catalog, RatingRepository ratingRepository) {
+        this(catalog, ratingRepository, Clock.systemDefaultZone());
+    }
+
+    // Constructor mit Clock (für Tests)
+    TrendingService(MediaCatalog catalog, RatingRepository ratingRepository, Clock clock) {
+        this.catalog = catalog;
+        this.ratingRepository = ratingRepository;
+        this.clock = clock;
+        double halfLifeHours = AppConfig.getLong("media.trending.half-life-hours", 24);
+        this.lambda = Math.log(2) / (halfLifeHours * 3600);
+        this.base = now();
+    }
+
+    // Spielt die Ratings der letzten Tage mit ihrem Zeitstempel nach (beim Server-Start)
+    // Likes und Favoriten haben keinen Zeitstempel und zählen erst ab dem Start
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now(clock).minusDays(SEED_DAYS);
+        List<Rating> recent = ratingRepository.getRatingsSince(since);
+        synchronized (this) {
+            scores.clear();
+            base = now();
+            for (Rating rating : recent) {
+                if (rating.getTimestamp() != null) {
+                    add(rating.getMediaId(), RATING_WEIGHT, epochSecond(rating.getTimestamp()));
+                }
+            }
+        }
+        refresh();
+    }
+
+    // Bestimmt die Top-Liste neu (Min-Heap der Größe TOP_N) und verwirft abgeklungene Media
+    public void refresh() {
+        List<Trending> top;
+        synchronized (this) {
+            double decay = Math.exp(-lambda * (now() - base));
+            PriorityQueue<Trending> heap = new PriorityQueue<>(TOP_N + 1, Comparator.comparingDouble(Trending::score)
+                    .thenComparing(Comparator.comparingInt(Trending::mediaId).reversed()));
+            Iterator<Map.Entry<Integer, Double>> iterator = scores.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Integer, Double> entry = iterator.next();
+                double current = entry.getValue() * decay;
+                if (current < MIN_SCORE) {
+                    iterator.remove();
+                    continue;
+                }
+                heap.add(new Trending(entry.getKey(), current));
+                if (heap.size() > TOP_N) {
+                    heap.poll();
+                }
+            }
+            top = new ArrayList<>(heap);
+        }
+        top.sort(Comparator.comparingDouble(Trending::score).reversed().thenComparingInt(Trending::mediaId));
+        snapshot = List.copyOf(top);
+    }
+
+    // Startet den periodischen Refresh (Intervall aus application.properties)
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        long interval = AppConfig.getLong("media.trending.refresh-seconds", 60);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trending-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Trending Media aus der zuletzt berechneten Top-Liste
+    public List<Map<String, Object>> getTrending(int limit) {
+        if (limit <= 0 || limit > TOP_N) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + TOP_N);
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Trending trending : snapshot) {
+            if (result.size() >= limit) {
+                break;
+            }
+            MediaCatalog.MediaInfo info = catalog.get(trending.mediaId());
+            if (info == null) {
+                continue;  // Seit dem letzten Refresh gelöscht
+            }
+            Map<String, Object> item = catalog.toEntry(info);
+            item.put("rank", result.size() + 1);
+            item.put("trendingScore", Math.round(trending.score() * 1000) / 1000.0);
+            result.add(item);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void onRatingSaved(Rating previous, Rating current) {
+        if (previous == null) {  // Nur neue Ratings, Änderungen und Bestätigungen sind keine neue Aktivität
+            add(current.getMediaId(), RATING_WEIGHT, now());
+        }
+    }
+
+    @Override
+    public synchronized void onRatingLiked(Rating rating) {
+        add(rating.getMediaId(), LIKE_WEIGHT, now());
+    }
+
+    @Override
+    public synchronized void onFavoriteAdded(String username, int mediaId) {
+        add(mediaId, FAVORITE_WEIGHT, now());
+    }
+
+    @Override
+    public synchronized void onMediaDeleted(int mediaId) {
+        scores.remove(mediaId);
+    }
+
+    private void add(int mediaId, double weight, long time) {
+        double exponent = lambda * (time - base);
+        if (exponent > MAX_EXPONENT) {
+            renormalize(time);
+            exponent = 0.0;
+        }
+        scores.merge(mediaId, weight * Math.exp(exponent), Double::sum);
+    }
+
+    // Rechnet alle gespeicherten Scores auf die neue Basis um (Abklingen bis newBase wird eingerechnet)
+    private void renormalize(long newBase) {
+        double factor = Math.exp(-lambda * (newBase - base));
+        scores.replaceAll((mediaId, score) -> score * factor);
+        base = newBase;
+    }
+
+    private long now() {
+        return clock.instant().getEpochSecond();
+    }
+
+    private long epochSecond(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toEpochSecond();
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.service;
+
+// Listener für neue User (z.B. damit In-Memory Ranglisten auch User ohne Ratings kennen)
+public interface UserListener {
+
+    // User wurde registriert
+    void onUserRegistered(String username);
+}
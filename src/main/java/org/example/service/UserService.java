@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.nio.charset.StandardCharsets;
@@ -17,12 +18,18 @@ import java.nio.charset.StandardCharsets;
 // Enthält Authentifizierung, Registrierung, Statistiken
 public class UserService {
     private final UserRepository userRepository;
+    private final List<UserListener> listeners = new CopyOnWriteArrayList<>();
 
     // Constructor mit Dependency Injection (für Tests)
     public UserService(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
+    // Registriert Listener für neue User (z.B. In-Memory Leaderboard)
+    public void addListener(UserListener listener) {
+        listeners.add(listener);
+    }
+
     // Registriert neuen User mit Username und Passwort
     // Passwort wird gehasht gespeichert
     public User register(String username, String password) {
@@ -44,6 +51,9 @@ public class UserService {
         String hashedPassword = hashPassword(password);
         User user = new User(username, hashedPassword);
         userRepository.save(user);
+        for (UserListener listener : listeners) {
+            listener.onUserRegistered(username);
+        }
         return user;
     }
 
@@ -0,0 +1,167 @@
+package org.example.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Aho-Corasick Automat: findet alle Begriffe eines Wörterbuchs in einem Durchlauf über den Text
+// Laufzeit linear in der Textlänge (plus Anzahl Treffer), unabhängig von der Größe des Wörterbuchs
+// Groß-/Kleinschreibung wird ignoriert; Treffer zählen nur als ganze Wörter ("ass" trifft nicht "class")
+// Nach dem Bau unveränderlich -> ohne Synchronisation von beliebig vielen Threads nutzbar
+public final class AhoCorasick {
+    private final char[][] keys;  // pro Knoten: sortierte Folgezeichen
+    private final int[][] targets;  // pro Knoten: Zielknoten zu keys
+    private final int[] fail;  // Knoten des längsten echten Suffixes, der auch Präfix im Trie ist
+    private final int[] outputLink;  // nächster Knoten in der fail-Kette an dem ein Begriff endet (-1 = keiner)
+    private final String[] terms;  // Begriff der in diesem Knoten endet (null = keiner)
+    private final int termCount;
+
+    public AhoCorasick(Collection<String> dictionary) {
+        // 1. Trie aus allen Begriffen
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<String> nodeTerms = new ArrayList<>();
+        children.add(new HashMap<>());
+        nodeTerms.add(null);
+        int count = 0;
+        for (String raw : dictionary) {
+            String term = normalize(raw);
+            if (term.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                Integer next = children.get(node).get(term.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(term.charAt(i), next);
+                    children.add(new HashMap<>());
+                    nodeTerms.add(null);
+                }
+                node = next;
+            }
+            if (nodeTerms.get(node) == null) {
+                nodeTerms.set(node, term);
+                count++;
+            }
+        }
+
+        // Kompakte Darstellung: sortierte Arrays statt Maps (Binärsuche beim Scannen)
+        int size = children.size();
+        keys = new char[size][];
+        targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> edges = children.get(node);
+            char[] nodeKeys = new char[edges.size()];
+            int i = 0;
+            for (char c : edges.keySet()) {
+                nodeKeys[i++] = c;
+            }
+            Arrays.sort(nodeKeys);
+            int[] nodeTargets = new int[nodeKeys.length];
+            for (i = 0; i < nodeKeys.length; i++) {
+                nodeTargets[i] = edges.get(nodeKeys[i]);
+            }
+            keys[node] = nodeKeys;
+            targets[node] = nodeTargets;
+        }
+        terms = nodeTerms.toArray(new String[0]);
+        termCount = count;
+
+        // 2. fail- und Output-Links per Breitensuche (Eltern vor Kindern)
+        fail = new int[size];
+        outputLink = new int[size];
+        outputLink[0] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < keys[node].length; i++) {
+                char c = keys[node][i];
+                int child = targets[node][i];
+                int state = fail[node];
+                while (state != 0 && step(state, c) < 0) {
+                    state = fail[state];
+                }
+                int next = step(state, c);
+                fail[child] = next < 0 ? 0 : next;
+                outputLink[child] = terms[fail[child]] != null ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    // Anzahl unterschiedlicher Begriffe im Automaten
+    public int size() {
+        return termCount;
+    }
+
+    // true wenn mindestens ein Begriff als ganzes Wort vorkommt (bricht beim ersten Treffer ab)
+    public boolean containsAny(String text) {
+        return !scan(text, true).isEmpty();
+    }
+
+    // Alle vorkommenden Begriffe (ohne Duplikate, in Reihenfolge des ersten Auftretens)
+    public Set<String> findAll(String text) {
+        return scan(text, false);
+    }
+
+    // Gleiche Normalisierung für Wörterbuch und Text: trim + Kleinbuchstaben pro Zeichen (Längen bleiben gleich)
+    public static String normalize(String term) {
+        if (term == null) {
+            return "";
+        }
+        String trimmed = term.trim();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            normalized.append(Character.toLowerCase(trimmed.charAt(i)));
+        }
+        return normalized.toString();
+    }
+
+    private Set<String> scan(String text, boolean firstOnly) {
+        Set<String> found = new LinkedHashSet<>();
+        if (text == null || termCount == 0) {
+            return found;
+        }
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            while (node != 0 && step(node, c) < 0) {
+                node = fail[node];
+            }
+            int next = step(node, c);
+            node = next < 0 ? 0 : next;
+            // Alle Begriffe die an Position i enden: der Knoten selbst und seine Output-Kette
+            for (int out = terms[node] != null ? node : outputLink[node]; out > 0; out = outputLink[out]) {
+                int start = i - terms[out].length() + 1;
+                if (isBoundary(text, start - 1) && isBoundary(text, i + 1)) {
+                    found.add(terms[out]);
+                    if (firstOnly) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Übergang des Tries (ohne fail), -1 wenn kein Folgezeichen c existiert
+    private int step(int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        return index < 0 ? -1 : targets[node][index];
+    }
+
+    // Wortgrenze: Textanfang/-ende oder ein Zeichen das weder Buchstabe noch Ziffer ist
+    private static boolean isBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.util;
+
+import java.io.InputStream;
+import java.util.Properties;
+
+// Utility-Klasse für Applikations-Einstellungen aus application.properties
+// (z.B. Refresh-Intervalle der In-Memory Caches); fehlende Keys liefern den Default-Wert
+public class AppConfig {
+    private static final Properties props = new Properties();
+
+    static { // Lädt die Properties einmalig beim ersten Zugriff
+        try (InputStream input = AppConfig.class.getClassLoader()
+                .getResourceAsStream("application.properties")) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Error loading application configuration: " + e.getMessage(), e);
+        }
+    }
+
+    private AppConfig() {
+    }
+
+    // System-Property (-Dkey=value) überschreibt den Wert aus der Datei
+    public static String getString(String key, String defaultValue) {
+        return System.getProperty(key, props.getProperty(key, defaultValue));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+}
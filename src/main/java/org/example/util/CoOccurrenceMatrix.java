@@ -0,0 +1,124 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sparse, symmetrische Co-Occurrence Matrix (id x id -> Anzahl)
+// Jede Zeile ist eine IntIntHashMap; Zeilen werden auf die Top-K Einträge gekürzt,
+// sobald sie doppelt so groß wie K werden (seltene Paare fallen weg, Speicher bleibt begrenzt)
+public class CoOccurrenceMatrix {
+    private final int topK;
+    private final Map<Integer, IntIntHashMap> rows = new HashMap<>();
+
+    public CoOccurrenceMatrix(int topK) {
+        if (topK <= 0) {
+            throw new IllegalArgumentException("topK must be greater than 0");
+        }
+        this.topK = topK;
+    }
+
+    // Ein Paar (a, b) wurde ein weiteres Mal gemeinsam beobachtet
+    public void increment(int a, int b) {
+        add(a, b);
+        add(b, a);
+    }
+
+    // Ein Paar (a, b) fällt weg (z.B. Rating gelöscht); gekürzte Einträge werden ignoriert
+    public void decrement(int a, int b) {
+        subtract(a, b);
+        subtract(b, a);
+    }
+
+    public int get(int a, int b) {
+        IntIntHashMap row = rows.get(a);
+        return row == null ? 0 : row.get(b);
+    }
+
+    // Entfernt Zeile und Spalte einer ID (z.B. gelöschtes Media)
+    public void removeId(int id) {
+        IntIntHashMap row = rows.remove(id);
+        if (row == null) {
+            return;
+        }
+        row.forEach((other, count) -> {
+            IntIntHashMap otherRow = rows.get(other);
+            if (otherRow != null) {
+                otherRow.remove(id);
+                if (otherRow.isEmpty()) {
+                    rows.remove(other);
+                }
+            }
+        });
+    }
+
+    // Gibt die häufigsten Partner einer ID zurück, absteigend nach Anzahl (je Eintrag: {id, count})
+    public List<int[]> topPartners(int id, int limit) {
+        IntIntHashMap row = rows.get(id);
+        if (row == null) {
+            return List.of();
+        }
+        long[] packed = sortedDescending(row);
+        List<int[]> result = new ArrayList<>();
+        for (int i = 0; i < packed.length && result.size() < limit; i++) {
+            result.add(new int[]{partnerOf(packed[i]), countOf(packed[i])});
+        }
+        return result;
+    }
+
+    public int rowCount() {
+        return rows.size();
+    }
+
+    public void clear() {
+        rows.clear();
+    }
+
+    private void add(int row, int column) {
+        IntIntHashMap entries = rows.computeIfAbsent(row, r -> new IntIntHashMap());
+        entries.addTo(column, 1);
+        if (entries.size() > topK * 2) {
+            prune(entries);
+        }
+    }
+
+    private void subtract(int row, int column) {
+        IntIntHashMap entries = rows.get(row);
+        if (entries == null || !entries.containsKey(column)) {
+            return;  // Eintrag wurde bereits weggekürzt
+        }
+        entries.addTo(column, -1);
+        if (entries.isEmpty()) {
+            rows.remove(row);
+        }
+    }
+
+    // Behält nur die topK größten Einträge der Zeile
+    private void prune(IntIntHashMap entries) {
+        long[] packed = sortedDescending(entries);
+        for (int i = topK; i < packed.length; i++) {
+            entries.remove(partnerOf(packed[i]));
+        }
+    }
+
+    // Packt (count, id) in einen long, damit ohne Objekt-Allokation sortiert werden kann
+    // Höhere Anzahl zuerst, bei Gleichstand kleinere ID zuerst
+    private static long[] sortedDescending(IntIntHashMap entries) {
+        long[] packed = new long[entries.size()];
+        int[] index = {0};
+        entries.forEach((partner, count) ->
+                packed[index[0]++] = ((long) -count << 32) | (partner & 0xFFFFFFFFL));
+        Arrays.sort(packed);
+        return packed;
+    }
+
+    private static int partnerOf(long packed) {
+        return (int) packed;
+    }
+
+    private static int countOf(long packed) {
+        return -(int) (packed >> 32);
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+// Kompakte Hash-Map int -> int ohne Boxing (Open Addressing mit Linear Probing)
+// Verbraucht ca. 8 Byte pro Slot statt ~50 Byte pro Eintrag bei HashMap<Integer, Integer>
+// Integer.MIN_VALUE ist als Key reserviert (markiert leere Slots)
+public class IntIntHashMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntHashMap() {
+        this(8);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // Callback für forEach (primitive Variante von BiConsumer)
+    @FunctionalInterface
+    public interface Entry {
+        void accept(int key, int value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return keys[indexOf(key)] != EMPTY;
+    }
+
+    // Gibt den Wert zurück (0 wenn Key nicht vorhanden)
+    public int get(int key) {
+        int index = indexOf(key);
+        return keys[index] == EMPTY ? 0 : values[index];
+    }
+
+    public void put(int key, int value) {
+        checkKey(key);
+        int index = indexOf(key);
+        if (keys[index] == EMPTY) {
+            keys[index] = key;
+            size++;
+            values[index] = value;
+            growIfNeeded();
+        } else {
+            values[index] = value;
+        }
+    }
+
+    // Addiert delta zum Wert (fehlender Key zählt als 0) und gibt den neuen Wert zurück
+    // Erreicht der Wert 0, wird der Eintrag entfernt (Map bleibt sparse)
+    public int addTo(int key, int delta) {
+        checkKey(key);
+        int index = indexOf(key);
+        if (keys[index] == EMPTY) {
+            if (delta == 0) {
+                return 0;
+            }
+            keys[index] = key;
+            values[index] = delta;
+            size++;
+            growIfNeeded();
+            return delta;
+        }
+        int value = values[index] + delta;
+        if (value == 0) {
+            removeAt(index);
+        } else {
+            values[index] = value;
+        }
+        return value;
+    }
+
+    public void remove(int key) {
+        int index = indexOf(key);
+        if (keys[index] != EMPTY) {
+            removeAt(index);
+        }
+    }
+
+    public void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // Slot des Keys oder der erste freie Slot in der Probe-Sequenz
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    // Backward-Shift Deletion: rückt nachfolgende Einträge nach, damit keine Tombstones nötig sind
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            // Eintrag darf in die Lücke wenn sein Home-Slot nicht zwischen gap und next liegt
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+        size--;
+    }
+
+    private void growIfNeeded() {
+        if (size <= keys.length * LOAD_FACTOR) {
+            return;
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private static void checkKey(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key Integer.MIN_VALUE is reserved");
+        }
+    }
+
+    // Verteilt aufeinanderfolgende IDs gleichmäßig über die Slots
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
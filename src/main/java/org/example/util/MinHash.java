@@ -0,0 +1,102 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+// MinHash-Signaturen für Texte: Anteil gleicher Positionen zweier Signaturen schätzt die Jaccard-Ähnlichkeit
+// der Zeichen-Shingles (überlappende k-Gramme des normalisierten Texts)
+// Normalisierung: Kleinbuchstaben, Satzzeichen/Whitespace -> ein Leerzeichen (kleine Varianten ändern wenig)
+// Unveränderlich -> thread-safe
+public final class MinHash {
+    private final int shingleLength;
+    private final long[] seeds;  // Eine Hash-Funktion pro Signatur-Position
+
+    public MinHash(int numHashes, int shingleLength, long seed) {
+        this.shingleLength = shingleLength;
+        this.seeds = new long[numHashes];
+        long state = seed;
+        for (int i = 0; i < numHashes; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            seeds[i] = mix(state);
+        }
+    }
+
+    public int size() {
+        return seeds.length;
+    }
+
+    // Signatur des Texts, null wenn der normalisierte Text kürzer als ein Shingle ist
+    public int[] signature(String text) {
+        String normalized = normalize(text);
+        if (normalized.length() < shingleLength) {
+            return null;
+        }
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int start = 0; start + shingleLength <= normalized.length(); start++) {
+            long shingle = hash(normalized, start, start + shingleLength);
+            for (int i = 0; i < seeds.length; i++) {
+                int value = (int) (mix(shingle ^ seeds[i]) >>> 33);  // Nicht-negativ
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Geschätzte Jaccard-Ähnlichkeit: Anteil übereinstimmender Positionen
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    // Länge des normalisierten Texts (z.B. um sehr kurze Kommentare auszuschließen)
+    public static int normalizedLength(String text) {
+        return normalize(text).length();
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;  // Kein führendes Leerzeichen
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    // FNV-1a über die Zeichen eines Shingles
+    private static long hash(String text, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 Finalizer: verteilt jedes Eingabe-Bit auf alle Ausgabe-Bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
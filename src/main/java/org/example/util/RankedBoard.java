@@ -0,0 +1,214 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Sortierte Rangliste (höchster Score zuerst, bei Gleichstand Key aufsteigend), K = z.B. Username oder Media-ID
+// Intern ein Treap mit Teilbaum-Größen (Order-Statistic Tree):
+// Score ändern, Rang eines Keys und Zugriff per Position sind O(log n), ein Bereich O(log n + count)
+// Nicht thread-safe - Aufrufer synchronisiert
+public class RankedBoard<K extends Comparable<K>> {
+    private final Map<K, Long> scores = new HashMap<>();
+    private Node<K> root;
+
+    // Ein Eintrag mit 1-basiertem Rang
+    public record Entry<K>(K key, long score, int rank) {
+    }
+
+    private static final class Node<K> {
+        final K key;
+        final long score;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node<K> left;
+        Node<K> right;
+        int size = 1;
+
+        Node(K key, long score) {
+            this.key = key;
+            this.score = score;
+        }
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    public boolean contains(K key) {
+        return scores.containsKey(key);
+    }
+
+    // Score eines Keys (0 wenn nicht vorhanden)
+    public long score(K key) {
+        return scores.getOrDefault(key, 0L);
+    }
+
+    // Setzt den Score eines Keys (fügt ihn hinzu falls nicht vorhanden)
+    public void put(K key, long score) {
+        Long old = scores.put(key, score);
+        if (old != null) {
+            if (old == score) {
+                return;
+            }
+            root = delete(root, key, old);
+        }
+        root = insert(root, new Node<>(key, score));
+    }
+
+    // Ändert den Score um delta und gibt den neuen Score zurück
+    public long add(K key, long delta) {
+        long updated = score(key) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    public boolean remove(K key) {
+        Long old = scores.remove(key);
+        if (old == null) {
+            return false;
+        }
+        root = delete(root, key, old);
+        return true;
+    }
+
+    public void clear() {
+        scores.clear();
+        root = null;
+    }
+
+    // 1-basierter Rang eines Keys, -1 wenn nicht vorhanden
+    public int rank(K key) {
+        Long score = scores.get(key);
+        if (score == null) {
+            return -1;
+        }
+        int before = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = compare(key, score, node);
+            if (cmp == 0) {
+                return before + size(node.left) + 1;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    // count Einträge ab 0-basierter Position offset, in Rang-Reihenfolge
+    public List<Entry<K>> range(int offset, int count) {
+        List<Entry<K>> result = new ArrayList<>(Math.max(0, Math.min(count, size() - offset)));
+        if (offset < 0 || count <= 0) {
+            return result;
+        }
+        collect(root, offset, offset + count, 0, result);
+        return result;
+    }
+
+    // In-Order Traversierung, überspringt Teilbäume außerhalb von [from, to)
+    private void collect(Node<K> node, int from, int to, int base, List<Entry<K>> result) {
+        if (node == null || base >= to || base + node.size <= from) {
+            return;
+        }
+        collect(node.left, from, to, base, result);
+        int position = base + size(node.left);
+        if (position >= from && position < to) {
+            result.add(new Entry<>(node.key, node.score, position + 1));
+        }
+        collect(node.right, from, to, position + 1, result);
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (inserted.priority > node.priority) {
+            Node<K>[] parts = split(node, inserted.key, inserted.score);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            update(inserted);
+            return inserted;
+        }
+        if (compare(inserted.key, inserted.score, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<K> delete(Node<K> node, K key, long score) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(key, score, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, key, score);
+        } else {
+            node.right = delete(node.right, key, score);
+        }
+        update(node);
+        return node;
+    }
+
+    // Teilt in [< (key, score)] und [>= (key, score)]
+    @SuppressWarnings("unchecked")
+    private Node<K>[] split(Node<K> node, K key, long score) {
+        if (node == null) {
+            return (Node<K>[]) new Node[]{null, null};
+        }
+        if (compare(key, score, node) > 0) {
+            Node<K>[] parts = split(node.right, key, score);
+            node.right = parts[0];
+            update(node);
+            return (Node<K>[]) new Node[]{node, parts[1]};
+        }
+        Node<K>[] parts = split(node.left, key, score);
+        node.left = parts[1];
+        update(node);
+        return (Node<K>[]) new Node[]{parts[0], node};
+    }
+
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    // < 0 wenn (key, score) vor node einsortiert wird
+    private static <K extends Comparable<K>> int compare(K key, long score, Node<K> node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return key.compareTo(node.key);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
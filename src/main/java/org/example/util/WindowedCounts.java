@@ -0,0 +1,126 @@
+package org.example.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Zeitlich gebucketete Zähler pro Key (z.B. Ratings pro User)
+// Die letzten 24 Stunden liegen in Stunden-Buckets, ältere werden bei compact() in Tages-Buckets zusammengefasst,
+// Tages-Buckets älter als 30 Tage werden verworfen -> pro Key höchstens ~54 Buckets
+// Nicht thread-safe - Aufrufer synchronisiert
+public class WindowedCounts {
+    private static final int HOURS_PER_DAY = 24;
+    public static final int MAX_DAYS = 30;
+
+    // Rollierende Zeitfenster, jeweils bis "jetzt"
+    public enum Window {
+        DAY, WEEK, MONTH;
+
+        int days() {
+            return switch (this) {
+                case DAY -> 1;
+                case WEEK -> 7;
+                case MONTH -> MAX_DAYS;
+            };
+        }
+    }
+
+    private final Map<String, Buckets> buckets = new HashMap<>();
+
+    private static final class Buckets {
+        final TreeMap<Long, Integer> hourly = new TreeMap<>();  // Stunde seit Epoch -> Anzahl
+        final TreeMap<Long, Integer> daily = new TreeMap<>();  // Tag seit Epoch -> Anzahl
+
+        boolean isEmpty() {
+            return hourly.isEmpty() && daily.isEmpty();
+        }
+    }
+
+    // Zählt delta zum Zeitpunkt time; Zeitpunkte außerhalb des längsten Fensters werden ignoriert
+    public void add(String key, LocalDateTime time, int delta, LocalDateTime now) {
+        long hour = epochHour(time);
+        long day = Math.floorDiv(hour, HOURS_PER_DAY);
+        long nowHour = epochHour(now);
+        if (hour > nowHour - HOURS_PER_DAY) {
+            merge(buckets.computeIfAbsent(key, k -> new Buckets()).hourly, hour, delta);
+        } else if (day > Math.floorDiv(nowHour, HOURS_PER_DAY) - MAX_DAYS) {
+            merge(buckets.computeIfAbsent(key, k -> new Buckets()).daily, day, delta);
+        } else {
+            return;
+        }
+        if (buckets.get(key).isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    // Summe eines Keys im Fenster
+    // DAY = die letzten 24 Stunden, WEEK/MONTH = heute plus die vorherigen 6/29 ganzen Tage
+    public long sum(String key, Window window, LocalDateTime now) {
+        Buckets entry = buckets.get(key);
+        if (entry == null) {
+            return 0;
+        }
+        long nowHour = epochHour(now);
+        long firstDay = Math.floorDiv(nowHour, HOURS_PER_DAY) - window.days() + 1;
+        long sum = 0;
+        for (Map.Entry<Long, Integer> bucket : entry.hourly.entrySet()) {
+            long hour = bucket.getKey();
+            boolean inWindow = window == Window.DAY
+                    ? hour > nowHour - HOURS_PER_DAY
+                    : Math.floorDiv(hour, HOURS_PER_DAY) >= firstDay;
+            if (inWindow) {
+                sum += bucket.getValue();
+            }
+        }
+        if (window != Window.DAY) {
+            for (int count : entry.daily.tailMap(firstDay, true).values()) {
+                sum += count;
+            }
+        }
+        return sum;
+    }
+
+    // Fasst abgelaufene Stunden-Buckets zu Tagen zusammen und verwirft zu alte Tage
+    public void compact(LocalDateTime now) {
+        long nowHour = epochHour(now);
+        long firstDay = Math.floorDiv(nowHour, HOURS_PER_DAY) - MAX_DAYS + 1;
+        Iterator<Buckets> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            Buckets entry = iterator.next();
+            Map<Long, Integer> expired = entry.hourly.headMap(nowHour - HOURS_PER_DAY, true);
+            for (Map.Entry<Long, Integer> bucket : expired.entrySet()) {
+                merge(entry.daily, Math.floorDiv(bucket.getKey(), HOURS_PER_DAY), bucket.getValue());
+            }
+            expired.clear();
+            entry.daily.headMap(firstDay, false).clear();
+            if (entry.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public Set<String> keys() {
+        return buckets.keySet();
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    private static void merge(TreeMap<Long, Integer> map, long bucket, int delta) {
+        int updated = map.getOrDefault(bucket, 0) + delta;
+        if (updated == 0) {
+            map.remove(bucket);
+        } else {
+            map.put(bucket, updated);
+        }
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+}
@@ -19,7 +19,12 @@ CREATE TABLE IF NOT EXISTS media_entries (
     release_year INTEGER,
     genres TEXT,
     age_restriction INTEGER,
-    average_rating DECIMAL(3,2) DEFAULT 0,
+    average_rating DECIMAL(3,2) DEFAULT 0,  -- Abgeleitet: confirmed_sum / confirmed_count
+    confirmed_count INTEGER DEFAULT 0,  -- Anzahl bestätigter Ratings (per Delta gepflegt)
+    confirmed_sum INTEGER DEFAULT 0,  -- Summe der Sterne bestätigter Ratings (per Delta gepflegt)
+    stars_total INTEGER[] DEFAULT '{0,0,0,0,0}',  -- Anzahl Ratings pro Sterne-Wert 1-5 (per Delta gepflegt)
+    stars_confirmed INTEGER[] DEFAULT '{0,0,0,0,0}',  -- Dasselbe nur für bestätigte Ratings
+    favorite_count INTEGER DEFAULT 0,  -- Anzahl User mit diesem Media als Favorit (per Delta gepflegt)
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (creator) REFERENCES users(username) ON DELETE CASCADE
@@ -41,6 +46,16 @@ CREATE TABLE IF NOT EXISTS ratings (
     UNIQUE(media_id, username)
 );
 
+-- Rating Likes Table (ein Like pro User und Rating)
+CREATE TABLE IF NOT EXISTS rating_likes (
+    rating_id INTEGER NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    liked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (rating_id, username),
+    FOREIGN KEY (rating_id) REFERENCES ratings(id) ON DELETE CASCADE,
+    FOREIGN KEY (username) REFERENCES users(username) ON DELETE CASCADE
+);
+
 -- Favorites Table
 CREATE TABLE IF NOT EXISTS favorites (
     username VARCHAR(255) NOT NULL,
@@ -54,7 +69,10 @@ CREATE TABLE IF NOT EXISTS favorites (
 -- Indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_media_type ON media_entries(media_type);
 CREATE INDEX IF NOT EXISTS idx_media_rating ON media_entries(average_rating);
+CREATE INDEX IF NOT EXISTS idx_media_favorites ON media_entries(favorite_count DESC, id);  -- Meistfavorisiert
 CREATE INDEX IF NOT EXISTS idx_ratings_media ON ratings(media_id);
 CREATE INDEX IF NOT EXISTS idx_ratings_user ON ratings(username);
+CREATE INDEX IF NOT EXISTS idx_ratings_pending ON ratings(id) WHERE confirmed = false;  -- Moderations-Queue
+CREATE INDEX IF NOT EXISTS idx_ratings_media_likes ON ratings(media_id, likes DESC, id);  -- Top-Kommentare
 CREATE INDEX IF NOT EXISTS idx_favorites_user ON favorites(username);
 
@@ -5,6 +5,7 @@ import com.sun.net.httpserver.HttpExchange;
 import org.example.model.MediaEntry;
 import org.example.model.MediaType;
 import org.example.model.User;
+import org.example.repository.MediaRepository;
 import org.example.service.MediaService;
 import org.example.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,7 +18,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -168,4 +171,78 @@ class MediaControllerTest {
         verify(exchange).sendResponseHeaders(eq(405), anyLong());
         assertTrue(responseBody.toString().contains("Method not allowed"));
     }
+
+    // Test: GET /api/media/{id}/stats gibt Durchschnitt und Sterne-Verteilung zurück (200 OK)
+    @Test
+    void handleGetMediaStatsTest() throws Exception {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mediaId", 1);
+        stats.put("averageRating", 4.5);
+        stats.put("histogram", new int[]{0, 0, 0, 1, 1});
+
+        when(exchange.getRequestMethod()).thenReturn("GET");
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/media/1/stats"));
+        when(exchange.getResponseBody()).thenReturn(responseBody);
+        when(exchange.getResponseHeaders()).thenReturn(responseHeaders);
+        when(exchange.getRequestHeaders()).thenReturn(new Headers());
+        when(mediaService.getRatingStats(1)).thenReturn(Optional.of(stats));
+
+        mediaController.handleMedia(exchange);
+
+        verify(exchange).sendResponseHeaders(eq(200), anyLong());
+        assertTrue(responseBody.toString().contains("\"histogram\":[0,0,0,1,1]"));
+    }
+
+    // Test: Statistik für unbekanntes Media gibt 404 zurück
+    @Test
+    void handleGetMediaStatsNotFoundTest() throws Exception {
+        when(exchange.getRequestMethod()).thenReturn("GET");
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/media/99/stats"));
+        when(exchange.getResponseBody()).thenReturn(responseBody);
+        when(exchange.getResponseHeaders()).thenReturn(responseHeaders);
+        when(exchange.getRequestHeaders()).thenReturn(new Headers());
+        when(mediaService.getRatingStats(99)).thenReturn(Optional.empty());
+
+        mediaController.handleMedia(exchange);
+
+        verify(exchange).sendResponseHeaders(eq(404), anyLong());
+    }
+
+    // Test: Angemeldeter User bekommt isFavorite und myStars pro Eintrag aus einem gebündelten Aufruf
+    @Test
+    void handleGetAllMediaWithViewerAnnotationsTest() throws Exception {
+        MediaEntry media1 = new MediaEntry();
+        media1.setId(1);
+        media1.setTitle("Test Movie");
+        media1.setMediaType(MediaType.MOVIE);
+
+        MediaEntry media2 = new MediaEntry();
+        media2.setId(2);
+        media2.setTitle("Test Series");
+        media2.setMediaType(MediaType.SERIES);
+
+        List<MediaEntry> mockList = Arrays.asList(media1, media2);
+        User mockUser = new User("testuser", "hashedpass");
+        Headers requestHeaders = new Headers();
+        requestHeaders.add("Authorization", "Bearer valid-token");
+
+        when(exchange.getRequestMethod()).thenReturn("GET");
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/media"));
+        when(exchange.getResponseBody()).thenReturn(responseBody);
+        when(exchange.getResponseHeaders()).thenReturn(responseHeaders);
+        when(exchange.getRequestHeaders()).thenReturn(requestHeaders);
+        when(userService.validateToken("valid-token")).thenReturn(Optional.of(mockUser));
+        when(mediaService.getAllMedia()).thenReturn(mockList);
+        when(mediaService.getViewerAnnotations("testuser", mockList))
+                .thenReturn(Map.of(1, new MediaRepository.ViewerAnnotation(true, 4)));
+
+        mediaController.handleMedia(exchange);
+
+        verify(exchange).sendResponseHeaders(eq(200), anyLong());
+        verify(mediaService, times(1)).getViewerAnnotations(anyString(), anyList());
+        String body = responseBody.toString();
+        assertTrue(body.contains("Test Movie"));
+        assertTrue(body.contains("\"isFavorite\":true,\"myStars\":4"));
+        assertTrue(body.contains("\"isFavorite\":false,\"myStars\":null"));
+    }
 }
@@ -62,12 +62,45 @@ class RatingControllerTest {
         when(exchange.getRequestURI()).thenReturn(URI.create("/api/media/1/ratings"));
         when(exchange.getResponseBody()).thenReturn(responseBody);
         when(exchange.getResponseHeaders()).thenReturn(responseHeaders);
-        when(ratingService.getRatingsByMediaId(1)).thenReturn(mockRatings);
+        when(ratingService.getRatingsByMediaId(1, true)).thenReturn(mockRatings);
 
         ratingController.handleMediaRatings(exchange);
 
         verify(exchange).sendResponseHeaders(eq(200), anyLong());
-        verify(ratingService).getRatingsByMediaId(1);
+        verify(ratingService).getRatingsByMediaId(1, true);
+    }
+
+    // Test: GET /api/media/{id}/ratings?sort=likes gibt Top-Kommentare mit Limit zurück
+    @Test
+    void handleGetTopRatingsForMediaTest() throws Exception {
+        Rating top = new Rating(7, 1, "user1", 5, "Best comment");
+        top.setLikes(42);
+
+        when(exchange.getRequestMethod()).thenReturn("GET");
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/media/1/ratings?sort=likes&limit=3"));
+        when(exchange.getResponseBody()).thenReturn(responseBody);
+        when(exchange.getResponseHeaders()).thenReturn(responseHeaders);
+        when(ratingService.getTopRatings(1, 3)).thenReturn(List.of(top));
+
+        ratingController.handleMediaRatings(exchange);
+
+        verify(exchange).sendResponseHeaders(eq(200), anyLong());
+        assertTrue(responseBody.toString().contains("\"likes\":42"));
+        verify(ratingService, never()).getRatingsByMediaId(anyInt(), anyBoolean());
+    }
+
+    // Test: Unbekannte Sortierung gibt 400 zurück
+    @Test
+    void handleGetRatingsWithInvalidSortTest() throws Exception {
+        when(exchange.getRequestMethod()).thenReturn("GET");
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/media/1/ratings?sort=stars"));
+        when(exchange.getResponseBody()).thenReturn(responseBody);
+        when(exchange.getResponseHeaders()).thenReturn(responseHeaders);
+
+        ratingController.handleMediaRatings(exchange);
+
+        verify(exchange).sendResponseHeaders(eq(400), anyLong());
+        verifyNoInteractions(ratingService);
     }
 
     // Test: POST /api/media/{id}/ratings ohne Token gibt 401 zurück
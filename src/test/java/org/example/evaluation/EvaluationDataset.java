@@ -0,0 +1,124 @@
+package org.example.evaluation;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+// Datengrundlage für die Offline-Evaluation: Media + Ratings
+// Entweder aus der lokalen DB geladen oder synthetisch erzeugt (reproduzierbar über Seed)
+public class EvaluationDataset {
+    private static final String[] GENRES = {
+        "Action", "Drama", "Comedy", "Sci-Fi", "Romance", "Horror", "Thriller", "Animation", "Documentary", "Fantasy"
+    };
+
+    private final List<MediaEntry> media;
+    private final List<Rating> ratings;
+
+    public EvaluationDataset(List<MediaEntry> media, List<Rating> ratings) {
+        this.media = media;
+        this.ratings = ratings;
+    }
+
+    // Lädt alle Media und Ratings aus der konfigurierten DB (application.properties)
+    public static EvaluationDataset fromDatabase() {
+        return new EvaluationDataset(new MediaRepository().findAll(), new RatingRepository().getAllRatings());
+    }
+
+    // Erzeugt einen synthetischen Datensatz: jeder User hat 1-2 Lieblingsgenres,
+    // Media aus Lieblingsgenres werden häufiger und besser bewertet, beliebte Media häufiger gewählt
+    public static EvaluationDataset synthetic(int userCount, int mediaCount, int ratingsPerUser, long seed) {
+        Random random = new Random(seed);
+        List<MediaEntry> media = new ArrayList<>();
+        Map<String, List<MediaEntry>> mediaByGenre = new HashMap<>();
+        for (int id = 1; id <= mediaCount; id++) {
+            List<String> genres = new ArrayList<>();
+            genres.add(GENRES[random.nextInt(GENRES.length)]);
+            if (random.nextBoolean()) {
+                String second = GENRES[random.nextInt(GENRES.length)];
+                if (!genres.contains(second)) {
+                    genres.add(second);
+                }
+            }
+            MediaEntry entry = new MediaEntry(id, "Media " + id, "", MediaType.values()[id % MediaType.values().length],
+                    1980 + random.nextInt(45), genres, 0, "generator");
+            media.add(entry);
+            for (String genre : genres) {
+                mediaByGenre.computeIfAbsent(genre, g -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        List<Rating> ratings = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        int ratingId = 1;
+        for (int user = 1; user <= userCount; user++) {
+            String username = "user" + user;
+            String favorite = GENRES[random.nextInt(GENRES.length)];
+            String secondFavorite = GENRES[random.nextInt(GENRES.length)];
+            Set<Integer> rated = new HashSet<>();
+            int count = 1 + random.nextInt(Math.max(1, ratingsPerUser * 2));
+            for (int i = 0; i < count && rated.size() < mediaCount; i++) {
+                MediaEntry entry = pick(random, media, mediaByGenre, favorite, secondFavorite);
+                if (!rated.add(entry.getId())) {
+                    continue;
+                }
+                boolean liked = entry.getGenres().contains(favorite) || entry.getGenres().contains(secondFavorite);
+                int stars = liked ? 3 + random.nextInt(3) : 1 + random.nextInt(4);
+                Rating rating = new Rating(ratingId++, entry.getId(), username, stars, null);
+                rating.setConfirmed(true);
+                rating.setTimestamp(start.plusMinutes(random.nextInt(365 * 24 * 60)));
+                ratings.add(rating);
+            }
+        }
+        return new EvaluationDataset(media, ratings);
+    }
+
+    // Wählt bevorzugt Media aus den Lieblingsgenres, innerhalb einer Liste schief verteilt (niedrige IDs beliebter)
+    private static MediaEntry pick(Random random, List<MediaEntry> media, Map<String, List<MediaEntry>> mediaByGenre,
+                                   String favorite, String secondFavorite) {
+        double roll = random.nextDouble();
+        List<MediaEntry> source = media;
+        if (roll < 0.5) {
+            source = mediaByGenre.getOrDefault(favorite, media);
+        } else if (roll < 0.7) {
+            source = mediaByGenre.getOrDefault(secondFavorite, media);
+        }
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return source.get((int) (skewed * source.size()));
+    }
+
+    // Teilt die Ratings zeitlich: die ältesten trainFraction Ratings sind Training, der Rest Test
+    public Split splitByTime(double trainFraction) {
+        if (trainFraction <= 0.0 || trainFraction >= 1.0) {
+            throw new IllegalArgumentException("Train fraction must be between 0 and 1");
+        }
+        List<Rating> sorted = new ArrayList<>(ratings);
+        sorted.sort(Comparator.comparing(Rating::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(Rating::getId));
+        int cut = (int) Math.round(sorted.size() * trainFraction);
+        return new Split(media, sorted.subList(0, cut), sorted.subList(cut, sorted.size()));
+    }
+
+    public List<MediaEntry> getMedia() {
+        return media;
+    }
+
+    public List<Rating> getRatings() {
+        return ratings;
+    }
+
+    // Ergebnis der zeitlichen Aufteilung
+    public record Split(List<MediaEntry> media, List<Rating> train, List<Rating> test) {
+    }
+}
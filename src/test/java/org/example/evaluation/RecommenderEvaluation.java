@@ -0,0 +1,310 @@
+package org.example.evaluation;
+
+import org.example.model.MediaEntry;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.example.repository.UserRepository;
+import org.example.service.CoOccurrenceService;
+import org.example.service.MediaCatalog;
+import org.example.service.PopularityService;
+import org.example.service.RecommendationService;
+import org.example.service.SimilarMediaService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+
+// Offline-Evaluation der Empfehlungs-Strategien
+// Trainiert alle Strategien auf den älteren Ratings und prüft, ob die späteren hoch bewerteten Media getroffen werden
+// Metriken: precision@k, recall@k, Coverage (Anteil empfohlener Media am Katalog), Latenz-Perzentile, Durchsatz
+//
+// Entwickler-Werkzeug unter src/test, landet nicht im Server-Jar. Aufruf:
+//   mvn test-compile exec:java -Dexec.classpathScope=test \
+//       -Dexec.mainClass=org.example.evaluation.RecommenderEvaluation \
+//       -Dexec.args="--source=synthetic --users=2000 --media=500 --k=10"
+// --source=database liest ratings/media_entries aus der lokalen Postgres (application.properties)
+public class RecommenderEvaluation {
+    private static final int HIGH_RATING = 4;  // Ab so vielen Sternen gilt ein Test-Rating als Treffer
+    private static final int NEIGHBORS_PER_ITEM = 50;  // Nachbarn pro hoch bewertetem Media (item-basierte Strategien)
+
+    // Eine Empfehlungs-Strategie: liefert bis zu k Media-IDs für einen User
+    @FunctionalInterface
+    public interface Recommender {
+        List<Integer> recommend(String username, int k);
+    }
+
+    // Ergebnis einer Strategie (Latenzen in Millisekunden, Durchsatz in Requests pro Sekunde)
+    public record StrategyResult(String name, int users, double precision, double recall, double coverage,
+                                 double p50Millis, double p95Millis, double p99Millis, double throughput) {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        String source = options.getOrDefault("source", "synthetic");
+        int k = Integer.parseInt(options.getOrDefault("k", "10"));
+        double trainFraction = Double.parseDouble(options.getOrDefault("train", "0.8"));
+
+        EvaluationDataset dataset;
+        boolean database = "database".equals(source);
+        if (database) {
+            dataset = EvaluationDataset.fromDatabase();
+        } else if ("synthetic".equals(source)) {
+            dataset = EvaluationDataset.synthetic(
+                    Integer.parseInt(options.getOrDefault("users", "2000")),
+                    Integer.parseInt(options.getOrDefault("media", "500")),
+                    Integer.parseInt(options.getOrDefault("ratings-per-user", "20")),
+                    Long.parseLong(options.getOrDefault("seed", "42")));
+        } else {
+            throw new IllegalArgumentException("Unknown source: " + source);
+        }
+
+        EvaluationDataset.Split split = dataset.splitByTime(trainFraction);
+        System.out.printf("Dataset: %s, %d media, %d train ratings, %d test ratings, k=%d%n",
+                source, split.media().size(), split.train().size(), split.test().size(), k);
+
+        List<StrategyResult> results = evaluate(split, k, database);
+        System.out.printf("%-14s %7s %9s %9s %9s %9s %9s %9s %10s%n",
+                "strategy", "users", "prec@k", "recall@k", "coverage", "p50 ms", "p95 ms", "p99 ms", "req/s");
+        for (StrategyResult result : results) {
+            System.out.printf("%-14s %7d %9.4f %9.4f %9.4f %9.3f %9.3f %9.3f %10.1f%n",
+                    result.name(), result.users(), result.precision(), result.recall(), result.coverage(),
+                    result.p50Millis(), result.p95Millis(), result.p99Millis(), result.throughput());
+        }
+        if (database) {
+            System.out.println("Hinweis: 'sql' läuft auf der Live-DB und sieht die Test-Ratings "
+                    + "(schon bewertet = ausgeschlossen) - nur die Latenz ist aussagekräftig");
+        }
+    }
+
+    // Baut alle Strategien auf den Trainings-Ratings auf und bewertet sie gegen die Test-Ratings
+    // includeSql = zusätzlich die bestehende SQL-Query (UserRepository.getRecommendations) gegen die DB messen
+    public static List<StrategyResult> evaluate(EvaluationDataset.Split split, int k, boolean includeSql) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be greater than 0");
+        }
+        Map<String, Recommender> strategies = buildStrategies(split, includeSql);
+        Map<String, Set<Integer>> relevant = relevantByUser(split.test());
+
+        List<StrategyResult> results = new ArrayList<>();
+        for (Map.Entry<String, Recommender> strategy : strategies.entrySet()) {
+            results.add(evaluateStrategy(strategy.getKey(), strategy.getValue(), relevant, split.media().size(), k));
+        }
+        return results;
+    }
+
+    private static StrategyResult evaluateStrategy(String name, Recommender recommender,
+                                                   Map<String, Set<Integer>> relevant, int catalogSize, int k) {
+        long[] latencies = new long[relevant.size()];
+        Set<Integer> recommendedItems = new HashSet<>();
+        double precisionSum = 0.0;
+        double recallSum = 0.0;
+        int index = 0;
+
+        long started = System.nanoTime();
+        for (Map.Entry<String, Set<Integer>> user : relevant.entrySet()) {
+            long requestStart = System.nanoTime();
+            List<Integer> recommended = recommender.recommend(user.getKey(), k);
+            latencies[index++] = System.nanoTime() - requestStart;
+
+            int hits = 0;
+            for (int mediaId : recommended) {
+                if (user.getValue().contains(mediaId)) {
+                    hits++;
+                }
+            }
+            precisionSum += (double) hits / k;
+            recallSum += (double) hits / user.getValue().size();
+            recommendedItems.addAll(recommended);
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        int users = relevant.size();
+        Arrays.sort(latencies);
+        return new StrategyResult(name, users,
+                users == 0 ? 0.0 : precisionSum / users,
+                users == 0 ? 0.0 : recallSum / users,
+                catalogSize == 0 ? 0.0 : (double) recommendedItems.size() / catalogSize,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.95), percentileMillis(latencies, 0.99),
+                elapsedSeconds == 0.0 ? 0.0 : users / elapsedSeconds);
+    }
+
+    // Hoch bewertete Test-Media pro User (nur User mit mindestens einem Treffer werden bewertet)
+    static Map<String, Set<Integer>> relevantByUser(List<Rating> test) {
+        Map<String, Set<Integer>> relevant = new LinkedHashMap<>();
+        for (Rating rating : test) {
+            if (rating.getStars() >= HIGH_RATING) {
+                relevant.computeIfAbsent(rating.getUsername(), u -> new HashSet<>()).add(rating.getMediaId());
+            }
+        }
+        return relevant;
+    }
+
+    private static Map<String, Recommender> buildStrategies(EvaluationDataset.Split split, boolean includeSql) {
+        // Die Services lesen nur über die Repositories -> In-Memory Repositories mit den Trainingsdaten
+        MediaRepository mediaRepository = trainMediaRepository(split.media(), split.train());
+        RatingRepository ratingRepository = trainRatingRepository(split.train());
+
+        MediaCatalog catalog = new MediaCatalog(mediaRepository);
+        catalog.rebuild();
+        PopularityService popularityService = new PopularityService(catalog, mediaRepository);
+        popularityService.refresh();
+        CoOccurrenceService coOccurrenceService = new CoOccurrenceService(catalog, ratingRepository);
+        coOccurrenceService.rebuild();
+        SimilarMediaService similarMediaService = new SimilarMediaService(catalog, ratingRepository);
+        similarMediaService.rebuild();
+        UserRepository userRepository = new UserRepository();
+        RecommendationService recommendationService = new RecommendationService(userRepository, mediaRepository,
+                ratingRepository, catalog, popularityService, coOccurrenceService, similarMediaService);
+
+        Map<String, Recommender> strategies = new LinkedHashMap<>();
+        // Genre-Regel der SQL-Query (In-Memory Variante aus dem Batch-Pfad) inkl. Popularitäts-Fallback
+        strategies.put("genre", (username, k) -> {
+            List<Integer> ids = new ArrayList<>();
+            recommendationService.getRecommendationsBatch(List.of(username), k, result -> ids.addAll(ids(result)));
+            return ids;
+        });
+        strategies.put("popular", (username, k) ->
+                idsOf(popularityService.getPopular(Set.of(), similarMediaService.getRatedMedia(username), k)));
+        strategies.put("co-occurrence", (username, k) -> aggregateNeighbors(
+                coOccurrenceService.getHighRatedMedia(username), similarMediaService.getRatedMedia(username), k,
+                mediaId -> coOccurrenceService.getAlsoRated(mediaId, NEIGHBORS_PER_ITEM),
+                entry -> ((Number) entry.get("count")).doubleValue()));
+        strategies.put("similar", (username, k) -> aggregateNeighbors(
+                coOccurrenceService.getHighRatedMedia(username), similarMediaService.getRatedMedia(username), k,
+                mediaId -> similarMediaService.getSimilarMedia(mediaId, NEIGHBORS_PER_ITEM),
+                entry -> ((Number) entry.get("similarity")).doubleValue()));
+        if (includeSql) {
+            strategies.put("sql", (username, k) -> idsOf(userRepository.getRecommendations(username, k)));
+        }
+        return strategies;
+    }
+
+    // Summiert die Nachbar-Scores aller hoch bewerteten Media des Users (item-basierte Empfehlung)
+    private static List<Integer> aggregateNeighbors(int[] likedMedia, Set<Integer> rated, int k,
+                                                    IntFunction<List<Map<String, Object>>> neighbors,
+                                                    ToDoubleFunction<Map<String, Object>> score) {
+        Map<Integer, Double> scores = new HashMap<>();
+        for (int mediaId : likedMedia) {
+            List<Map<String, Object>> entries = neighbors.apply(mediaId);
+            if (entries == null) {
+                continue;
+            }
+            for (Map<String, Object> entry : entries) {
+                int id = (Integer) entry.get("id");
+                if (!rated.contains(id)) {
+                    scores.merge(id, score.applyAsDouble(entry), Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Media mit average_rating nur aus den Trainings-Ratings (sonst würden Test-Ratings ins Ranking einfließen)
+    private static MediaRepository trainMediaRepository(List<MediaEntry> media, List<Rating> train) {
+        Map<Integer, double[]> sums = new HashMap<>();  // mediaId -> {Summe Stars, Anzahl}
+        for (Rating rating : train) {
+            if (rating.isConfirmed()) {
+                double[] sum = sums.computeIfAbsent(rating.getMediaId(), id -> new double[2]);
+                sum[0] += rating.getStars();
+                sum[1]++;
+            }
+        }
+        List<MediaEntry> copies = new ArrayList<>();
+        for (MediaEntry entry : media) {
+            MediaEntry copy = new MediaEntry(entry.getId(), entry.getTitle(), entry.getDescription(),
+                    entry.getMediaType(), entry.getReleaseYear(), entry.getGenres(), entry.getAgeRestriction(),
+                    entry.getCreator());
+            double[] sum = sums.get(entry.getId());
+            copy.setAverageScore(sum == null ? 0.0 : sum[0] / sum[1]);
+            copy.setConfirmedCount(sum == null ? 0 : (int) sum[1]);
+            copies.add(copy);
+        }
+        List<MediaEntry> byRating = new ArrayList<>(copies);
+        byRating.sort((a, b) -> a.getAverageScore() != b.getAverageScore()
+                ? Double.compare(b.getAverageScore(), a.getAverageScore())
+                : Integer.compare(a.getId(), b.getId()));
+
+        return new MediaRepository() {
+            @Override
+            public List<MediaEntry> findAll() {
+                return copies;
+            }
+
+            @Override
+            public List<MediaEntry> findAllOrderedByRating() {
+                return byRating;
+            }
+        };
+    }
+
+    private static RatingRepository trainRatingRepository(List<Rating> train) {
+        Map<String, List<Rating>> byUser = new HashMap<>();
+        for (Rating rating : train) {
+            byUser.computeIfAbsent(rating.getUsername(), u -> new ArrayList<>()).add(rating);
+        }
+
+        return new RatingRepository() {
+            @Override
+            public List<Rating> getAllRatings() {
+                return train;
+            }
+
+            @Override
+            public Map<String, List<Rating>> getRatingsByUsers(List<String> usernames) {
+                Map<String, List<Rating>> result = new HashMap<>();
+                for (String username : usernames) {
+                    List<Rating> ratings = byUser.get(username);
+                    if (ratings != null) {
+                        result.put(username, ratings);
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> ids(Map<String, Object> batchResult) {
+        return idsOf((List<Map<String, Object>>) batchResult.get("recommendations"));
+    }
+
+    private static List<Integer> idsOf(List<Map<String, Object>> entries) {
+        List<Integer> ids = new ArrayList<>();
+        for (Map<String, Object> entry : entries) {
+            ids.add((Integer) entry.get("id"));
+        }
+        return ids;
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    // Einfaches --key=value Parsing
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
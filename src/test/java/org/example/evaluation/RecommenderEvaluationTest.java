@@ -0,0 +1,63 @@
+package org.example.evaluation;
+
+import org.example.model.Rating;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit Tests für die Offline-Evaluation auf synthetischen Daten (keine DB nötig)
+class RecommenderEvaluationTest {
+
+    // Test: Zeitliche Aufteilung - alle Trainings-Ratings liegen vor den Test-Ratings
+    @Test
+    void splitByTimeKeepsOrderTest() {
+        EvaluationDataset dataset = EvaluationDataset.synthetic(100, 50, 10, 7);
+
+        EvaluationDataset.Split split = dataset.splitByTime(0.8);
+
+        assertEquals(dataset.getRatings().size(), split.train().size() + split.test().size());
+        Rating lastTrain = split.train().get(split.train().size() - 1);
+        assertFalse(split.test().get(0).getTimestamp().isBefore(lastTrain.getTimestamp()));
+    }
+
+    // Test: Alle Strategien liefern Metriken im gültigen Bereich
+    @Test
+    void evaluateReportsMetricsForAllStrategiesTest() {
+        EvaluationDataset.Split split = EvaluationDataset.synthetic(300, 80, 10, 42).splitByTime(0.8);
+
+        List<RecommenderEvaluation.StrategyResult> results = RecommenderEvaluation.evaluate(split, 5, false);
+
+        assertEquals(List.of("genre", "popular", "co-occurrence", "similar"),
+            results.stream().map(RecommenderEvaluation.StrategyResult::name).toList());
+        for (RecommenderEvaluation.StrategyResult result : results) {
+            assertTrue(result.users() > 0);
+            assertTrue(result.precision() >= 0.0 && result.precision() <= 1.0);
+            assertTrue(result.recall() >= 0.0 && result.recall() <= 1.0);
+            assertTrue(result.coverage() > 0.0 && result.coverage() <= 1.0);
+            assertTrue(result.p50Millis() <= result.p99Millis());
+        }
+    }
+
+    // Test: Nur hoch bewertete Test-Ratings zählen als relevante Treffer
+    @Test
+    void relevantByUserOnlyCountsHighRatingsTest() {
+        Map<String, Set<Integer>> relevant = RecommenderEvaluation.relevantByUser(List.of(
+            new Rating(1, 10, "alice", 5, null),
+            new Rating(2, 11, "alice", 2, null),
+            new Rating(3, 12, "bob", 3, null)
+        ));
+
+        assertEquals(Map.of("alice", Set.of(10)), relevant);
+    }
+
+    // Test: Ungültiger Trainings-Anteil wirft Exception
+    @Test
+    void splitByTimeWithInvalidFractionTest() {
+        EvaluationDataset dataset = EvaluationDataset.synthetic(10, 10, 5, 1);
+        assertThrows(IllegalArgumentException.class, () -> dataset.splitByTime(1.0));
+    }
+}
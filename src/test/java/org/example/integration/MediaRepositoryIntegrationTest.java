@@ -0,0 +1,86 @@
+package org.example.integration;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.User;
+import org.example.repository.FavoriteRepository;
+import org.example.repository.MediaRepository;
+import org.example.repository.MediaRepository.ViewerAnnotation;
+import org.example.repository.RatingRepository;
+import org.example.repository.UserRepository;
+import org.example.util.DatabaseConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Integration Test für MediaRepository-Queries gegen die echte Datenbank (Mapping von NULL-Spalten)
+// WICHTIG: Docker PostgreSQL muss laufen (docker-compose up -d), sonst wird der Test übersprungen
+class MediaRepositoryIntegrationTest {
+
+    private static boolean databaseAvailable = false;
+    private static final MediaRepository mediaRepository = new MediaRepository();
+    private static final RatingRepository ratingRepository = new RatingRepository();
+    private static final FavoriteRepository favoriteRepository = new FavoriteRepository();
+    private static final List<Integer> mediaIds = new ArrayList<>();
+    private static String username;
+
+    @BeforeAll
+    static void setUp() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            databaseAvailable = conn.isValid(2);
+        } catch (Exception e) {
+            databaseAvailable = false;
+            System.out.println("WARNING: Database not reachable, media repository tests will be skipped");
+            return;
+        }
+
+        UserRepository userRepository = new UserRepository();
+        userRepository.createTable();
+        mediaRepository.createTable();
+        ratingRepository.createTable();
+        favoriteRepository.createTable();
+
+        username = "annotations_" + System.currentTimeMillis();
+        userRepository.save(new User(username, "secret"));
+        for (int i = 0; i < 4; i++) {
+            mediaIds.add(mediaRepository.save(new MediaEntry(0, "Annotated " + i, "viewer annotations",
+                    MediaType.MOVIE, 2024, List.of("test"), 0, username)));
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (databaseAvailable) {
+            mediaIds.forEach(mediaRepository::delete);  // Ratings und Favoriten werden per Cascade mitgelöscht
+        }
+    }
+
+    static boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+
+    // Test: Favorit ohne Rating -> stars null (nicht 0), Rating ohne Favorit, beides, nichts -> fehlt in der Map
+    @Test
+    @EnabledIf("isDatabaseAvailable")
+    void viewerAnnotationsMapUnratedFavoritesToNullStarsTest() {
+        favoriteRepository.addFavorite(username, mediaIds.get(0));
+        ratingRepository.upsertRating(mediaIds.get(1), username, 3, "rated only", null);
+        favoriteRepository.addFavorite(username, mediaIds.get(2));
+        ratingRepository.upsertRating(mediaIds.get(2), username, 5, "both", null);
+
+        Map<Integer, ViewerAnnotation> annotations = mediaRepository.getViewerAnnotations(username, mediaIds);
+
+        assertEquals(new ViewerAnnotation(true, null), annotations.get(mediaIds.get(0)));
+        assertEquals(new ViewerAnnotation(false, 3), annotations.get(mediaIds.get(1)));
+        assertEquals(new ViewerAnnotation(true, 5), annotations.get(mediaIds.get(2)));
+        assertFalse(annotations.containsKey(mediaIds.get(3)));
+    }
+}
@@ -0,0 +1,179 @@
+package org.example.integration;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.model.User;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.example.repository.UserRepository;
+import org.example.service.RatingListener;
+import org.example.service.RatingService;
+import org.example.util.DatabaseConnection;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Integration Test: viele User bewerten gleichzeitig dasselbe Media, ein User schickt sein Rating mehrfach parallel
+// Prüft dass die per Delta gepflegten Aggregate (Histogramm, confirmed_count, Durchschnitt) exakt bleiben
+// WICHTIG: Docker PostgreSQL muss laufen (docker-compose up -d), sonst wird der Test übersprungen
+class RatingConcurrencyIntegrationTest {
+
+    private static final int RATERS = 40;
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 10;
+
+    private static boolean databaseAvailable = false;
+    private static final MediaRepository mediaRepository = new MediaRepository();
+    private static final RatingRepository ratingRepository = new RatingRepository();
+    private static int mediaId;
+    private static String userPrefix;
+
+    @BeforeAll
+    static void setUp() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            databaseAvailable = conn.isValid(2);
+        } catch (Exception e) {
+            databaseAvailable = false;
+            System.out.println("WARNING: Database not reachable, rating concurrency tests will be skipped");
+            return;
+        }
+
+        UserRepository userRepository = new UserRepository();
+        userRepository.createTable();
+        mediaRepository.createTable();
+        ratingRepository.createTable();
+
+        userPrefix = "concurrency_" + System.currentTimeMillis() + "_";
+        for (int i = 0; i < RATERS; i++) {
+            userRepository.save(new User(userPrefix + i, "secret"));
+        }
+        mediaId = mediaRepository.save(new MediaEntry(0, "Concurrency Test", "parallel ratings",
+                MediaType.MOVIE, 2024, List.of("test"), 0, userPrefix + 0));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (databaseAvailable) {
+            mediaRepository.delete(mediaId);  // Ratings werden per Cascade mitgelöscht
+        }
+    }
+
+    static boolean isDatabaseAvailable() {
+        return databaseAvailable;
+    }
+
+    // Test: Parallele Erst-Ratings, Änderungen und Bestätigungen -> Aggregate entsprechen exakt den Ratings
+    @Test
+    @EnabledIf("isDatabaseAvailable")
+    void parallelRatersKeepAggregatesExactTest() throws Exception {
+        RatingService ratingService = new RatingService(ratingRepository);
+
+        // Jeder User bewertet zweimal (Insert, dann Update) -> am Ende zählt nur die zweite Bewertung
+        runInParallel(i -> ratingService.createOrUpdateRating(mediaId, userPrefix + i, 1 + i % 5, "first"));
+        runInParallel(i -> ratingService.createOrUpdateRating(mediaId, userPrefix + i, 5 - i % 5, "second"));
+
+        Map<String, Object> stats = mediaRepository.getRatingStats(mediaId).orElseThrow();
+        assertEquals(RATERS, stats.get("totalCount"));
+        assertEquals(0, stats.get("confirmedCount"));
+        assertArrayEquals(expectedHistogram(), (int[]) stats.get("histogramTotal"));
+
+        // Alle Ratings parallel bestätigen
+        List<Integer> ratingIds = new ArrayList<>();
+        ratingService.getRatingsByMediaId(mediaId).forEach(rating -> ratingIds.add(rating.getId()));
+        assertEquals(RATERS, ratingIds.size());
+        runInParallel(i -> ratingService.confirmRating(ratingIds.get(i)));
+
+        stats = mediaRepository.getRatingStats(mediaId).orElseThrow();
+        assertEquals(RATERS, stats.get("confirmedCount"));
+        assertArrayEquals(expectedHistogram(), (int[]) stats.get("histogram"));
+        assertEquals(3.0, (double) stats.get("averageRating"), 0.01);
+
+        // Abgleich mit den tatsächlichen Ratings findet nichts zu reparieren
+        assertEquals(0, mediaRepository.repairRatingAggregates());
+    }
+
+    // Test: Derselbe User schickt sein erstes Rating mehrfach gleichzeitig (Doppelklick, Retry des Clients)
+    // -> genau ein neues Rating in den Aggregaten und genau ein "neues Rating"-Event für die Listener
+    @Test
+    @EnabledIf("isDatabaseAvailable")
+    void sameUserParallelFirstRatingsCountOnceTest() throws Exception {
+        RatingService ratingService = new RatingService(ratingRepository);
+        AtomicInteger newRatingEvents = new AtomicInteger();
+        ratingService.addListener(new RatingListener() {
+            @Override
+            public void onRatingSaved(Rating previous, Rating current) {
+                if (previous == null) {
+                    newRatingEvents.incrementAndGet();
+                }
+            }
+        });
+
+        for (int round = 0; round < ROUNDS; round++) {
+            int roundMediaId = mediaRepository.save(new MediaEntry(0, "Double Submit " + round, "same user",
+                    MediaType.MOVIE, 2024, List.of("test"), 0, userPrefix + 0));
+            try {
+                newRatingEvents.set(0);
+                runInParallel(i -> ratingService.createOrUpdateRating(roundMediaId, userPrefix + 0, 4, "double"));
+
+                Map<String, Object> stats = mediaRepository.getRatingStats(roundMediaId).orElseThrow();
+                assertEquals(1, stats.get("totalCount"));
+                assertArrayEquals(new int[]{0, 0, 0, 1, 0}, (int[]) stats.get("histogramTotal"));
+                assertEquals(1, newRatingEvents.get());
+            } finally {
+                mediaRepository.delete(roundMediaId);
+            }
+        }
+    }
+
+    // Zweite Runde: User i hat 5 - i % 5 Sterne -> jede Sterne-Stufe gleich oft
+    private static int[] expectedHistogram() {
+        int[] histogram = new int[5];
+        for (int i = 0; i < RATERS; i++) {
+            histogram[4 - i % 5]++;
+        }
+        return histogram;
+    }
+
+    private interface RaterTask {
+        void run(int rater) throws Exception;
+    }
+
+    // Startet alle Rater gleichzeitig (Latch) und wartet bis alle fertig sind; Fehler schlagen den Test fehl
+    private static void runInParallel(RaterTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < RATERS; i++) {
+                int rater = i;
+                Callable<Void> call = () -> {
+                    start.await();
+                    task.run(rater);
+                    return null;
+                };
+                futures.add(pool.submit(call));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
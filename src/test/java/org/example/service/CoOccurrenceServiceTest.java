@@ -0,0 +1,95 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für CoOccurrenceService - "User die das mochten, mochten auch"
+@ExtendWith(MockitoExtension.class)
+class CoOccurrenceServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private CoOccurrenceService coOccurrenceService;
+
+    @BeforeEach
+    void setUp() {
+        when(mediaRepository.findAll()).thenReturn(List.of(media(1), media(2), media(3)));
+        when(ratingRepository.getAllRatings()).thenReturn(List.of(
+            rating(1, "alice", 5), rating(2, "alice", 4), rating(3, "alice", 5),
+            rating(1, "bob", 5), rating(2, "bob", 5),
+            rating(1, "carol", 5), rating(3, "carol", 2)  // 2 Sterne zählen nicht
+        ));
+
+        MediaCatalog catalog = new MediaCatalog(mediaRepository);
+        catalog.rebuild();
+        coOccurrenceService = new CoOccurrenceService(catalog, ratingRepository);
+        coOccurrenceService.rebuild();
+    }
+
+    // Test: Zählt nur User die beide Media mit >= 4 Sternen bewertet haben
+    @Test
+    void getAlsoRatedCountsHighRatingsTest() {
+        List<Map<String, Object>> alsoRated = coOccurrenceService.getAlsoRated(1, 10);
+
+        assertEquals(2, alsoRated.size());
+        assertEquals(2, alsoRated.get(0).get("id"));
+        assertEquals(2, alsoRated.get(0).get("count"));
+        assertEquals(3, alsoRated.get(1).get("id"));
+        assertEquals(1, alsoRated.get(1).get("count"));
+    }
+
+    // Test: Herabgestuftes und gelöschtes Rating verringern die Anzahl
+    @Test
+    void downgradeAndDeleteDecrementCountsTest() {
+        coOccurrenceService.onRatingSaved(rating(2, "bob", 5), rating(2, "bob", 3));
+        coOccurrenceService.onRatingDeleted(rating(3, "alice", 5));
+
+        List<Map<String, Object>> alsoRated = coOccurrenceService.getAlsoRated(1, 10);
+        assertEquals(1, alsoRated.size());
+        assertEquals(2, alsoRated.get(0).get("id"));
+        assertEquals(1, alsoRated.get(0).get("count"));
+    }
+
+    // Test: Upgrade auf >= 4 Sterne erhöht die Anzahl ohne DB-Zugriff
+    @Test
+    void upgradeIncrementsCountsTest() {
+        coOccurrenceService.onRatingSaved(rating(3, "carol", 2), rating(3, "carol", 4));
+
+        List<Map<String, Object>> alsoRated = coOccurrenceService.getAlsoRated(3, 10);
+        assertEquals(1, alsoRated.get(0).get("id"));
+        assertEquals(2, alsoRated.get(0).get("count"));
+        verify(ratingRepository, times(1)).getAllRatings();
+    }
+
+    // Test: Unbekanntes Media gibt null zurück
+    @Test
+    void getAlsoRatedUnknownMediaTest() {
+        assertNull(coOccurrenceService.getAlsoRated(99, 10));
+    }
+
+    private MediaEntry media(int id) {
+        return new MediaEntry(id, "Media " + id, "", MediaType.MOVIE, 2000, List.of("Drama"), 12, "creator");
+    }
+
+    private Rating rating(int mediaId, String username, int stars) {
+        return new Rating(0, mediaId, username, stars, null);
+    }
+}
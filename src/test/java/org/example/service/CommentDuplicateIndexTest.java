@@ -0,0 +1,92 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// Unit Tests für CommentDuplicateIndex (MinHash/LSH Erkennung fast gleicher Kommentare)
+@ExtendWith(MockitoExtension.class)
+class CommentDuplicateIndexTest {
+    private static final String SPAM = "Best movie ever!!! Watch it for free at cheap-streams dot com, no signup needed";
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    // Test: Leicht variierte Kopie auf anderem Media wird erkannt, unabhängiger Kommentar nicht
+    @Test
+    void detectsVariedCopiesOnOtherMediaTest() {
+        CommentDuplicateIndex index = new CommentDuplicateIndex(ratingRepository, 0.8, 40);
+        index.onRatingSaved(null, rating(1, 10, "spammer1", SPAM));
+
+        OptionalInt match = index.findDuplicate(20, "spammer2",
+                "best movie ever!! watch it for FREE at cheap-streams dot com - no signup needed");
+        assertEquals(OptionalInt.of(1), match);
+        assertTrue(index.findDuplicate(20, "critic",
+                "The pacing drags in the second act, but the score and cinematography carry it.").isEmpty());
+        assertEquals(1L, index.getMetrics().get("duplicatesFound"));
+    }
+
+    // Test: Kurze Kommentare und das eigene Rating (gleicher User, gleiches Media) zählen nicht
+    @Test
+    void ignoresShortCommentsAndOwnRatingTest() {
+        CommentDuplicateIndex index = new CommentDuplicateIndex(ratingRepository, 0.8, 40);
+        index.onRatingSaved(null, rating(1, 10, "alice", "Great movie!"));
+        index.onRatingSaved(null, rating(2, 10, "bob", SPAM));
+
+        assertTrue(index.findDuplicate(11, "carol", "Great movie!").isEmpty());
+        assertTrue(index.findDuplicate(10, "bob", SPAM).isEmpty());  // Update des eigenen Kommentars
+        assertEquals(1, index.getMetrics().get("indexedComments"));
+
+        index.onRatingDeleted(rating(2, 10, "bob", SPAM));
+        assertTrue(index.findDuplicate(11, "carol", SPAM).isEmpty());
+        assertEquals(0, index.getMetrics().get("buckets"));
+    }
+
+    // Test: Backfill indexiert bestehende Kommentare und zählt spätere Kopien früherer Kommentare
+    @Test
+    void backfillIndexesExistingCommentsTest() {
+        doAnswer(invocation -> {
+            Consumer<Rating> consumer = invocation.getArgument(0);
+            List.of(rating(1, 10, "a", SPAM),
+                    rating(2, 11, "b", SPAM + "!!"),
+                    rating(3, 12, "c", "Solid sequel with a surprisingly emotional ending and great cast"),
+                    rating(4, 13, "d", "Best movie ever, watch it for free at cheap-streams dot com, no signup needed"))
+                    .forEach(consumer);
+            return null;
+        }).when(ratingRepository).forEachComment(any());
+        CommentDuplicateIndex index = new CommentDuplicateIndex(ratingRepository, 0.8, 40);
+
+        assertEquals(2, index.backfill());
+        assertEquals(4, index.getMetrics().get("indexedComments"));
+        assertTrue(index.findDuplicate(99, "e", SPAM).isPresent());
+    }
+
+    // Test: Ein voller Bucket (gemeinsamer Textbaustein, unter der Schwelle) schaltet die übrigen Bänder nicht ab
+    @Test
+    void crowdedBucketDoesNotHideDuplicatesTest() {
+        CommentDuplicateIndex index = new CommentDuplicateIndex(ratingRepository, 0.8, 40);
+        index.onRatingSaved(null, rating(1, 10, "spammer1", SPAM));
+        for (int id = 2; id <= 200; id++) {  // ~77% ähnlich: teilt einzelne Bänder mit SPAM, ist aber kein Treffer
+            index.onRatingSaved(null, rating(id, id, "fan" + id,
+                    "Best movie ever!!! Watch it for free at cheap-streams dot com, no signup, what a cast"));
+        }
+
+        assertEquals(OptionalInt.of(1), index.findDuplicate(500, "spammer2", SPAM));
+        assertTrue((Long) index.getMetrics().get("comparisons") < 200);  // Volle Buckets werden gekappt
+    }
+
+    private static Rating rating(int id, int mediaId, String username, String comment) {
+        return new Rating(id, mediaId, username, 5, comment);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.service;
+
+import org.example.util.AhoCorasick;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Unit Tests für CommentScreeningService und den Aho-Corasick Automaten
+class CommentScreeningServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Test: Überlappende Begriffe werden alle gefunden, nur als ganze Wörter und ohne Groß-/Kleinschreibung
+    @Test
+    void automatonFindsOverlappingWholeWordsTest() {
+        AhoCorasick automaton = new AhoCorasick(List.of("he", "she", "hers", "his", "bad word", " ", "SHE"));
+
+        assertEquals(5, automaton.size());  // Leere Begriffe ignoriert, "SHE" = "she"
+        assertEquals(Set.of("she", "he", "hers"), automaton.findAll("She said: he? HERS!"));
+        assertEquals(Set.of("bad word"), automaton.findAll("a Bad Word here"));
+        assertTrue(automaton.findAll("ushers, shell, history, this").isEmpty());  // Nur Teilwörter
+        assertFalse(automaton.containsAny(null));
+        assertFalse(new AhoCorasick(List.of()).containsAny("anything"));
+    }
+
+    // Test: Ohne Wörterbuch wird nichts geprüft (manuelle Moderation wie bisher)
+    @Test
+    void withoutDictionaryCommentsAreUnscreenedTest() {
+        CommentScreeningService service = new CommentScreeningService(null, 0);
+
+        assertFalse(service.reload());
+        assertEquals(CommentScreeningService.Result.UNSCREENED, service.screen("whatever"));
+        assertEquals(false, service.getMetrics().get("enabled"));
+    }
+
+    // Test: Geänderte Datei wird beim nächsten reload() übernommen, unveränderte nicht erneut geladen
+    @Test
+    void reloadPicksUpChangedDictionaryTest() throws Exception {
+        Path dictionary = tempDir.resolve("banned.txt");
+        Files.writeString(dictionary, "# gesperrt\nspoiler\n\n");
+        Files.setLastModifiedTime(dictionary, FileTime.fromMillis(1_000_000));
+        CommentScreeningService service = new CommentScreeningService(dictionary, 0);
+
+        assertTrue(service.reload());
+        assertFalse(service.reload());
+        assertEquals(CommentScreeningService.Result.FLAGGED, service.screen("Huge SPOILER ahead"));
+        assertEquals(CommentScreeningService.Result.CLEAN, service.screen("great movie"));
+        assertEquals(CommentScreeningService.Result.CLEAN, service.screen(null));
+
+        Files.writeString(dictionary, "spoiler\nterrible\n");
+        Files.setLastModifiedTime(dictionary, FileTime.fromMillis(2_000_000));
+        assertTrue(service.reload());
+        assertEquals(CommentScreeningService.Result.FLAGGED, service.screen("terrible acting"));
+        assertEquals(Set.of("terrible", "spoiler"), service.findTerms("terrible spoiler"));
+
+        // Fehlende Datei: bisheriges Wörterbuch bleibt aktiv
+        Files.delete(dictionary);
+        assertFalse(service.reload());
+        assertEquals(CommentScreeningService.Result.FLAGGED, service.screen("spoiler"));
+        assertEquals(2L, service.getMetrics().get("reloads"));
+        assertEquals(3L, service.getMetrics().get("flagged"));
+    }
+}
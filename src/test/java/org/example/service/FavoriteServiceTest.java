@@ -1,6 +1,9 @@
 package org.example.service;
 
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
 import org.example.repository.FavoriteRepository;
+import org.example.repository.FavoriteRepository.FavoriteChange;
 import org.example.repository.MediaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +11,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -36,15 +42,13 @@ class FavoriteServiceTest {
         String username = "testuser";
         int mediaId = 1;
 
-        when(mediaRepository.getMediaById(mediaId)).thenReturn(new org.example.model.MediaEntry());
-        when(favoriteRepository.isFavorite(username, mediaId)).thenReturn(false);
-        when(favoriteRepository.addFavorite(username, mediaId)).thenReturn(true);
+        when(favoriteRepository.addFavorite(username, mediaId)).thenReturn(FavoriteChange.ADDED);
 
         assertDoesNotThrow(() -> favoriteService.addFavorite(username, mediaId));
 
-        verify(mediaRepository).getMediaById(mediaId);
-        verify(favoriteRepository).isFavorite(username, mediaId);
         verify(favoriteRepository).addFavorite(username, mediaId);
+        verify(favoriteRepository, never()).isFavorite(anyString(), anyInt());
+        verifyNoInteractions(mediaRepository);
     }
 
     // Test: Adding already favorited media throws exception
@@ -53,8 +57,7 @@ class FavoriteServiceTest {
         String username = "testuser";
         int mediaId = 1;
 
-        when(mediaRepository.getMediaById(mediaId)).thenReturn(new org.example.model.MediaEntry());
-        when(favoriteRepository.isFavorite(username, mediaId)).thenReturn(true);
+        when(favoriteRepository.addFavorite(username, mediaId)).thenReturn(FavoriteChange.UNCHANGED);
 
         IllegalStateException exception = assertThrows(
             IllegalStateException.class,
@@ -62,7 +65,23 @@ class FavoriteServiceTest {
         );
 
         assertEquals("Media is already in favorites", exception.getMessage());
-        verify(favoriteRepository, never()).addFavorite(anyString(), anyInt());
+    }
+
+    // Test: Adding unknown media throws exception
+    @Test
+    void addFavoriteMediaNotFoundTest() {
+        when(favoriteRepository.addFavorite("testuser", 99)).thenReturn(FavoriteChange.MEDIA_NOT_FOUND);
+
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.addFavorite("testuser", 99));
+    }
+
+    // Test: Removing media that is not a favorite throws exception
+    @Test
+    void removeFavoriteNotFoundTest() {
+        when(favoriteRepository.removeFavorite("testuser", 1)).thenReturn(false);
+
+        assertThrows(IllegalStateException.class, () -> favoriteService.removeFavorite("testuser", 1));
+        verify(favoriteRepository, never()).isFavorite(anyString(), anyInt());
     }
 
     // Test: Toggle favorite adds when not favorited
@@ -70,16 +89,17 @@ class FavoriteServiceTest {
     void toggleFavoriteAddTest() {
         String username = "testuser";
         int mediaId = 1;
+        FavoriteListener listener = mock(FavoriteListener.class);
+        favoriteService.addListener(listener);
 
-        when(mediaRepository.getMediaById(mediaId)).thenReturn(new org.example.model.MediaEntry());
-        when(favoriteRepository.isFavorite(username, mediaId)).thenReturn(false);
-        when(favoriteRepository.addFavorite(username, mediaId)).thenReturn(true);
+        when(favoriteRepository.toggleFavorite(username, mediaId)).thenReturn(FavoriteChange.ADDED);
 
         boolean result = favoriteService.toggleFavorite(username, mediaId);
 
         assertTrue(result);
-        verify(favoriteRepository).addFavorite(username, mediaId);
-        verify(favoriteRepository, never()).removeFavorite(anyString(), anyInt());
+        verify(favoriteRepository).toggleFavorite(username, mediaId);
+        verify(listener).onFavoriteAdded(username, mediaId);
+        verifyNoMoreInteractions(favoriteRepository);
     }
 
     // Test: Toggle favorite removes when already favorited
@@ -87,15 +107,48 @@ class FavoriteServiceTest {
     void toggleFavoriteRemoveTest() {
         String username = "testuser";
         int mediaId = 1;
+        FavoriteListener listener = mock(FavoriteListener.class);
+        favoriteService.addListener(listener);
 
-        when(mediaRepository.getMediaById(mediaId)).thenReturn(new org.example.model.MediaEntry());
-        when(favoriteRepository.isFavorite(username, mediaId)).thenReturn(true);
-        when(favoriteRepository.removeFavorite(username, mediaId)).thenReturn(true);
+        when(favoriteRepository.toggleFavorite(username, mediaId)).thenReturn(FavoriteChange.REMOVED);
 
         boolean result = favoriteService.toggleFavorite(username, mediaId);
 
         assertFalse(result);
-        verify(favoriteRepository).removeFavorite(username, mediaId);
-        verify(favoriteRepository, never()).addFavorite(anyString(), anyInt());
+        verify(listener).onFavoriteRemoved(username, mediaId);
+        verifyNoMoreInteractions(favoriteRepository);
+    }
+
+    // Test: Toggle on unknown media throws, concurrent add reports favorited without event
+    @Test
+    void toggleFavoriteMediaNotFoundAndUnchangedTest() {
+        FavoriteListener listener = mock(FavoriteListener.class);
+        favoriteService.addListener(listener);
+
+        when(favoriteRepository.toggleFavorite("testuser", 99)).thenReturn(FavoriteChange.MEDIA_NOT_FOUND);
+        when(favoriteRepository.toggleFavorite("testuser", 1)).thenReturn(FavoriteChange.UNCHANGED);
+
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.toggleFavorite("testuser", 99));
+        assertTrue(favoriteService.toggleFavorite("testuser", 1));
+        verifyNoInteractions(listener);
+    }
+
+    // Test: Meistfavorisierte Media kommen aus dem gepflegten Zähler, Limit wird geprüft
+    @Test
+    void getMostFavoritedTest() {
+        MediaEntry popular = new MediaEntry(7, "Inception", null, MediaType.MOVIE, 2010, List.of("Sci-Fi"), 12, "alice");
+        popular.setFavoriteCount(42);
+        when(mediaRepository.findMostFavorited(5)).thenReturn(List.of(popular));
+
+        List<Map<String, Object>> result = favoriteService.getMostFavorited(5);
+
+        assertEquals(1, result.size());
+        assertEquals(7, result.get(0).get("id"));
+        assertEquals(1, result.get(0).get("rank"));
+        assertEquals(42, result.get(0).get("favoriteCount"));
+        assertThrows(IllegalArgumentException.class, () -> favoriteService.getMostFavorited(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> favoriteService.getMostFavorited(FavoriteService.MAX_LIMIT + 1));
+        verifyNoInteractions(favoriteRepository);
     }
 }
@@ -0,0 +1,255 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository.DeletedMedia;
+import org.example.repository.RatingRepository;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für LeaderboardService - In-Memory Rangliste mit inkrementellen Updates
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 30);
+    private final MutableClock clock = new MutableClock(NOW);
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.getLeaderboardStats()).thenReturn(List.of(
+            stats("alice", 3, 10, 12, 1, 0),
+            stats("bob", 5, 2, 10, 4, 3),
+            stats("carol", 0, 0, 0, 0, 1)
+        ));
+        when(ratingRepository.getRatingsSince(any())).thenReturn(List.of(
+            rating("alice", NOW.minusHours(2)),
+            rating("bob", NOW.minusDays(3)),
+            rating("bob", NOW.minusDays(20))
+        ));
+        leaderboardService = new LeaderboardService(userRepository, ratingRepository, clock);
+        leaderboardService.rebuild();
+    }
+
+    // Test: Leaderboard sortiert nach Anzahl Ratings mit Rang
+    @Test
+    void getLeaderboardTest() {
+        List<Map<String, Object>> leaderboard = leaderboardService.getLeaderboard(2);
+
+        assertEquals(2, leaderboard.size());
+        assertEquals("bob", leaderboard.get(0).get("username"));
+        assertEquals(5, leaderboard.get(0).get("ratingCount"));
+        assertEquals(1, leaderboard.get(0).get("rank"));
+        assertEquals("alice", leaderboard.get(1).get("username"));
+        assertEquals(2, leaderboard.get(1).get("rank"));
+    }
+
+    // Test: Neue und gelöschte Ratings ändern die Rangliste ohne DB-Zugriff
+    @Test
+    void ratingEventsUpdateLeaderboardTest() {
+        Rating rating = new Rating(1, 10, "alice", 4, null);
+        leaderboardService.onRatingSaved(null, rating);
+        leaderboardService.onRatingSaved(null, new Rating(2, 11, "alice", 4, null));
+        leaderboardService.onRatingSaved(null, new Rating(3, 12, "alice", 4, null));
+        leaderboardService.onRatingSaved(rating, rating);  // Update zählt nicht
+
+        assertEquals("alice", leaderboardService.getLeaderboard(1).get(0).get("username"));
+        assertEquals(6, leaderboardService.getLeaderboard(1).get(0).get("ratingCount"));
+
+        leaderboardService.onRatingDeleted(rating);
+        assertEquals("alice", leaderboardService.getLeaderboard(1).get(0).get("username"));  // 5:5, alphabetisch
+        verify(userRepository, times(1)).getLeaderboardStats();
+    }
+
+    // Test: Neu registrierter User erscheint mit 0 Ratings
+    @Test
+    void onUserRegisteredAddsUserTest() {
+        leaderboardService.onUserRegistered("dave");
+
+        List<Map<String, Object>> leaderboard = leaderboardService.getLeaderboard(10);
+        assertEquals(4, leaderboard.size());
+        assertEquals("dave", leaderboard.get(3).get("username"));
+        assertEquals(0, leaderboard.get(3).get("ratingCount"));
+    }
+
+    // Test: Rang eines Users mit Nachbarn darüber und darunter
+    @Test
+    void getRankAroundTest() {
+        Map<String, Object> rank = leaderboardService.getRankAround("alice", 1);
+
+        assertEquals(2, rank.get("rank"));
+        assertEquals(3, rank.get("ratingCount"));
+        assertEquals(3, rank.get("totalUsers"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> neighbors = (List<Map<String, Object>>) rank.get("neighbors");
+        assertEquals(List.of("bob", "alice", "carol"), neighbors.stream().map(e -> e.get("username")).toList());
+    }
+
+    // Test: Fenster am Anfang der Liste wird abgeschnitten, unbekannter User liefert null
+    @Test
+    void getRankAroundAtTopAndUnknownUserTest() {
+        Map<String, Object> rank = leaderboardService.getRankAround("bob", 5);
+
+        assertEquals(1, rank.get("rank"));
+        assertEquals(3, ((List<?>) rank.get("neighbors")).size());
+        assertNull(leaderboardService.getRankAround("nobody", 5));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getRankAround("bob", -1));
+    }
+
+    // Test: Zeitfenster zählen nur Ratings im jeweiligen Zeitraum
+    @Test
+    void getLeaderboardByPeriodTest() {
+        assertEquals(List.of("alice"), usernames(leaderboardService.getLeaderboard(10, null, "day")));
+        assertEquals(List.of("alice", "bob"), usernames(leaderboardService.getLeaderboard(10, null, "week")));
+        assertEquals(List.of("bob", "alice"), usernames(leaderboardService.getLeaderboard(10, null, "month")));
+        assertEquals(2, leaderboardService.getLeaderboard(10, null, "month").get(0).get("ratingCount"));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getLeaderboard(10, null, "year"));
+    }
+
+    // Test: Nach Ablauf des Fensters entfernt die Kompaktierung den User aus dem Tages-Leaderboard
+    @Test
+    void compactExpiresRatingsFromWindowTest() {
+        leaderboardService.onRatingSaved(null, rating("carol", NOW));
+        assertEquals(List.of("alice", "carol"), usernames(leaderboardService.getLeaderboard(10, null, "day")));
+
+        clock.set(NOW.plusHours(23));
+        leaderboardService.compact();
+        assertEquals(List.of("carol"), usernames(leaderboardService.getLeaderboard(10, null, "day")));
+        assertEquals(List.of("alice", "bob", "carol"), usernames(leaderboardService.getLeaderboard(10, null, "week")));
+
+        clock.set(NOW.plusDays(11));  // Bobs älteres Rating ist jetzt 31 Tage alt
+        leaderboardService.compact();
+        assertEquals(List.of(), usernames(leaderboardService.getLeaderboard(10, null, "day")));
+        assertEquals(List.of(), usernames(leaderboardService.getLeaderboard(10, null, "week")));
+        assertEquals(List.of("alice", "bob", "carol"), usernames(leaderboardService.getLeaderboard(10, null, "month")));
+        assertEquals(1, leaderboardService.getLeaderboard(10, null, "month").get(1).get("ratingCount"));  // 20 Tage altes Rating entfernt
+    }
+
+    // Test: Leaderboards nach weiteren Kennzahlen, gepflegt über Events
+    @Test
+    void getLeaderboardByMetricTest() {
+        assertEquals(List.of("alice", "bob", "carol"), usernames(leaderboardService.getLeaderboard(10, "likes", null)));
+        assertEquals(List.of("alice", "bob"), usernames(leaderboardService.getLeaderboard(10, "averageStars", null)));
+        assertEquals(4.0, leaderboardService.getLeaderboard(1, "averageStars", null).get(0).get("averageStars"));
+
+        Rating rating = new Rating(1, 10, "carol", 3, null);
+        leaderboardService.onRatingLiked(rating);
+        leaderboardService.onFavoriteAdded("carol", 10);
+        leaderboardService.onFavoriteAdded("carol", 11);
+        leaderboardService.onFavoriteAdded("carol", 12);
+        MediaEntry media = new MediaEntry();
+        media.setCreator("carol");
+        leaderboardService.onMediaCreated(media);
+
+        assertEquals(1, leaderboardService.getLeaderboard(10, "likes", null).get(2).get("likesReceived"));
+        assertEquals("carol", leaderboardService.getLeaderboard(1, "favorites", null).get(0).get("username"));
+        assertEquals(4, leaderboardService.getLeaderboard(1, "favorites", null).get(0).get("favoriteCount"));
+        assertEquals(List.of("bob", "alice", "carol"), usernames(leaderboardService.getLeaderboard(10, "media", null)));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getLeaderboard(10, "likes", "day"));
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getLeaderboard(10, "unknown", null));
+    }
+
+    // Test: Durchschnitts-Sterne folgen Updates und Löschungen
+    @Test
+    void averageStarsFollowsRatingEventsTest() {
+        Rating previous = new Rating(1, 10, "carol", 2, null);
+        leaderboardService.onRatingSaved(null, previous);
+        Rating updated = new Rating(1, 10, "carol", 5, null);
+        leaderboardService.onRatingSaved(previous, updated);
+
+        assertEquals("carol", leaderboardService.getLeaderboard(1, "averageStars", null).get(0).get("username"));
+        assertEquals(5.0, leaderboardService.getLeaderboard(1, "averageStars", null).get(0).get("averageStars"));
+
+        leaderboardService.onRatingDeleted(updated);
+        assertNull(leaderboardService.getRankAround("carol", 1, "averageStars", null));
+    }
+
+    // Test: Gelöschtes Media zieht nur die mitgelöschten Ratings und Favoriten ab, ohne die DB neu zu lesen
+    @Test
+    void onMediaDeletedSubtractsRemovedContributionsTest() {
+        Rating removedRating = rating("alice", NOW.minusHours(2));
+        removedRating.setLikes(3);
+
+        leaderboardService.onMediaDeleted(1, new DeletedMedia("bob", List.of(removedRating), List.of("bob")));
+
+        Map<String, Object> alice = leaderboardService.getRankAround("alice", 0);
+        assertEquals(2, alice.get("ratingCount"));
+        assertEquals(7, leaderboardService.getRankAround("alice", 0, "likes", null).get("likesReceived"));
+        assertNull(leaderboardService.getRankAround("alice", 0, null, "day"));
+        assertEquals(3, leaderboardService.getRankAround("bob", 0, "media", null).get("mediaCount"));
+        assertEquals(2, leaderboardService.getRankAround("bob", 0, "favorites", null).get("favoriteCount"));
+        verify(userRepository, times(1)).getLeaderboardStats();
+    }
+
+    // Test: Limit kleiner 1 wirft Exception
+    @Test
+    void getLeaderboardWithInvalidLimitTest() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboardService.getLeaderboard(0));
+    }
+
+    private List<Object> usernames(List<Map<String, Object>> leaderboard) {
+        return leaderboard.stream().map(entry -> entry.get("username")).toList();
+    }
+
+    private Rating rating(String username, LocalDateTime timestamp) {
+        Rating rating = new Rating(0, 1, username, 4, null);
+        rating.setTimestamp(timestamp);
+        return rating;
+    }
+
+    // Clock die im Test vorgestellt werden kann
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private Map<String, Object> stats(String username, long ratings, long likes, long starsSum, long media,
+                                      long favorites) {
+        return Map.of("username", username, "ratingCount", ratings, "likesReceived", likes, "starsSum", starsSum,
+            "mediaCount", media, "favoriteCount", favorites);
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für LikeCounterService - gepufferte Likes mit gebündeltem Flush
+@ExtendWith(MockitoExtension.class)
+class LikeCounterServiceTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @InjectMocks
+    private LikeCounterService likeCounter;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty("ratings.likes.flush-millis", "60000");  // Flush nur manuell im Test
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeCounter.stop();
+        System.clearProperty("ratings.likes.flush-millis");
+    }
+
+    // Test: Ohne start() wird jedes Like synchron geschrieben
+    @Test
+    void incrementWithoutBufferingWritesImmediatelyTest() {
+        when(ratingRepository.incrementLikes(1)).thenReturn(true);
+
+        assertTrue(likeCounter.increment(1));
+        assertEquals(0, likeCounter.pending(1));
+        verify(ratingRepository).incrementLikes(1);
+    }
+
+    // Test: Gepufferte Likes werden zu gelesenen Ratings addiert und mit einem UPDATE geschrieben
+    @Test
+    void bufferedLikesAreMergedAndFlushedInOneUpdateTest() {
+        likeCounter.start();
+        likeCounter.increment(1);
+        likeCounter.increment(1);
+        likeCounter.increment(2);
+
+        Rating rating = new Rating(1, 10, "alice", 5, "Great");
+        rating.setLikes(3);
+        assertEquals(5, likeCounter.withPending(rating).getLikes());
+
+        assertEquals(3, likeCounter.flush());
+        verify(ratingRepository, times(1)).addLikes(Map.of(1, 2L, 2, 1L));
+        verify(ratingRepository, never()).incrementLikes(anyInt());
+        assertEquals(0, likeCounter.pending(1));
+        assertEquals(0, likeCounter.flush());  // Nichts mehr offen -> kein UPDATE
+        verify(ratingRepository, times(1)).addLikes(anyMap());
+
+        Map<String, Object> metrics = likeCounter.getMetrics();
+        assertEquals(1L, metrics.get("flushCount"));
+        assertEquals(3L, metrics.get("flushedLikes"));
+        assertEquals(0L, metrics.get("pendingLikes"));
+    }
+
+    // Test: Fehlgeschlagener Flush bucht die Deltas zurück (kein Like geht verloren)
+    @Test
+    void failedFlushKeepsPendingLikesTest() {
+        likeCounter.start();
+        likeCounter.increment(1);
+        doThrow(new RuntimeException("Database connection failed")).when(ratingRepository).addLikes(anyMap());
+
+        assertThrows(RuntimeException.class, () -> likeCounter.flush());
+
+        assertEquals(1, likeCounter.pending(1));
+        assertEquals(1L, likeCounter.getMetrics().get("failedFlushes"));
+        assertEquals(1L, likeCounter.getMetrics().get("pendingLikes"));
+    }
+
+    // Test: Gleichzeitige Likes während laufender Flushes werden genau einmal geschrieben
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentLikesAreCountedExactlyOnceTest() throws Exception {
+        likeCounter.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 5_000; j++) {
+                    likeCounter.increment(j % 3);
+                }
+            });
+        }
+        executor.shutdown();
+        while (!executor.awaitTermination(10, TimeUnit.MILLISECONDS)) {
+            likeCounter.flush();
+        }
+        likeCounter.flush();
+        likeCounter.flush();  // Leere Zähler werden erst im Folge-Flush verworfen
+
+        ArgumentCaptor<Map<Integer, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(ratingRepository, atLeastOnce()).addLikes(captor.capture());
+        long total = 0;
+        for (Map<Integer, Long> deltas : new ArrayList<>(captor.getAllValues())) {
+            total += deltas.values().stream().mapToLong(Long::longValue).sum();
+        }
+        assertEquals(40_000, total);
+    }
+
+    // Test: Stop schreibt noch offene Likes und schaltet auf synchrones Schreiben zurück
+    @Test
+    void stopFlushesAndDisablesBufferingTest() {
+        likeCounter.start();
+        likeCounter.increment(7);
+
+        likeCounter.stop();
+
+        verify(ratingRepository).addLikes(Map.of(7, 1L));
+        assertFalse((Boolean) likeCounter.getMetrics().get("buffering"));
+        List<Rating> none = List.of();
+        assertSame(none, likeCounter.withPending(none));
+    }
+}
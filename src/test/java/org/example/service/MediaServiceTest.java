@@ -124,7 +124,7 @@ class MediaServiceTest {
         existingMedia.setCreator("testuser");
 
         when(mediaRepository.findById(1)).thenReturn(Optional.of(existingMedia));
-        doNothing().when(mediaRepository).delete(1);
+        when(mediaRepository.delete(1)).thenReturn(new MediaRepository.DeletedMedia("testuser", List.of(), List.of()));
 
         assertDoesNotThrow(() -> mediaService.deleteMedia(1, testUser));
 
@@ -0,0 +1,62 @@
+package org.example.service;
+
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für RatingAggregateRepairService - Abgleich der Rating-Aggregate
+@ExtendWith(MockitoExtension.class)
+class RatingAggregateRepairServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @InjectMocks
+    private RatingAggregateRepairService repairService;
+
+    // Test: repair() setzt Write-Behind aus, schreibt zuerst gesammelte Deltas und meldet die Anzahl korrigierter Media
+    @Test
+    void repairReturnsRepairedCountTest() {
+        when(mediaRepository.repairRatingAggregates()).thenReturn(3);
+        when(mediaRepository.repairFavoriteCounts()).thenReturn(1);
+
+        assertEquals(4, repairService.repair());
+        InOrder inOrder = inOrder(ratingRepository, mediaRepository);
+        inOrder.verify(ratingRepository).suspendAggregateWriteBehind();
+        inOrder.verify(ratingRepository).flushAggregates();
+        inOrder.verify(mediaRepository).repairRatingAggregates();
+        inOrder.verify(mediaRepository).repairFavoriteCounts();
+        inOrder.verify(ratingRepository).resumeAggregateWriteBehind();
+    }
+
+    // Test: Schlägt der Abgleich fehl, wird Write-Behind trotzdem wieder aufgenommen
+    @Test
+    void failedRepairResumesWriteBehindTest() {
+        when(mediaRepository.repairRatingAggregates()).thenThrow(new RuntimeException("Database connection failed"));
+
+        assertThrows(RuntimeException.class, () -> repairService.repair());
+        verify(ratingRepository).resumeAggregateWriteBehind();
+    }
+
+    // Test: Start und Stop sind idempotent, der erste Abgleich läuft erst nach dem Intervall
+    @Test
+    void startAndStopAreIdempotentTest() {
+        repairService.start();
+        repairService.start();
+        repairService.stop();
+        repairService.stop();
+
+        verifyNoInteractions(mediaRepository, ratingRepository);
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.service;
+
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für RatingAggregateWriteBehindService - gebündeltes Schreiben der Rating-Aggregate
+@ExtendWith(MockitoExtension.class)
+class RatingAggregateWriteBehindServiceTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @InjectMocks
+    private RatingAggregateWriteBehindService writeBehindService;
+
+    @AfterEach
+    void tearDown() {
+        writeBehindService.stop();
+        System.clearProperty("media.aggregates.flush-millis");
+    }
+
+    // Test: Start aktiviert das Sammeln, danach wird periodisch geschrieben
+    @Test
+    void startFlushesPeriodicallyTest() {
+        System.setProperty("media.aggregates.flush-millis", "10");
+
+        writeBehindService.start();
+
+        verify(ratingRepository).setAggregateWriteBehind(true);
+        verify(ratingRepository, timeout(1000).atLeast(2)).flushAggregates();
+    }
+
+    // Test: Stop schaltet zuerst auf synchrone Updates zurück und schreibt dann die restlichen Deltas
+    @Test
+    void stopFlushesRemainingDeltasTest() {
+        System.setProperty("media.aggregates.flush-millis", "60000");
+        writeBehindService.start();
+
+        writeBehindService.stop();
+
+        InOrder inOrder = inOrder(ratingRepository);
+        inOrder.verify(ratingRepository).setAggregateWriteBehind(true);
+        inOrder.verify(ratingRepository).setAggregateWriteBehind(false);
+        inOrder.verify(ratingRepository).flushAggregates();
+    }
+
+    // Test: Intervall 0 lässt die Aggregate synchron im Rating-Write
+    @Test
+    void zeroIntervalKeepsSynchronousUpdatesTest() {
+        System.setProperty("media.aggregates.flush-millis", "0");
+
+        writeBehindService.start();
+        writeBehindService.stop();
+
+        verifyNoInteractions(ratingRepository);
+    }
+
+    // Test: Fehler beim Schreiben werden abgefangen (Deltas bleiben im Repository gesammelt)
+    @Test
+    void flushFailureIsSwallowedTest() {
+        when(ratingRepository.flushAggregates()).thenThrow(new RuntimeException("Database connection failed"));
+
+        assertDoesNotThrow(() -> writeBehindService.flush());
+    }
+}
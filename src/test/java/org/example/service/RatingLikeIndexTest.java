@@ -0,0 +1,100 @@
+package org.example.service;
+
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für RatingLikeIndex - Bloom-Filter vor exakten Liker-Mengen
+@ExtendWith(MockitoExtension.class)
+class RatingLikeIndexTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private RatingLikeIndex likeIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(ratingRepository.countLikes()).thenReturn(2L);
+        doAnswer(invocation -> {
+            BiConsumer<Integer, String> consumer = invocation.getArgument(0);
+            consumer.accept(1, "alice");
+            consumer.accept(1, "bob");
+            return null;
+        }).when(ratingRepository).forEachLike(any());
+        likeIndex = new RatingLikeIndex(ratingRepository);
+        likeIndex.rebuild();
+    }
+
+    // Test: Unbekannte Paare werden vom Bloom-Filter ohne DB-Zugriff verneint
+    @Test
+    void filterNegativeNeedsNoDatabaseReadTest() {
+        for (int ratingId = 2; ratingId < 200; ratingId++) {
+            likeIndex.markLiked(ratingId, "someone");
+        }
+        int negatives = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (!likeIndex.hasLiked(1, "user" + i)) {
+                negatives++;
+            }
+        }
+
+        assertEquals(1_000, negatives);
+        long exactLoads = (Long) likeIndex.getMetrics().get("exactLoads");
+        assertTrue(exactLoads <= 1, "Bloom-Filter sollte fast alle Anfragen ohne DB beantworten");
+        verify(ratingRepository, atMost(1)).getLikers(anyInt());
+    }
+
+    // Test: Bekannte Likes werden über die exakte Menge bestätigt, die nur einmal geladen wird
+    @Test
+    void duplicateLikesUseCachedExactSetTest() {
+        when(ratingRepository.getLikers(1)).thenReturn(List.of("alice", "bob"));
+
+        assertTrue(likeIndex.hasLiked(1, "alice"));
+        assertTrue(likeIndex.hasLiked(1, "bob"));
+        assertTrue(likeIndex.hasLiked(1, "alice"));
+
+        verify(ratingRepository, times(1)).getLikers(1);
+    }
+
+    // Test: Like und Unlike aktualisieren den Index ohne erneutes Laden
+    @Test
+    void markLikedAndUnlikedTest() {
+        when(ratingRepository.getLikers(1)).thenReturn(List.of("alice", "bob"));
+        assertTrue(likeIndex.hasLiked(1, "alice"));  // Lädt die exakte Menge
+
+        likeIndex.markLiked(1, "carol");
+        likeIndex.markUnliked(1, "alice");
+
+        assertTrue(likeIndex.hasLiked(1, "carol"));
+        assertFalse(likeIndex.hasLiked(1, "alice"));  // Bloom sagt "vielleicht", exakte Menge entscheidet
+        verify(ratingRepository, times(1)).getLikers(1);
+    }
+
+    // Test: Like während die exakte Menge geladen wird -> geladene (veraltete) Menge wird nicht gecacht
+    @Test
+    void likeDuringLoadIsNotLostTest() {
+        when(ratingRepository.getLikers(1))
+                .thenAnswer(invocation -> {
+                    likeIndex.markLiked(1, "carol");  // Like committet nach dem Lesen, vor dem Cachen
+                    return List.of("alice", "bob");
+                })
+                .thenReturn(List.of("alice", "bob", "carol"));
+
+        assertTrue(likeIndex.hasLiked(1, "alice"));
+        assertTrue(likeIndex.hasLiked(1, "carol"));  // Neu geladen statt veralteter Menge aus dem Cache
+        verify(ratingRepository, times(2)).getLikers(1);
+    }
+}
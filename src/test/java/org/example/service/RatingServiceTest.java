@@ -1,17 +1,36 @@
 package org.example.service;
 
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 // Unit Tests für RatingService - Business Logic Layer
 // Testet Rating-Logik (Create, Update, Delete, Like, Confirm)
 @ExtendWith(MockitoExtension.class)
 class RatingServiceTest {
 
+    @Mock
+    private RatingRepository ratingRepository;
+
     private RatingService ratingService;
 
     @BeforeEach
@@ -64,4 +83,138 @@ class RatingServiceTest {
             () -> ratingService.createOrUpdateRating(1, "testuser", 4, null)
         );
     }
+
+    // Test: Doppelte Likes desselben Users werden abgewiesen, ohne Rating zu lesen oder zu schreiben
+    // (die Liker-Menge des Ratings wird einmal geladen und danach aus dem Cache geprüft)
+    @Test
+    void likeRatingTwiceIsRejectedTest() {
+        RatingService service = new RatingService(ratingRepository);
+        Rating rating = new Rating(1, 10, "author", 5, "Great");
+        when(ratingRepository.getRatingById(1)).thenReturn(rating);
+        when(ratingRepository.addLike(1, "alice")).thenReturn(true);
+        when(ratingRepository.incrementLikes(1)).thenReturn(true);
+        when(ratingRepository.getLikers(1)).thenReturn(List.of("alice"));
+
+        assertEquals(1, service.likeRating(1, "alice").getLikes());
+        for (int i = 0; i < 3; i++) {
+            IllegalStateException exception = assertThrows(
+                IllegalStateException.class,
+                () -> service.likeRating(1, "alice")
+            );
+            assertEquals("Rating already liked", exception.getMessage());
+        }
+
+        verify(ratingRepository, times(1)).getLikers(1);
+        verify(ratingRepository, times(1)).getRatingById(1);
+        verify(ratingRepository, times(1)).addLike(anyInt(), anyString());
+        verify(ratingRepository, times(1)).incrementLikes(1);
+    }
+
+    // Test: Unlike ohne vorheriges Like wird ohne DB-Zugriff abgewiesen
+    @Test
+    void unlikeWithoutLikeIsRejectedTest() {
+        RatingService service = new RatingService(ratingRepository);
+
+        assertThrows(IllegalStateException.class, () -> service.unlikeRating(1, "alice"));
+        verifyNoInteractions(ratingRepository);
+    }
+
+    // Test: Listener bekommen beim Löschen die Likes inklusive der noch gepufferten
+    @Test
+    void deleteRatingReportsBufferedLikesTest() {
+        System.setProperty("ratings.likes.flush-millis", "60000");  // Flush nur manuell im Test
+        LikeCounterService likeCounter = new LikeCounterService(ratingRepository);
+        likeCounter.start();
+        try {
+            RatingService service = new RatingService(ratingRepository, likeCounter, new RatingLikeIndex(ratingRepository));
+            RatingListener listener = mock(RatingListener.class);
+            service.addListener(listener);
+            Rating stored = new Rating(1, 10, "author", 5, "Great");
+            stored.setLikes(4);
+            when(ratingRepository.getRatingById(1)).thenReturn(stored);
+            when(ratingRepository.deleteRating(1)).thenReturn(true);
+            likeCounter.increment(1);
+            likeCounter.increment(1);
+
+            assertTrue(service.deleteRating(1, "author"));
+
+            verify(listener).onRatingDeleted(argThat(rating -> rating.getLikes() == 6));
+        } finally {
+            likeCounter.stop();
+            System.clearProperty("ratings.likes.flush-millis");
+        }
+    }
+
+    // Test: Batch-Bestätigung meldet jedes neu bestätigte Rating einmal (vorher unbestätigt, nachher bestätigt)
+    @Test
+    void confirmRatingsNotifiesListenersTest() {
+        RatingService service = new RatingService(ratingRepository);
+        RatingListener listener = mock(RatingListener.class);
+        service.addListener(listener);
+        Rating first = new Rating(1, 10, "alice", 4, "Good");
+        first.setConfirmed(true);
+        Rating second = new Rating(2, 11, "bob", 2, "Meh");
+        second.setConfirmed(true);
+        when(ratingRepository.confirmRatings(anyCollection())).thenReturn(List.of(first, second));
+
+        List<Rating> confirmed = service.confirmRatings(List.of(1, 2, 2, 3));
+
+        assertEquals(2, confirmed.size());
+        verify(ratingRepository).confirmRatings(argThat(ids -> ids.size() == 3));  // Duplikate entfernt
+        verify(listener).onRatingSaved(argThat(previous -> previous.getId() == 1 && !previous.isConfirmed()), eq(first));
+        verify(listener).onRatingSaved(argThat(previous -> previous.getId() == 2 && !previous.isConfirmed()), eq(second));
+    }
+
+    // Test: Leere oder zu große Batches werden ohne DB-Zugriff abgewiesen
+    @Test
+    void confirmRatingsRejectsInvalidBatchTest() {
+        RatingService service = new RatingService(ratingRepository);
+        List<Integer> tooMany = new ArrayList<>();
+        for (int i = 0; i <= RatingService.MAX_CONFIRM_BATCH; i++) {
+            tooMany.add(i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service.confirmRatings(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> service.confirmRatings(tooMany));
+        verifyNoInteractions(ratingRepository);
+    }
+
+    // Test: Kommentar-Vorprüfung entscheidet über confirmed (sauber = bestätigt, markiert = Moderation)
+    @Test
+    void screenedCommentsSetConfirmedTest(@TempDir Path tempDir) throws Exception {
+        Path dictionary = tempDir.resolve("banned.txt");
+        Files.writeString(dictionary, "spoiler\n");
+        CommentScreeningService screening = new CommentScreeningService(dictionary, 0);
+        screening.reload();
+        RatingService service = new RatingService(ratingRepository, new LikeCounterService(ratingRepository),
+                new RatingLikeIndex(ratingRepository), screening);
+        when(ratingRepository.upsertRating(anyInt(), anyString(), anyInt(), anyString(), any()))
+                .thenReturn(new RatingRepository.RatingUpsert(null, new Rating(1, 10, "alice", 4, "")));
+
+        service.createOrUpdateRating(10, "alice", 4, "Loved it");
+        service.createOrUpdateRating(10, "alice", 4, "Spoiler: he dies");
+
+        verify(ratingRepository).upsertRating(10, "alice", 4, "Loved it", true);
+        verify(ratingRepository).upsertRating(10, "alice", 4, "Spoiler: he dies", false);
+    }
+
+    // Test: Schmale Liste ohne Kommentare, Kommentare werden gebündelt und dedupliziert nachgeladen
+    @Test
+    void commentsAreLoadedInOneBatchTest() {
+        RatingService service = new RatingService(ratingRepository);
+        when(ratingRepository.getRatingsByMediaId(10, false))
+                .thenReturn(List.of(new Rating(1, 10, "alice", 4, null), new Rating(2, 10, "bob", 5, null)));
+        when(ratingRepository.getComments(anyCollection())).thenReturn(Map.of(1, "Loved it"));
+
+        assertEquals(2, service.getRatingsByMediaId(10, false).size());
+        assertEquals(Map.of(1, "Loved it"), service.getComments(List.of(1, 2, 1)));
+
+        verify(ratingRepository).getComments(new LinkedHashSet<>(List.of(1, 2)));
+        verify(ratingRepository, never()).getRatingsByMediaId(10, true);
+        List<Integer> tooMany = new ArrayList<>();
+        for (int i = 0; i <= RatingService.MAX_COMMENT_BATCH; i++) {
+            tooMany.add(i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> service.getComments(tooMany));
+    }
 }
@@ -0,0 +1,134 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für RecommendationService - Batch-Empfehlungen und Cold-Start Fallback
+@ExtendWith(MockitoExtension.class)
+class RecommendationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private RecommendationService recommendationService;
+
+    // Bayes-Score (Prior 5): Media 1 > 2 > 4 > 3
+    private final List<MediaEntry> allMedia = List.of(
+        media(1, 4.5, 10, "Action"),
+        media(2, 4.0, 2, "Drama"),
+        media(3, 3.5, 5, "Action", "Sci-Fi"),
+        media(4, 3.0, 1, "Drama", "Romance")
+    );
+
+    @BeforeEach
+    void setUp() {
+        when(mediaRepository.findAll()).thenReturn(allMedia);
+        when(ratingRepository.getAllRatings()).thenReturn(List.of(rating(1, "alice", 5)));
+
+        MediaCatalog catalog = new MediaCatalog(mediaRepository);
+        catalog.rebuild();
+        PopularityService popularityService = new PopularityService(catalog, mediaRepository);
+        popularityService.refresh();
+        CoOccurrenceService coOccurrenceService = new CoOccurrenceService(catalog, ratingRepository);
+        coOccurrenceService.rebuild();
+        SimilarMediaService similarMediaService = new SimilarMediaService(catalog, ratingRepository);
+        similarMediaService.rebuild();
+
+        recommendationService = new RecommendationService(userRepository, mediaRepository, ratingRepository,
+            catalog, popularityService, coOccurrenceService, similarMediaService);
+    }
+
+    // Test: User ohne hoch bewertete Media bekommt beliebte Media ohne SQL
+    @Test
+    void getRecommendationsColdStartTest() {
+        List<Map<String, Object>> recommendations = recommendationService.getRecommendations("carol", 3);
+
+        assertEquals(List.of(1, 2, 4), ids(recommendations));
+        verifyNoInteractions(userRepository);
+    }
+
+    // Test: Wenige Signale -> personalisierte Ergebnisse werden mit beliebten Media aufgefüllt
+    @Test
+    void getRecommendationsBlendsPopularForFewSignalsTest() {
+        when(userRepository.getRecommendations("alice", 10)).thenReturn(List.of(
+            new java.util.HashMap<>(Map.of("id", 3, "title", "Media 3"))));
+
+        List<Map<String, Object>> recommendations = recommendationService.getRecommendations("alice", 10);
+
+        assertEquals(List.of(3, 2, 4), ids(recommendations));  // Media 1 schon bewertet
+    }
+
+    // Test: Batch liefert pro User genre-basierte Empfehlungen in Eingabe-Reihenfolge
+    @Test
+    void getRecommendationsBatchTest() {
+        when(mediaRepository.findAllOrderedByRating()).thenReturn(allMedia);
+        when(ratingRepository.getRatingsByUsers(List.of("alice", "bob", "nobody"))).thenReturn(Map.of(
+            "alice", List.of(rating(1, "alice", 5)),
+            "bob", List.of(rating(2, "bob", 4), rating(1, "bob", 2))
+        ));
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        recommendationService.getRecommendationsBatch(List.of("alice", "bob", "nobody"), 10, results::add);
+
+        assertEquals(3, results.size());
+        assertEquals("alice", results.get(0).get("username"));
+        assertEquals(List.of(3, 2, 4), ids(results.get(0)));  // Aufgefüllt mit beliebten Media
+        assertEquals("bob", results.get(1).get("username"));
+        assertEquals(List.of(4, 3), ids(results.get(1)));  // Media 1 schon bewertet
+        assertEquals(List.of(1, 2, 4, 3), ids(results.get(2)));  // Cold-Start: nur beliebte Media
+        verify(ratingRepository, times(1)).getRatingsByUsers(anyList());  // Eine Query für den ganzen Chunk
+    }
+
+    // Test: Leere Username-Liste wirft Exception
+    @Test
+    void getRecommendationsBatchWithoutUsernamesTest() {
+        assertThrows(IllegalArgumentException.class,
+            () -> recommendationService.getRecommendationsBatch(List.of(), 10, result -> { }));
+        verify(ratingRepository, never()).getRatingsByUsers(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> ids(Map<String, Object> result) {
+        return ids((List<Map<String, Object>>) result.get("recommendations"));
+    }
+
+    private List<Integer> ids(List<Map<String, Object>> recommendations) {
+        return recommendations.stream()
+            .map(entry -> (Integer) entry.get("id"))
+            .toList();
+    }
+
+    private static MediaEntry media(int id, double averageRating, int confirmedCount, String... genres) {
+        MediaEntry media = new MediaEntry(id, "Media " + id, "", MediaType.MOVIE, 2000, List.of(genres), 12, "creator");
+        media.setAverageScore(averageRating);
+        media.setConfirmedCount(confirmedCount);
+        return media;
+    }
+
+    private Rating rating(int mediaId, String username, int stars) {
+        return new Rating(0, mediaId, username, stars, null);
+    }
+}
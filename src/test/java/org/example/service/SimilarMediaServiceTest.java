@@ -0,0 +1,101 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für SimilarMediaService - In-Memory Nachbarn aus Co-Ratings und Genres
+@ExtendWith(MockitoExtension.class)
+class SimilarMediaServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private SimilarMediaService similarMediaService;
+
+    @BeforeEach
+    void setUp() {
+        when(mediaRepository.findAll()).thenReturn(List.of(
+            media(1, "Matrix", "Sci-Fi", "Action"),
+            media(2, "Matrix Reloaded", "Sci-Fi", "Action"),
+            media(3, "Notting Hill", "Romance"),
+            media(4, "Inception", "Sci-Fi")
+        ));
+        when(ratingRepository.getAllRatings()).thenReturn(List.of(
+            rating(1, "alice"), rating(3, "alice"),
+            rating(1, "bob"), rating(3, "bob")
+        ));
+
+        MediaCatalog catalog = new MediaCatalog(mediaRepository);
+        catalog.rebuild();
+        similarMediaService = new SimilarMediaService(catalog, ratingRepository);
+        similarMediaService.rebuild();
+    }
+
+    // Test: Co-Ratings und Genres fließen in die Ähnlichkeit ein
+    @Test
+    void getSimilarMediaRanksByCoRatingsAndGenresTest() {
+        List<Map<String, Object>> similar = similarMediaService.getSimilarMedia(1, 10);
+
+        assertEquals(3, similar.size());
+        assertEquals(3, similar.get(0).get("id"));  // Zwei gemeinsame Rater schlagen Genre-Match
+        assertEquals(2, similar.get(1).get("id"));  // Identische Genres
+        assertEquals(4, similar.get(2).get("id"));  // Ein gemeinsames Genre
+    }
+
+    // Test: Neues Rating wird ohne Rebuild berücksichtigt
+    @Test
+    void onRatingSavedUpdatesNeighborsTest() {
+        similarMediaService.getSimilarMedia(4, 10);  // Füllt Cache
+
+        similarMediaService.onRatingSaved(null, rating(4, "alice"));
+        similarMediaService.onRatingSaved(null, rating(3, "carol"));
+        similarMediaService.onRatingSaved(null, rating(4, "carol"));
+
+        List<Map<String, Object>> similar = similarMediaService.getSimilarMedia(4, 10);
+        assertEquals(3, similar.get(0).get("id"));
+        verify(ratingRepository, times(1)).getAllRatings();  // Kein erneuter DB-Zugriff
+    }
+
+    // Test: Gelöschtes Media taucht nicht mehr als Nachbar auf
+    @Test
+    void onMediaDeletedRemovesNeighborTest() {
+        similarMediaService.getSimilarMedia(1, 10);
+
+        similarMediaService.onMediaDeleted(3);
+
+        List<Map<String, Object>> similar = similarMediaService.getSimilarMedia(1, 10);
+        assertTrue(similar.stream().noneMatch(entry -> entry.get("id").equals(3)));
+        assertNull(similarMediaService.getSimilarMedia(3, 10));
+    }
+
+    // Test: Limit kleiner 1 wirft Exception
+    @Test
+    void getSimilarMediaWithInvalidLimitTest() {
+        assertThrows(IllegalArgumentException.class, () -> similarMediaService.getSimilarMedia(1, 0));
+    }
+
+    private MediaEntry media(int id, String title, String... genres) {
+        return new MediaEntry(id, title, "", MediaType.MOVIE, 2000, List.of(genres), 12, "creator");
+    }
+
+    private Rating rating(int mediaId, String username) {
+        return new Rating(0, mediaId, username, 5, null);
+    }
+}
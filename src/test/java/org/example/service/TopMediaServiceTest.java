@@ -0,0 +1,112 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für TopMediaService - Bayes-Ranglisten pro Typ und Genre
+@ExtendWith(MockitoExtension.class)
+class TopMediaServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private TopMediaService topMediaService;
+
+    @BeforeEach
+    void setUp() {
+        when(mediaRepository.findAll()).thenReturn(List.of(
+            media(1, MediaType.MOVIE, "Drama"),
+            media(2, MediaType.MOVIE, "Action"),
+            media(3, MediaType.SERIES, "Drama"),
+            media(4, MediaType.GAME, "Action")
+        ));
+        Map<Integer, long[]> stats = new HashMap<>();
+        stats.put(1, new long[]{5, 1});    // Ein 5-Sterne Rating
+        stats.put(2, new long[]{90, 20});  // 20 Ratings, Schnitt 4.5
+        stats.put(3, new long[]{30, 10});  // 10 Ratings, Schnitt 3.0
+        when(ratingRepository.getConfirmedRatingStats()).thenReturn(stats);
+
+        MediaCatalog catalog = new MediaCatalog(mediaRepository);
+        catalog.rebuild();
+        topMediaService = new TopMediaService(catalog, ratingRepository);
+        topMediaService.rebuild();
+    }
+
+    // Test: Viele gute Ratings schlagen ein einzelnes 5-Sterne Rating
+    @Test
+    void getTopMediaRanksByBayesianAverageTest() {
+        List<Map<String, Object>> top = topMediaService.getTopMedia(null, null, 10);
+
+        assertEquals(List.of(2, 1, 3), ids(top));
+        assertEquals(1, top.get(0).get("rank"));
+        assertEquals(4.5, top.get(0).get("averageRating"));
+        assertEquals(20L, top.get(0).get("ratingCount"));
+    }
+
+    // Test: Filter nach Typ, Genre und beidem
+    @Test
+    void getTopMediaFiltersByTypeAndGenreTest() {
+        assertEquals(List.of(1, 3), ids(topMediaService.getTopMedia(null, "drama", 10)));
+        assertEquals(List.of(2, 1), ids(topMediaService.getTopMedia("movie", null, 10)));
+        assertEquals(List.of(3), ids(topMediaService.getTopMedia("SERIES", "Drama", 10)));
+        assertEquals(List.of(), ids(topMediaService.getTopMedia("GAME", null, 10)));  // Keine bestätigten Ratings
+        assertThrows(IllegalArgumentException.class, () -> topMediaService.getTopMedia("BOOK", null, 10));
+    }
+
+    // Test: Bestätigen und Löschen verschiebt nur das betroffene Media, ohne DB-Zugriff
+    @Test
+    void ratingEventsUpdateRankingTest() {
+        for (int i = 0; i < 5; i++) {
+            Rating unconfirmed = rating(4, 5, false);
+            topMediaService.onRatingSaved(null, unconfirmed);  // Unbestätigt zählt nicht
+            topMediaService.onRatingSaved(unconfirmed, rating(4, 5, true));  // Bestätigung
+        }
+        assertEquals(List.of(4, 2, 1, 3), ids(topMediaService.getTopMedia(null, null, 10)));
+        assertEquals(List.of(4), ids(topMediaService.getTopMedia("GAME", null, 10)));
+
+        topMediaService.onRatingDeleted(rating(1, 5, true));
+        assertEquals(List.of(4, 2, 3), ids(topMediaService.getTopMedia(null, null, 10)));
+        verify(ratingRepository, times(1)).getConfirmedRatingStats();
+    }
+
+    // Test: Gelöschtes Media verschwindet aus allen Ranglisten
+    @Test
+    void onMediaDeletedRemovesFromRankingsTest() {
+        topMediaService.onMediaDeleted(2);
+
+        assertEquals(List.of(1, 3), ids(topMediaService.getTopMedia(null, null, 10)));
+        assertEquals(List.of(), ids(topMediaService.getTopMedia(null, "action", 10)));
+    }
+
+    private List<Object> ids(List<Map<String, Object>> entries) {
+        return entries.stream().map(entry -> entry.get("id")).toList();
+    }
+
+    private MediaEntry media(int id, MediaType type, String... genres) {
+        return new MediaEntry(id, "Media " + id, "", type, 2000, List.of(genres), 12, "creator");
+    }
+
+    private Rating rating(int mediaId, int stars, boolean confirmed) {
+        Rating rating = new Rating(0, mediaId, "user", stars, null);
+        rating.setConfirmed(confirmed);
+        return rating;
+    }
+}
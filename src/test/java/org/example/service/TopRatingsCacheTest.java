@@ -0,0 +1,162 @@
+package org.example.service;
+
+import org.example.model.Rating;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für TopRatingsCache (erste Seite der Top-Kommentare nach Likes pro Media)
+@ExtendWith(MockitoExtension.class)
+class TopRatingsCacheTest {
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private LikeCounterService likeCounter;
+    private TopRatingsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        likeCounter = new LikeCounterService(ratingRepository);
+        cache = new TopRatingsCache(ratingRepository, likeCounter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeCounter.stop();
+        System.clearProperty("ratings.likes.flush-millis");
+    }
+
+    // Test: Erste Seite wird einmal geladen, kleinere Limits kommen aus dem Cache
+    @Test
+    void firstPageIsServedFromCacheTest() {
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of()))
+                .thenReturn(List.of(rating(1, 5), rating(2, 3), rating(3, 0)));
+
+        assertEquals(List.of(1, 2, 3), ids(cache.getTopRatings(10, 10)));
+        assertEquals(List.of(1), ids(cache.getTopRatings(10, 1)));
+        verify(ratingRepository, times(1)).getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of());
+    }
+
+    // Test: Likes verschieben Ratings in der gecachten Seite ohne neue Query
+    @Test
+    void likesReorderCachedPageTest() {
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of()))
+                .thenReturn(List.of(rating(1, 5), rating(2, 5), rating(3, 4)));
+        cache.getTopRatings(10, 10);
+
+        cache.onRatingLiked(rating(3, 6));
+        cache.onRatingUnliked(rating(1, 4));
+
+        assertEquals(List.of(3, 2, 1), ids(cache.getTopRatings(10, 10)));
+        assertEquals(6, cache.getTopRatings(10, 1).get(0).getLikes());
+        verify(ratingRepository, times(1)).getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of());
+    }
+
+    // Test: Volle Seite - Rating von außerhalb steigt ein, Unlike innerhalb verwirft die Seite
+    @Test
+    void fullPageAdmitsClimbersAndDropsOnUnlikeTest() {
+        List<Rating> page = new ArrayList<>();
+        for (int id = 1; id <= TopRatingsCache.PAGE_SIZE; id++) {
+            page.add(rating(id, 100 - id));
+        }
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of())).thenReturn(page);
+        cache.getTopRatings(10, 5);
+
+        cache.onRatingLiked(rating(500, 1));  // Zu wenige Likes -> Seite unverändert
+        cache.onRatingLiked(rating(501, 200));  // Steigt auf Platz 1 ein
+        assertEquals(List.of(501, 1), ids(cache.getTopRatings(10, 2)));
+        assertEquals(TopRatingsCache.PAGE_SIZE, cache.getTopRatings(10, TopRatingsCache.PAGE_SIZE).size());
+        verify(ratingRepository, times(1)).getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of());
+
+        cache.onRatingUnliked(rating(1, 98));
+        cache.getTopRatings(10, 5);
+        verify(ratingRepository, times(2)).getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of());
+    }
+
+    // Test: Neue/geänderte und gelöschte Ratings verwerfen die Seite
+    @Test
+    void savesAndDeletesInvalidatePageTest() {
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of()))
+                .thenReturn(List.of(rating(1, 5)));
+        cache.getTopRatings(10, 10);
+
+        cache.onRatingSaved(null, rating(2, 0));
+        cache.getTopRatings(10, 10);
+        cache.onRatingDeleted(rating(1, 5));
+        cache.getTopRatings(10, 10);
+        cache.onRatingSaved(null, new Rating(3, 11, "other", 4, "other media"));  // Anderes Media
+        cache.getTopRatings(10, 10);
+
+        verify(ratingRepository, times(3)).getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of());
+    }
+
+    // Test: Gepufferte Likes heben ein Rating von außerhalb der DB-Top-20 in die Seite
+    @Test
+    void pendingLikesLiftRatingIntoPageTest() {
+        startBuffering();
+        for (int i = 0; i < 3; i++) {
+            likeCounter.increment(99);
+        }
+        List<Rating> stored = new ArrayList<>();
+        for (int id = 1; id <= TopRatingsCache.PAGE_SIZE; id++) {
+            stored.add(rating(id, 10));
+        }
+        stored.add(rating(99, 9));  // In der DB auf Platz 21, mit offenen Likes auf Platz 1
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of(99))).thenReturn(stored);
+
+        List<Rating> page = cache.getTopRatings(10, TopRatingsCache.PAGE_SIZE);
+
+        assertEquals(TopRatingsCache.PAGE_SIZE, page.size());
+        assertEquals(99, page.get(0).getId());
+        assertEquals(12, page.get(0).getLikes());
+    }
+
+    // Test: Gepufferte Unlikes -> entsprechend mehr laden, damit das nächste Rating nachrücken kann
+    @Test
+    void pendingUnlikesLoadReplacementsTest() {
+        startBuffering();
+        for (int i = 0; i < 30; i++) {
+            likeCounter.decrement(1);
+        }
+        List<Rating> stored = new ArrayList<>();
+        for (int id = 1; id <= TopRatingsCache.PAGE_SIZE + 1; id++) {
+            stored.add(rating(id, 100 - id));
+        }
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE, Set.of()))
+                .thenReturn(stored.subList(0, TopRatingsCache.PAGE_SIZE));
+        when(ratingRepository.getTopRatingsByMediaId(10, TopRatingsCache.PAGE_SIZE + 1, Set.of())).thenReturn(stored);
+
+        List<Integer> page = ids(cache.getTopRatings(10, TopRatingsCache.PAGE_SIZE));
+
+        assertEquals(TopRatingsCache.PAGE_SIZE, page.size());
+        assertFalse(page.contains(1));  // 99 - 30 Likes -> hinter Rating 21
+        assertTrue(page.contains(TopRatingsCache.PAGE_SIZE + 1));
+    }
+
+    private void startBuffering() {
+        System.setProperty("ratings.likes.flush-millis", "60000");  // Flush nur manuell im Test
+        likeCounter.start();
+    }
+
+    private static Rating rating(int id, int likes) {
+        Rating rating = new Rating(id, 10, "user" + id, 4, "comment " + id);
+        rating.setLikes(likes);
+        return rating;
+    }
+
+    private static List<Integer> ids(List<Rating> ratings) {
+        return ratings.stream().map(Rating::getId).toList();
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.service;
+
+import org.example.model.MediaEntry;
+import org.example.model.MediaType;
+import org.example.model.Rating;
+import org.example.repository.MediaRepository;
+import org.example.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Unit Tests für TrendingService - abklingende Scores und periodische Top-Liste
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    private MutableClock clock;
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        when(mediaRepository.findAll()).thenReturn(List.of(media(1), media(2), media(3)));
+        MediaCatalog catalog = new MediaCatalog(mediaRepository);
+        catalog.rebuild();
+
+        // Media 1: zwei Ratings vor 2 Tagen, Media 2: ein Rating vor einer Stunde
+        when(ratingRepository.getRatingsSince(any())).thenReturn(List.of(
+            rating(1, NOW.minusDays(2)), rating(1, NOW.minusDays(2)), rating(2, NOW.minusHours(1))
+        ));
+        clock = new MutableClock(NOW);
+        trendingService = new TrendingService(catalog, ratingRepository, clock);
+        trendingService.rebuild();
+    }
+
+    // Test: Ältere Aktivität klingt ab (Halbwertszeit 24h) -> ein frisches Rating schlägt zwei alte
+    @Test
+    void rebuildDecaysOlderActivityTest() {
+        List<Map<String, Object>> trending = trendingService.getTrending(10);
+
+        assertEquals(List.of(2, 1), ids(trending));
+        assertEquals(1, trending.get(0).get("rank"));
+        assertEquals(0.5, (Double) trending.get(1).get("trendingScore"), 0.001);  // 2 * 0.25
+    }
+
+    // Test: Events wirken erst nach dem nächsten Refresh, Reads brauchen kein SQL
+    @Test
+    void eventsAreVisibleAfterRefreshTest() {
+        trendingService.onFavoriteAdded("alice", 3);
+        trendingService.onRatingLiked(rating(3, NOW));
+        assertEquals(List.of(2, 1), ids(trendingService.getTrending(10)));
+
+        trendingService.refresh();
+        assertEquals(List.of(3, 2, 1), ids(trendingService.getTrending(10)));
+        assertEquals(List.of(3), ids(trendingService.getTrending(1)));
+        verify(ratingRepository, times(1)).getRatingsSince(any());
+    }
+
+    // Test: Änderungen und Bestätigungen bestehender Ratings zählen nicht als neue Aktivität
+    @Test
+    void onlyNewRatingsCountTest() {
+        Rating existing = rating(1, NOW);
+        trendingService.onRatingSaved(existing, existing);
+        trendingService.onRatingSaved(null, rating(3, NOW));
+        trendingService.refresh();
+
+        List<Map<String, Object>> trending = trendingService.getTrending(10);
+        assertEquals(List.of(3, 2, 1), ids(trending));  // Media 2: Rating vor einer Stunde
+        assertEquals(0.5, (Double) trending.get(2).get("trendingScore"), 0.001);
+    }
+
+    // Test: Nach sehr langer Laufzeit bleiben die Scores endlich (Umrechnung auf neue Basis)
+    @Test
+    void scoresStayFiniteOverLongRuntimeTest() {
+        for (int day = 1; day <= 400; day++) {
+            clock.set(NOW.plusDays(day));
+            trendingService.onRatingSaved(null, rating(day % 2 == 0 ? 1 : 3, NOW));
+        }
+        trendingService.refresh();
+
+        List<Map<String, Object>> trending = trendingService.getTrending(10);
+        assertEquals(List.of(1, 3), ids(trending));  // Media 2 ist komplett abgeklungen
+        double score = (Double) trending.get(0).get("trendingScore");
+        assertTrue(Double.isFinite(score));
+        assertEquals(4.0 / 3.0, score, 0.001);  // 1 + 1/4 + 1/16 + ... (jeden zweiten Tag ein Rating)
+    }
+
+    // Test: Gelöschte Media verschwinden und ungültige Limits werden abgelehnt
+    @Test
+    void deletedMediaAndInvalidLimitTest() {
+        trendingService.onMediaDeleted(2);
+        trendingService.refresh();
+
+        assertEquals(List.of(1), ids(trendingService.getTrending(10)));
+        assertThrows(IllegalArgumentException.class, () -> trendingService.getTrending(0));
+        assertThrows(IllegalArgumentException.class, () -> trendingService.getTrending(101));
+    }
+
+    private List<Object> ids(List<Map<String, Object>> entries) {
+        return entries.stream().map(entry -> entry.get("id")).toList();
+    }
+
+    private MediaEntry media(int id) {
+        return new MediaEntry(id, "Media " + id, "", MediaType.MOVIE, 2000, List.of("Drama"), 12, "creator");
+    }
+
+    private Rating rating(int mediaId, LocalDateTime timestamp) {
+        Rating rating = new Rating(0, mediaId, "user", 4, null);
+        rating.setTimestamp(timestamp);
+        return rating;
+    }
+
+    // Verstellbare Uhr für Zeitfenster-Tests
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}